@@ -0,0 +1,138 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionManagement;
+import javax.ejb.TransactionManagementType;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.inject.Inject;
+import javax.transaction.HeuristicMixedException;
+import javax.transaction.HeuristicRollbackException;
+import javax.transaction.NotSupportedException;
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.UserTransaction;
+
+import org.slf4j.Logger;
+
+/**
+ * Runs the {@link JobInsertFlusher} that inserts asynchronously enqueued jobs, when async
+ * enqueue is enabled. Each batch is inserted in a transaction of its own, so an enqueued job is
+ * only durable once its stage completes, after the producer's own transaction.
+ *
+ * On shutdown the buffer is closed to new jobs and the flusher is interrupted and waited for, so
+ * that the batch it holds is flushed before the jobs still in the buffer are, and neither after
+ * the node stops.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class AsyncJobInserter {
+
+    static final long FLUSHER_STOP_TIMEOUT_MILLISECONDS = 30_000L;
+
+    @Inject
+    private Logger logger;
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Inject
+    private JobService jobService;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private UserTransaction userTransaction;
+
+    @Inject
+    private JobInsertBuffer jobInsertBuffer;
+
+    private JobInsertFlusher jobInsertFlusher;
+
+    private Thread jobInsertFlusherThread;
+
+    @PostConstruct
+    public void init() {
+        if (jobStoreConfiguration.isAsyncEnqueueEnabled()) {
+            startJobInsertFlusher();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (jobInsertFlusher != null) {
+            jobInsertBuffer.close();
+            jobInsertFlusher.stop();
+            jobInsertFlusherThread.interrupt();
+            awaitJobInsertFlusher();
+            jobInsertFlusher.flush(jobInsertBuffer.drain());
+        }
+    }
+
+    private void awaitJobInsertFlusher() {
+        try {
+            jobInsertFlusherThread.join(FLUSHER_STOP_TIMEOUT_MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (jobInsertFlusherThread.isAlive()) {
+            logger.warn("Jobstore job insert flusher did not stop within {} millisecond(s), flushing the jobs left in the buffer anyway", FLUSHER_STOP_TIMEOUT_MILLISECONDS);
+        }
+    }
+
+    private void startJobInsertFlusher() {
+        jobInsertFlusher = new JobInsertFlusher(
+                jobInsertBuffer,
+                this::insertJobs,
+                jobStoreConfiguration.getAsyncEnqueueBatchSize(),
+                jobStoreConfiguration.getAsyncEnqueueFlushMilliseconds(),
+                getLogger(JobInsertFlusher.class));
+
+        logger.info("Starting jobstore job insert flusher, inserting up to {} job(s) every {} millisecond(s)",
+                jobStoreConfiguration.getAsyncEnqueueBatchSize(),
+                jobStoreConfiguration.getAsyncEnqueueFlushMilliseconds());
+
+        jobInsertFlusherThread = managedThreadFactory.newThread(jobInsertFlusher);
+        jobInsertFlusherThread.start();
+    }
+
+    private void insertJobs(final List<Job> jobs) {
+        try {
+            userTransaction.begin();
+            jobService.insertJobs(jobs);
+            userTransaction.commit();
+        } catch (final NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e) {
+            rollback();
+            throw new IllegalStateException(format("Failed to commit the insert of %d job(s)", jobs.size()), e);
+        } catch (final RuntimeException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    private void rollback() {
+        try {
+            if (userTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                userTransaction.rollback();
+            }
+        } catch (final SystemException e) {
+            logger.error("Unexpected exception during transaction rollback, rollback maybe incomplete", e);
+        }
+    }
+}
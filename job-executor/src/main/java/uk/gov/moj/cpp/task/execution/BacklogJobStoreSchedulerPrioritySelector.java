@@ -0,0 +1,129 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.Math.max;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingInt;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.persistence.Priority;
+import uk.gov.moj.cpp.jobstore.persistence.PriorityBacklog;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Alternative;
+import javax.inject.Inject;
+
+/**
+ * Orders priorities by deficit round robin over the priorities that actually have jobs waiting,
+ * rather than by a random draw over all of them.
+ *
+ * The depth and oldest start time of each priority's backlog are read from the jobstore at most
+ * once per refresh interval. Each selection credits every priority with jobs waiting with its
+ * configured percentage share, puts the priority with the largest credit first and charges it
+ * the shares of all waiting priorities, so over time waiting priorities are put first in
+ * proportion to their shares. Priorities with nothing waiting are left out and earn no credit.
+ * If nothing was waiting when the backlog was last read, all priorities are returned in order of
+ * urgency, so that jobs inserted since are still claimed before the next refresh.
+ * A priority whose oldest job has waited longer than the configured maximum is put first
+ * regardless of its credit.
+ *
+ * Enable in place of {@link DefaultJobStoreSchedulerPrioritySelector} by selecting this
+ * alternative in the application's beans.xml.
+ */
+@Alternative
+@ApplicationScoped
+public class BacklogJobStoreSchedulerPrioritySelector implements JobStoreSchedulerPrioritySelector {
+
+    @Inject
+    private JobService jobService;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private UtcClock clock;
+
+    private final Map<Priority, Integer> deficits = new EnumMap<>(Priority.class);
+
+    private List<PriorityBacklog> priorityBacklogs = List.of();
+
+    private ZonedDateTime refreshedAt;
+
+    @Override
+    public synchronized List<Priority> selectOrderedPriorities() {
+        final ZonedDateTime now = clock.now();
+
+        refreshPriorityBacklogsIfStale(now);
+
+        final List<PriorityBacklog> waitingBacklogs = priorityBacklogs.stream()
+                .filter(priorityBacklog -> priorityBacklog.getDepth() > 0)
+                .toList();
+
+        priorityBacklogs.stream()
+                .filter(priorityBacklog -> priorityBacklog.getDepth() == 0)
+                .forEach(priorityBacklog -> deficits.remove(priorityBacklog.getPriority()));
+
+        if (waitingBacklogs.isEmpty()) {
+            return List.of(Priority.values());
+        }
+
+        int waitingShare = 0;
+        for (final PriorityBacklog waitingBacklog : waitingBacklogs) {
+            final int share = shareOf(waitingBacklog.getPriority());
+            deficits.merge(waitingBacklog.getPriority(), share, Integer::sum);
+            waitingShare += share;
+        }
+
+        final List<Priority> orderedPriorities = new ArrayList<>(waitingBacklogs.stream()
+                .map(PriorityBacklog::getPriority)
+                .sorted(comparingInt((Priority priority) -> deficits.get(priority)).reversed().thenComparing(Priority::ordinal))
+                .toList());
+
+        starvingPriority(waitingBacklogs, now).ifPresent(starvingPriority -> {
+            orderedPriorities.remove(starvingPriority);
+            orderedPriorities.add(0, starvingPriority);
+        });
+
+        deficits.merge(orderedPriorities.get(0), -waitingShare, Integer::sum);
+
+        return orderedPriorities;
+    }
+
+    private void refreshPriorityBacklogsIfStale(final ZonedDateTime now) {
+        if (refreshedAt == null || !now.isBefore(refreshedAt.plus(jobStoreConfiguration.getPriorityBacklogRefreshMilliseconds(), MILLIS))) {
+            priorityBacklogs = jobService.getPriorityBacklogs();
+            refreshedAt = now;
+        }
+    }
+
+    private Optional<Priority> starvingPriority(final List<PriorityBacklog> waitingBacklogs, final ZonedDateTime now) {
+        final ZonedDateTime waitingSince = now.minusSeconds(jobStoreConfiguration.getPriorityBacklogMaxWaitSeconds());
+
+        return waitingBacklogs.stream()
+                .filter(waitingBacklog -> waitingBacklog.getOldestStartTime().filter(waitingSince::isAfter).isPresent())
+                .min(comparing(waitingBacklog -> waitingBacklog.getOldestStartTime().get()))
+                .map(PriorityBacklog::getPriority);
+    }
+
+    private int shareOf(final Priority priority) {
+        final int highShare = jobStoreConfiguration.getJobPriorityPercentageHigh();
+        final int lowShare = jobStoreConfiguration.getJobPriorityPercentageLow();
+
+        final int share = switch (priority) {
+            case HIGH -> highShare;
+            case LOW -> lowShare;
+            case MEDIUM -> 100 - highShare - lowShare;
+        };
+
+        return max(share, 1);
+    }
+}
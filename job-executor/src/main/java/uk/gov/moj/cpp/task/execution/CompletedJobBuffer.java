@@ -0,0 +1,75 @@
+package uk.gov.moj.cpp.task.execution;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Node local buffer of jobs whose task has completed but which have not yet been deleted, from
+ * which the {@link CompletedJobFlusher} takes batches to delete together when batched completion
+ * is enabled.
+ *
+ * Jobs in the buffer stay locked to this node; their leases are renewed with those of the running
+ * jobs until they are deleted, and a job is only deleted while still locked to the worker that
+ * completed it. Should the node die first, the jobs are released with its other jobs, or their
+ * leases expire, and they are claimed and run again, as they would be had the node died while
+ * running them.
+ */
+@ApplicationScoped
+public class CompletedJobBuffer {
+
+    private final Map<UUID, UUID> workerIdsByCompletedJobId = new LinkedHashMap<>();
+
+    /**
+     * Adds a job whose task has completed and been committed. Jobs not locked to a worker are
+     * ignored, as there is no lease to hold them.
+     */
+    public synchronized void add(final Job job) {
+        job.getWorkerId().ifPresent(workerId -> workerIdsByCompletedJobId.put(job.getJobId(), workerId));
+    }
+
+    /**
+     * Removes and returns up to the batch size of the longest completed jobs
+     *
+     * @return the id of the worker each job is locked to, keyed by job id, empty if the buffer is
+     * empty
+     */
+    public synchronized Map<UUID, UUID> takeBatch(final int batchSize) {
+        final Map<UUID, UUID> batch = new LinkedHashMap<>();
+        final Iterator<Map.Entry<UUID, UUID>> completedJobIterator = workerIdsByCompletedJobId.entrySet().iterator();
+
+        while (completedJobIterator.hasNext() && batch.size() < batchSize) {
+            final Map.Entry<UUID, UUID> completedJob = completedJobIterator.next();
+            batch.put(completedJob.getKey(), completedJob.getValue());
+            completedJobIterator.remove();
+        }
+
+        return batch;
+    }
+
+    /**
+     * Puts back a batch that could not be deleted, so that its leases are still renewed and it is
+     * deleted by a later flush
+     */
+    public synchronized void restore(final Map<UUID, UUID> batch) {
+        workerIdsByCompletedJobId.putAll(batch);
+    }
+
+    /**
+     * @return the id of the worker each completed job is locked to, keyed by job id, for renewing
+     * the leases of the jobs
+     */
+    public synchronized Map<UUID, UUID> getLeases() {
+        return new HashMap<>(workerIdsByCompletedJobId);
+    }
+
+    public synchronized int size() {
+        return workerIdsByCompletedJobId.size();
+    }
+}
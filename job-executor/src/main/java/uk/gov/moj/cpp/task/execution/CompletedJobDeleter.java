@@ -0,0 +1,120 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionManagement;
+import javax.ejb.TransactionManagementType;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.inject.Inject;
+import javax.transaction.HeuristicMixedException;
+import javax.transaction.HeuristicRollbackException;
+import javax.transaction.NotSupportedException;
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.UserTransaction;
+
+import org.slf4j.Logger;
+
+/**
+ * Runs the {@link CompletedJobFlusher} that deletes completed jobs in batches, when batched
+ * completion is enabled. Each batch is deleted in a transaction of its own, and only those jobs
+ * still locked to the worker that completed them are deleted.
+ *
+ * On shutdown the jobs still in the buffer are deleted before the node stops.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class CompletedJobDeleter {
+
+    @Inject
+    private Logger logger;
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Inject
+    private JobService jobService;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private UserTransaction userTransaction;
+
+    @Inject
+    private CompletedJobBuffer completedJobBuffer;
+
+    private CompletedJobFlusher completedJobFlusher;
+
+    @PostConstruct
+    public void init() {
+        if (jobStoreConfiguration.isBatchedCompletionEnabled()) {
+            startCompletedJobFlusher();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (completedJobFlusher != null) {
+            completedJobFlusher.stop();
+            completedJobFlusher.flush();
+        }
+    }
+
+    private void startCompletedJobFlusher() {
+        completedJobFlusher = new CompletedJobFlusher(
+                completedJobBuffer,
+                this::deleteJobs,
+                jobStoreConfiguration.getBatchedCompletionBatchSize(),
+                jobStoreConfiguration.getBatchedCompletionFlushMilliseconds(),
+                getLogger(CompletedJobFlusher.class));
+
+        logger.info("Starting jobstore completed job flusher, deleting up to {} job(s) a batch every {} millisecond(s)",
+                jobStoreConfiguration.getBatchedCompletionBatchSize(),
+                jobStoreConfiguration.getBatchedCompletionFlushMilliseconds());
+
+        managedThreadFactory.newThread(completedJobFlusher).start();
+    }
+
+    private void deleteJobs(final Map<UUID, UUID> workerIdsByJobId) {
+        try {
+            userTransaction.begin();
+            final int deletedJobCount = jobService.deleteJobs(workerIdsByJobId);
+            userTransaction.commit();
+
+            if (deletedJobCount < workerIdsByJobId.size()) {
+                logger.warn("Deleted {} of {} completed job(s); the rest were no longer locked to this node", deletedJobCount, workerIdsByJobId.size());
+            }
+        } catch (final NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e) {
+            rollback();
+            throw new IllegalStateException(format("Failed to commit the delete of %d completed job(s)", workerIdsByJobId.size()), e);
+        } catch (final RuntimeException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    private void rollback() {
+        try {
+            if (userTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                userTransaction.rollback();
+            }
+        } catch (final SystemException e) {
+            logger.error("Unexpected exception during transaction rollback, rollback maybe incomplete", e);
+        }
+    }
+}
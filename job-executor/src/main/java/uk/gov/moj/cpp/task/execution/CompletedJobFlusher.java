@@ -0,0 +1,85 @@
+package uk.gov.moj.cpp.task.execution;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * Long running loop that, once every flush interval, takes the jobs waiting in the
+ * {@link CompletedJobBuffer} and deletes them in batches, each batch in one transaction. A batch
+ * that could not be deleted is put back in the buffer to be tried again at the next flush.
+ */
+public class CompletedJobFlusher implements Runnable {
+
+    private final CompletedJobBuffer completedJobBuffer;
+    private final Consumer<Map<UUID, UUID>> deleteJobs;
+    private final int batchSize;
+    private final long flushMilliseconds;
+    private final Logger logger;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param deleteJobs deletes and commits the given jobs, keyed by job id with the id of the
+     * worker each is locked to, throwing if they could not be
+     */
+    public CompletedJobFlusher(final CompletedJobBuffer completedJobBuffer,
+                               final Consumer<Map<UUID, UUID>> deleteJobs,
+                               final int batchSize,
+                               final long flushMilliseconds,
+                               final Logger logger) {
+        this.completedJobBuffer = completedJobBuffer;
+        this.deleteJobs = deleteJobs;
+        this.batchSize = batchSize;
+        this.flushMilliseconds = flushMilliseconds;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            sleep();
+            flush();
+        }
+
+        logger.info("Jobstore completed job flusher stopped");
+    }
+
+    /**
+     * Deletes the jobs in the buffer a batch at a time until the buffer is empty or a batch fails
+     */
+    public void flush() {
+        Map<UUID, UUID> batch = completedJobBuffer.takeBatch(batchSize);
+
+        while (!batch.isEmpty()) {
+            try {
+                deleteJobs.accept(batch);
+            } catch (final RuntimeException e) {
+                logger.warn("Jobstore completed job flusher failed to delete {} job(s)", batch.size(), e);
+                completedJobBuffer.restore(batch);
+                return;
+            }
+
+            batch = completedJobBuffer.takeBatch(batchSize);
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(flushMilliseconds);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -2,13 +2,22 @@ package uk.gov.moj.cpp.task.execution;
 
 import static java.util.Optional.empty;
 import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import uk.gov.moj.cpp.jobstore.api.ExecutionService;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -21,10 +30,44 @@ public class DefaultExecutionService implements ExecutionService {
     @Inject
     private TaskRegistry taskRegistry;
 
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private JobInsertBuffer jobInsertBuffer;
+
     @Override
     public void executeWith(final ExecutionInfo executionInfo) {
         final Integer retryAttemptsRemaining = taskRegistry.findRetryAttemptsRemainingFor(executionInfo.getNextTask());
-        jobService.insertJob(new Job(randomUUID(), executionInfo.getJobData(),
-                executionInfo.getNextTask(), executionInfo.getNextTaskStartTime(), empty(), empty(), retryAttemptsRemaining, executionInfo.getPriority()));
+        jobService.insertJob(jobOf(executionInfo, retryAttemptsRemaining));
+    }
+
+    @Override
+    public void executeWithAll(final Collection<ExecutionInfo> executionInfos) {
+        final Map<String, Integer> retryAttemptsRemainingByTaskName = new HashMap<>();
+
+        final List<Job> jobs = executionInfos.stream()
+                .map(executionInfo -> jobOf(executionInfo, retryAttemptsRemainingByTaskName.computeIfAbsent(executionInfo.getNextTask(), taskRegistry::findRetryAttemptsRemainingFor)))
+                .toList();
+
+        jobService.insertJobs(jobs);
+    }
+
+    @Override
+    public CompletionStage<UUID> executeAsyncWith(final ExecutionInfo executionInfo) {
+        final Integer retryAttemptsRemaining = taskRegistry.findRetryAttemptsRemainingFor(executionInfo.getNextTask());
+        final Job job = jobOf(executionInfo, retryAttemptsRemaining);
+
+        if (!jobStoreConfiguration.isAsyncEnqueueEnabled()) {
+            jobService.insertJob(job);
+            return completedFuture(job.getJobId());
+        }
+
+        return jobInsertBuffer.add(job);
+    }
+
+    private Job jobOf(final ExecutionInfo executionInfo, final Integer retryAttemptsRemaining) {
+        return new Job(randomUUID(), executionInfo.getJobData(),
+                executionInfo.getNextTask(), executionInfo.getNextTaskStartTime(), empty(), empty(), retryAttemptsRemaining, executionInfo.getPriority(), executionInfo.getPriorityValue());
     }
 }
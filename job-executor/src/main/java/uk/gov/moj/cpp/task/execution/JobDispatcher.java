@@ -0,0 +1,110 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Long running alternative to the scheduler interval timer that keeps claiming jobs for as long
+ * as there is a backlog.
+ *
+ * While each dispatch claims a full batch the dispatcher dispatches again straight away. Once a
+ * dispatch comes back short it waits for a jittered back off, doubling up to the configured
+ * maximum while the jobstore stays empty. A {@link #signal()}, e.g. from a job finishing and
+ * freeing a slot or from a job inserted notification, ends the wait early and resets the back off.
+ */
+public class JobDispatcher implements Runnable {
+
+    private final BooleanSupplier dispatch;
+    private final long startWaitMilliseconds;
+    private final long minBackOffMilliseconds;
+    private final long maxBackOffMilliseconds;
+    private final Logger logger;
+
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile boolean running = true;
+
+    /**
+     * @param dispatch claims and executes a batch of jobs, returning true if the batch was full
+     */
+    public JobDispatcher(final BooleanSupplier dispatch,
+                         final long startWaitMilliseconds,
+                         final long minBackOffMilliseconds,
+                         final long maxBackOffMilliseconds,
+                         final Logger logger) {
+        this.dispatch = dispatch;
+        this.startWaitMilliseconds = startWaitMilliseconds;
+        this.minBackOffMilliseconds = minBackOffMilliseconds;
+        this.maxBackOffMilliseconds = maxBackOffMilliseconds;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run() {
+        long backOffMilliseconds = minBackOffMilliseconds;
+
+        await(startWaitMilliseconds);
+
+        while (running) {
+            if (dispatchJobs()) {
+                backOffMilliseconds = minBackOffMilliseconds;
+            } else if (await(jitter(backOffMilliseconds))) {
+                backOffMilliseconds = minBackOffMilliseconds;
+            } else {
+                backOffMilliseconds = min(backOffMilliseconds * 2, maxBackOffMilliseconds);
+            }
+        }
+
+        logger.info("Jobstore dispatcher stopped");
+    }
+
+    /**
+     * Wakes the dispatcher if it is backing off. Signals received while dispatching are
+     * coalesced into a single immediate dispatch.
+     */
+    public void signal() {
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        signal();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean dispatchJobs() {
+        try {
+            return dispatch.getAsBoolean();
+        } catch (final RuntimeException e) {
+            logger.warn("Jobstore dispatcher failed to dispatch jobs, backing off", e);
+            return false;
+        }
+    }
+
+    private boolean await(final long milliseconds) {
+        try {
+            final boolean signalled = signal.tryAcquire(milliseconds, MILLISECONDS);
+            signal.drainPermits();
+            return signalled;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return false;
+        }
+    }
+
+    private long jitter(final long backOffMilliseconds) {
+        return ThreadLocalRandom.current().nextLong(backOffMilliseconds / 2, backOffMilliseconds + 1);
+    }
+}
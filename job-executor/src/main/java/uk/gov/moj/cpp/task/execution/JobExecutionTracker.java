@@ -0,0 +1,157 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.max;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.task.extension.TaskRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Keeps count of the jobs this node has claimed and handed to the executor, so that the scheduler
+ * only claims as many jobs as it has free slots to run. Jobs are in flight from the moment they
+ * are submitted until they finish running, and are queued while waiting for an executor thread.
+ *
+ * Jobs in flight are also counted per task, so that tasks with a maximum concurrency declared on
+ * {@link uk.gov.moj.cpp.jobstore.api.annotation.Task} are not claimed once they are at their limit.
+ * Jobs held in the {@link TimedJobQueue} until their start time count against the limit of their
+ * task as well, as they start without being claimed again.
+ */
+@ApplicationScoped
+public class JobExecutionTracker {
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private TaskRegistry taskRegistry;
+
+    @Inject
+    private TimedJobQueue timedJobQueue;
+
+    private final AtomicInteger queuedJobCount = new AtomicInteger();
+    private final AtomicInteger runningJobCount = new AtomicInteger();
+    private final Map<String, AtomicInteger> inFlightJobCountByTaskName = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> workerIdsByInFlightJobId = new ConcurrentHashMap<>();
+
+    private volatile Runnable onSlotFreed = () -> {};
+
+    /**
+     * Counts the job as queued and returns a {@link Runnable} that moves it to running when it
+     * starts and removes it from the counts when it finishes, whether or not it succeeds.
+     */
+    public Runnable track(final Job job, final Runnable jobExecutor) {
+        queuedJobCount.incrementAndGet();
+        inFlightJobCountOf(job.getNextTask()).incrementAndGet();
+        job.getWorkerId().ifPresent(workerId -> workerIdsByInFlightJobId.put(job.getJobId(), workerId));
+
+        return () -> {
+            runningJobCount.incrementAndGet();
+            queuedJobCount.decrementAndGet();
+            try {
+                jobExecutor.run();
+            } finally {
+                workerIdsByInFlightJobId.remove(job.getJobId());
+                runningJobCount.decrementAndGet();
+                inFlightJobCountOf(job.getNextTask()).decrementAndGet();
+                onSlotFreed.run();
+            }
+        };
+    }
+
+    /**
+     * Sets the callback run each time a tracked job finishes and frees its slot
+     */
+    public void onSlotFreed(final Runnable onSlotFreed) {
+        this.onSlotFreed = onSlotFreed;
+    }
+
+    /**
+     * Removes a tracked job that was never run, e.g. because the executor rejected it
+     */
+    public void untrack(final Job job) {
+        workerIdsByInFlightJobId.remove(job.getJobId());
+        queuedJobCount.decrementAndGet();
+        inFlightJobCountOf(job.getNextTask()).decrementAndGet();
+    }
+
+    /**
+     * @return the id of the worker each in flight job is locked to, keyed by job id, for renewing
+     * the leases of the jobs
+     */
+    public Map<UUID, UUID> getInFlightJobLeases() {
+        return Map.copyOf(workerIdsByInFlightJobId);
+    }
+
+    /**
+     * @return the number of further jobs this node may have in flight. When jobs run on virtual
+     * threads the number in flight is bounded by the virtual thread concurrency limit rather than
+     * by the maximum in flight job count, which sizes the managed executor pool
+     */
+    public int getFreeSlotCount() {
+        return max(0, maxInFlightJobCount() - getInFlightJobCount());
+    }
+
+    /**
+     * @return the number of further jobs of the task that may be started, or
+     * {@link Integer#MAX_VALUE} if the task has no concurrency limit
+     */
+    public int getFreeTaskSlotCount(final String taskName) {
+        return taskRegistry.getMaxConcurrency(taskName)
+                .map(maxConcurrency -> max(0, maxConcurrency - getUsedTaskSlotCount(taskName)))
+                .orElse(MAX_VALUE);
+    }
+
+    /**
+     * @return the names of the tasks that are at their concurrency limit
+     */
+    public List<String> getSaturatedTaskNames() {
+        return taskRegistry.getMaxConcurrencyByTaskName().entrySet().stream()
+                .filter(maxConcurrency -> getUsedTaskSlotCount(maxConcurrency.getKey()) >= maxConcurrency.getValue())
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    public int getInFlightJobCount() {
+        return queuedJobCount.get() + runningJobCount.get();
+    }
+
+    public int getInFlightJobCount(final String taskName) {
+        final AtomicInteger inFlightJobCount = inFlightJobCountByTaskName.get(taskName);
+        return inFlightJobCount != null ? inFlightJobCount.get() : 0;
+    }
+
+    public int getQueuedJobCount() {
+        return queuedJobCount.get();
+    }
+
+    public int getRunningJobCount() {
+        return runningJobCount.get();
+    }
+
+    private int maxInFlightJobCount() {
+        if (jobStoreConfiguration.isVirtualThreadsEnabled()) {
+            return jobStoreConfiguration.getVirtualThreadMaxConcurrency();
+        }
+
+        return jobStoreConfiguration.getWorkerMaxInFlightJobCount();
+    }
+
+    private int getUsedTaskSlotCount(final String taskName) {
+        return getInFlightJobCount(taskName) + timedJobQueue.getHeldJobCount(taskName);
+    }
+
+    private AtomicInteger inFlightJobCountOf(final String taskName) {
+        return inFlightJobCountByTaskName.computeIfAbsent(taskName, name -> new AtomicInteger());
+    }
+}
@@ -8,6 +8,7 @@ import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutableTask;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataPatch;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
@@ -32,6 +33,9 @@ public class JobExecutor implements Runnable {
     private final UserTransaction userTransaction;
     private final UtcClock clock;
     private final Logger logger;
+    private final Optional<CompletedJobBuffer> completedJobBuffer;
+
+    private boolean awaitingDeletion;
 
     public JobExecutor(final Job jobData,
                        final TaskRegistry taskRegistry,
@@ -39,12 +43,28 @@ public class JobExecutor implements Runnable {
                        final UserTransaction userTransaction,
                        final UtcClock clock,
                        final Logger logger) {
+        this(jobData, taskRegistry, jobService, userTransaction, clock, logger, Optional.empty());
+    }
+
+    /**
+     * @param completedJobBuffer if present, a completed job is left locked to this node and added
+     * to the buffer once its transaction commits, to be deleted in a batch, rather than being
+     * deleted in its own transaction
+     */
+    public JobExecutor(final Job jobData,
+                       final TaskRegistry taskRegistry,
+                       final JobService jobService,
+                       final UserTransaction userTransaction,
+                       final UtcClock clock,
+                       final Logger logger,
+                       final Optional<CompletedJobBuffer> completedJobBuffer) {
         this.job = jobData;
         this.taskRegistry = taskRegistry;
         this.jobService = jobService;
         this.userTransaction = userTransaction;
         this.clock = clock;
         this.logger = logger;
+        this.completedJobBuffer = completedJobBuffer;
     }
 
     @Override
@@ -72,6 +92,10 @@ public class JobExecutor implements Runnable {
 
             userTransaction.commit();
 
+            if (awaitingDeletion) {
+                completedJobBuffer.ifPresent(buffer -> buffer.add(job));
+            }
+
         } catch (final NotSupportedException |
                 SystemException |
                 RollbackException |
@@ -111,12 +135,15 @@ public class JobExecutor implements Runnable {
                 performRetry(task);
             } else {
                 final Integer retryAttemptsRemaining = taskRegistry.findRetryAttemptsRemainingFor(executionResponse.getNextTask());
-                jobService.updateJobTaskData(job.getJobId(), executionResponse.getJobData());
-                jobService.updateNextTaskDetails(job.getJobId(), executionResponse.getNextTask(), executionResponse.getNextTaskStartTime(), retryAttemptsRemaining);
-                jobService.releaseJob(job.getJobId());
+                final JobDataPatch jobDataPatch = JobDataPatch.between(job.getJobData(), executionResponse.getJobData());
+                jobService.updateNextTaskPatchingJobDataAndReleaseJob(job.getJobId(), jobDataPatch, executionResponse.getNextTask(), executionResponse.getNextTaskStartTime(), retryAttemptsRemaining);
             }
         } else if (executionResponse.getExecutionStatus().equals(COMPLETED)) {
-            jobService.deleteJob(job.getJobId());
+            if (completedJobBuffer.isPresent()) {
+                awaitingDeletion = true;
+            } else {
+                jobService.deleteJob(job.getJobId());
+            }
         }
     }
 
@@ -143,7 +170,6 @@ public class JobExecutor implements Runnable {
         logger.info("Updating task retryDetails to performRetry, jobID: {}, retryAttemptsRemaining: {}, taskToExecuteOnRetriesExhaust: {}, exhaustTaskStartTime: {}",
                 job.getJobId(), job.getRetryAttemptsRemaining(), job.getNextTask(), exhaustTaskStartTime);
 
-        jobService.updateNextTaskRetryDetails(job.getJobId(), exhaustTaskStartTime, retryAttemptsRemaining-1);
-        jobService.releaseJob(job.getJobId());
+        jobService.updateNextTaskRetryDetailsAndReleaseJob(job.getJobId(), exhaustTaskStartTime, retryAttemptsRemaining-1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.String.format;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionManagement;
+import javax.ejb.TransactionManagementType;
+import javax.inject.Inject;
+import javax.transaction.HeuristicMixedException;
+import javax.transaction.HeuristicRollbackException;
+import javax.transaction.NotSupportedException;
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.UserTransaction;
+
+import org.slf4j.Logger;
+
+/**
+ * Heartbeats this node in the worker node registry and renews the lease on every job still queued
+ * or running on it, waiting in its ready queue, held until its start time or completed and awaiting
+ * a batched delete, so that a job is only treated as abandoned and claimed again once its node
+ * has stopped renewing it for longer than the configured lease.
+ *
+ * Each heartbeat also releases the jobs of any node that has not heartbeat within the configured
+ * node expiry, so the jobs of a dead node are picked up again without waiting for their leases.
+ * All leases are renewed, and all dead nodes' jobs released, in a single update each.
+ *
+ * The heartbeat and lease renewal are committed together before the dead nodes' jobs are released
+ * in a transaction of their own, so a failure to release them never costs this node its heartbeat
+ * or its leases; the release is simply tried again on the next heartbeat.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class JobHeartbeat {
+
+    @Inject
+    private Logger logger;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    private JobService jobService;
+
+    @Inject
+    private JobExecutionTracker jobExecutionTracker;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private ReadyJobQueue readyJobQueue;
+
+    @Inject
+    private TimedJobQueue timedJobQueue;
+
+    @Inject
+    private CompletedJobBuffer completedJobBuffer;
+
+    @Inject
+    private WorkerNode workerNode;
+
+    @Inject
+    private UtcClock clock;
+
+    @Inject
+    private UserTransaction userTransaction;
+
+    private String timerName;
+
+    @PostConstruct
+    public void init() {
+        logger.info("Registering worker node [id={}], [name={}]", workerNode.getNodeId(), workerNode.getNodeName());
+
+        inTransaction(() -> jobService.heartbeatWorkerNode(workerNode.getNodeId(), workerNode.getNodeName()), "worker node heartbeat");
+
+        cancelExistingTimer();
+        createIntervalTimer();
+    }
+
+    @Timeout
+    public void heartbeat() {
+        inTransaction(() -> {
+            jobService.heartbeatWorkerNode(workerNode.getNodeId(), workerNode.getNodeName());
+            renewJobLeases();
+        }, "worker node heartbeat and job lease renewal");
+
+        try {
+            inTransaction(this::releaseJobsOfDeadWorkerNodes, "release of jobs of dead worker nodes");
+        } catch (final RuntimeException e) {
+            logger.error("Failed to release jobs of dead worker nodes, retrying on the next heartbeat", e);
+        }
+    }
+
+    private void renewJobLeases() {
+        final Map<UUID, UUID> inFlightJobLeases = new HashMap<>(jobExecutionTracker.getInFlightJobLeases());
+        inFlightJobLeases.putAll(readyJobQueue.getLeases());
+        inFlightJobLeases.putAll(timedJobQueue.getLeases());
+        inFlightJobLeases.putAll(completedJobBuffer.getLeases());
+
+        if (!inFlightJobLeases.isEmpty()) {
+            final int renewedJobLeaseCount = jobService.renewJobLeases(inFlightJobLeases);
+
+            logger.debug("Renewed leases of {} of {} job(s) in flight", renewedJobLeaseCount, inFlightJobLeases.size());
+        }
+    }
+
+    private void releaseJobsOfDeadWorkerNodes() {
+        final ZonedDateTime heartbeatExpiredBefore = clock.now().minusSeconds(jobStoreConfiguration.getWorkerNodeExpirySeconds());
+        final int releasedJobCount = jobService.releaseJobsOfDeadWorkerNodes(heartbeatExpiredBefore);
+
+        if (releasedJobCount > 0) {
+            logger.warn("Released {} job(s) locked to worker nodes that stopped heartbeating before {}", releasedJobCount, heartbeatExpiredBefore);
+        }
+    }
+
+    private void inTransaction(final Runnable work, final String workDescription) {
+        try {
+            userTransaction.begin();
+            work.run();
+            userTransaction.commit();
+        } catch (final NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e) {
+            rollback();
+            throw new IllegalStateException(format("Failed to commit the %s", workDescription), e);
+        } catch (final RuntimeException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    private void rollback() {
+        try {
+            if (userTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                userTransaction.rollback();
+            }
+        } catch (final SystemException e) {
+            logger.error("Unexpected exception during transaction rollback, rollback maybe incomplete", e);
+        }
+    }
+
+    private void createIntervalTimer() {
+        final TimerConfig timerConfig = new TimerConfig();
+        timerConfig.setPersistent(false);
+        timerConfig.setInfo(timerName());
+
+        final long renewalMilliseconds = jobStoreConfiguration.getJobLeaseRenewalMilliseconds();
+
+        logger.info("Creating timer [{}]", timerName());
+
+        timerService.createIntervalTimer(renewalMilliseconds, renewalMilliseconds, timerConfig);
+    }
+
+    private void cancelExistingTimer() {
+        timerService.getAllTimers().stream().filter(t -> timerName().equals(t.getInfo())).forEach(Timer::cancel);
+    }
+
+    private String timerName() {
+        if (timerName == null) {
+            final String moduleName = jobStoreConfiguration.getModuleName();
+            final String timerModulePrefix = moduleName != null ? moduleName : "local";
+            timerName = timerModulePrefix + ".job-manager.job.heartbeat.timer";
+        }
+
+        return timerName;
+    }
+}
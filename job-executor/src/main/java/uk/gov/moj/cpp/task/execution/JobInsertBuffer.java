@@ -0,0 +1,171 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Bounded buffer of jobs enqueued asynchronously, shared by all producer threads, from which the
+ * {@link JobInsertFlusher} takes batches to insert together, in the style of group commit.
+ *
+ * A producer adding a job while the buffer is full waits until a flush makes room, so that
+ * producers are slowed to the rate the jobs can be inserted rather than the buffer growing.
+ *
+ * Once the buffer is closed on shutdown, jobs are no longer accepted: adding one fails its stage
+ * straight away, and a producer waiting for room gives up within {@link #ROOM_WAIT_MILLISECONDS}.
+ */
+@ApplicationScoped
+public class JobInsertBuffer {
+
+    static final long ROOM_WAIT_MILLISECONDS = 100L;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    private BlockingQueue<PendingJobInsert> pendingJobInserts;
+
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        pendingJobInserts = new ArrayBlockingQueue<>(jobStoreConfiguration.getAsyncEnqueueBufferCapacity());
+    }
+
+    /**
+     * Adds the job to the buffer, waiting for room if the buffer is full
+     *
+     * @return completes with the id of the job once the job has been inserted and committed, or
+     * exceptionally if the insert failed, the wait for room was interrupted or the buffer is closed
+     */
+    public CompletionStage<UUID> add(final Job job) {
+        final PendingJobInsert pendingJobInsert = new PendingJobInsert(job);
+
+        try {
+            while (!closed) {
+                if (pendingJobInserts.offer(pendingJobInsert, ROOM_WAIT_MILLISECONDS, MILLISECONDS)) {
+                    return closed && pendingJobInserts.remove(pendingJobInsert) ? closedFailure(job) : pendingJobInsert.getInsertCompletion();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failedFuture(e);
+        }
+
+        return closedFailure(job);
+    }
+
+    /**
+     * Stops the buffer accepting jobs. Jobs already in the buffer are left for a final
+     * {@link #drain()}
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Waits up to the flush interval for a job to be added, then gathers more jobs until the batch
+     * is full or the flush interval has passed since the first job was taken. If interrupted once
+     * the first job has been taken, the jobs gathered so far are returned with the interrupt status
+     * set, so they are not lost
+     *
+     * @return the batch, empty if no job was added within the flush interval
+     */
+    public List<PendingJobInsert> takeBatch(final int batchSize, final long flushMilliseconds) throws InterruptedException {
+        final List<PendingJobInsert> batch = new ArrayList<>();
+        final PendingJobInsert firstJobInsert = pendingJobInserts.poll(flushMilliseconds, MILLISECONDS);
+
+        if (firstJobInsert == null) {
+            return batch;
+        }
+
+        batch.add(firstJobInsert);
+        final long flushDeadline = nanoTime() + MILLISECONDS.toNanos(flushMilliseconds);
+
+        while (batch.size() < batchSize) {
+            pendingJobInserts.drainTo(batch, batchSize - batch.size());
+
+            final long nanosecondsLeft = flushDeadline - nanoTime();
+            if (batch.size() == batchSize || nanosecondsLeft <= 0) {
+                break;
+            }
+
+            final PendingJobInsert nextJobInsert;
+            try {
+                nextJobInsert = pendingJobInserts.poll(nanosecondsLeft, NANOSECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (nextJobInsert == null) {
+                break;
+            }
+            batch.add(nextJobInsert);
+        }
+
+        return batch;
+    }
+
+    /**
+     * Removes and returns every job waiting in the buffer
+     */
+    public List<PendingJobInsert> drain() {
+        final List<PendingJobInsert> batch = new ArrayList<>();
+        pendingJobInserts.drainTo(batch);
+        return batch;
+    }
+
+    public int size() {
+        return pendingJobInserts.size();
+    }
+
+    private CompletionStage<UUID> closedFailure(final Job job) {
+        return failedFuture(new IllegalStateException(format("Job insert buffer closed on shutdown, job [%s] not enqueued", job.getJobId())));
+    }
+
+    /**
+     * A job waiting in the buffer, with the completion handed to its producer
+     */
+    public static class PendingJobInsert {
+
+        private final Job job;
+        private final CompletableFuture<UUID> insertCompletion = new CompletableFuture<>();
+
+        PendingJobInsert(final Job job) {
+            this.job = job;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public CompletionStage<UUID> getInsertCompletion() {
+            return insertCompletion;
+        }
+
+        public void inserted() {
+            insertCompletion.complete(job.getJobId());
+        }
+
+        public void failed(final Throwable cause) {
+            insertCompletion.completeExceptionally(cause);
+        }
+    }
+}
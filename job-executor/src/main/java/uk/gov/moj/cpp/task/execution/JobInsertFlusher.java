@@ -0,0 +1,79 @@
+package uk.gov.moj.cpp.task.execution;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.task.execution.JobInsertBuffer.PendingJobInsert;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * Long running loop that takes batches of asynchronously enqueued jobs from the
+ * {@link JobInsertBuffer} and inserts each batch in one transaction, completing the producers'
+ * stages once the batch has been committed, or failing them all if it could not be.
+ */
+public class JobInsertFlusher implements Runnable {
+
+    private final JobInsertBuffer jobInsertBuffer;
+    private final Consumer<List<Job>> insertJobs;
+    private final int batchSize;
+    private final long flushMilliseconds;
+    private final Logger logger;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param insertJobs inserts and commits the given jobs, throwing if they could not be
+     */
+    public JobInsertFlusher(final JobInsertBuffer jobInsertBuffer,
+                            final Consumer<List<Job>> insertJobs,
+                            final int batchSize,
+                            final long flushMilliseconds,
+                            final Logger logger) {
+        this.jobInsertBuffer = jobInsertBuffer;
+        this.insertJobs = insertJobs;
+        this.batchSize = batchSize;
+        this.flushMilliseconds = flushMilliseconds;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                flush(jobInsertBuffer.takeBatch(batchSize, flushMilliseconds));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+
+        logger.info("Jobstore job insert flusher stopped");
+    }
+
+    /**
+     * Inserts the given batch, completing or failing the stage of each job in it
+     */
+    public void flush(final List<PendingJobInsert> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            insertJobs.accept(batch.stream().map(PendingJobInsert::getJob).toList());
+            batch.forEach(PendingJobInsert::inserted);
+        } catch (final RuntimeException e) {
+            logger.warn("Jobstore job insert flusher failed to insert {} job(s)", batch.size(), e);
+            batch.forEach(pendingJobInsert -> pendingJobInsert.failed(e));
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.moj.cpp.task.execution;
+
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscriber;
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscription;
+import uk.gov.moj.cpp.jobstore.persistence.Priority;
+
+import java.util.Set;
+
+import org.slf4j.Logger;
+
+/**
+ * Long running listener that waits for job inserted notifications from the jobstore and wakes the
+ * scheduler as soon as new jobs are available, rather than waiting for the next timer interval.
+ *
+ * If the subscription fails (e.g. the connection is lost) the listener backs off for one poll
+ * interval and subscribes again; the scheduler interval timer still picks up any jobs in between.
+ */
+public class JobNotificationListener implements Runnable {
+
+    private final JobNotificationSubscriber jobNotificationSubscriber;
+    private final Runnable onJobsInserted;
+    private final int pollMilliseconds;
+    private final Logger logger;
+
+    private volatile boolean running = true;
+
+    public JobNotificationListener(final JobNotificationSubscriber jobNotificationSubscriber,
+                                   final Runnable onJobsInserted,
+                                   final int pollMilliseconds,
+                                   final Logger logger) {
+        this.jobNotificationSubscriber = jobNotificationSubscriber;
+        this.onJobsInserted = onJobsInserted;
+        this.pollMilliseconds = pollMilliseconds;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (final JobNotificationSubscription subscription = jobNotificationSubscriber.subscribe()) {
+                listen(subscription);
+            } catch (final RuntimeException e) {
+                logger.warn("Jobstore notification listener failed, resubscribing in {} milliseconds", pollMilliseconds, e);
+                backOff();
+            }
+        }
+
+        logger.info("Jobstore notification listener stopped");
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen(final JobNotificationSubscription subscription) {
+        while (running) {
+            final Set<Priority> priorities = subscription.awaitNotifications(pollMilliseconds);
+
+            if (!priorities.isEmpty()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Jobstore notified of new {} priority job(s)", priorities);
+                }
+
+                onJobsInserted.run();
+            }
+        }
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(pollMilliseconds);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
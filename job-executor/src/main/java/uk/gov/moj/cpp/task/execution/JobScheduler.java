@@ -1,22 +1,34 @@
 package uk.gov.moj.cpp.task.execution;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
-import static java.util.UUID.randomUUID;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscriber;
 import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.persistence.Priority;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.SessionContext;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 import javax.ejb.Timeout;
@@ -26,6 +38,7 @@ import javax.ejb.TimerService;
 import javax.ejb.TransactionManagement;
 import javax.ejb.TransactionManagementType;
 import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.inject.Inject;
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
@@ -51,6 +64,12 @@ public class JobScheduler {
     @Resource
     private ManagedExecutorService executorService;
 
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Resource
+    private SessionContext sessionContext;
+
     @Inject
     private JobService jobService;
 
@@ -69,12 +88,195 @@ public class JobScheduler {
     @Inject
     private UserTransaction userTransaction;
 
+    @Inject
+    private JobNotificationSubscriber jobNotificationSubscriber;
+
+    @Inject
+    private JobExecutionTracker jobExecutionTracker;
+
+    @Inject
+    private VirtualThreadJobExecutor virtualThreadJobExecutor;
+
+    @Inject
+    private WorkerNode workerNode;
+
+    @Inject
+    private ReadyJobQueue readyJobQueue;
+
+    @Inject
+    private TimedJobQueue timedJobQueue;
+
+    @Inject
+    private CompletedJobBuffer completedJobBuffer;
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+    private JobNotificationListener jobNotificationListener;
+
+    private JobDispatcher jobDispatcher;
+
+    private TimedJobTicker timedJobTicker;
+
     private String timerName;
 
     @PostConstruct
     public void init() {
         cancelExistingTimer();
-        createIntervalTimer();
+
+        if (jobStoreConfiguration.isDispatcherEnabled()) {
+            startDispatcher();
+        } else {
+            createIntervalTimer();
+        }
+
+        if (jobStoreConfiguration.isNotificationEnabled()) {
+            startNotificationListener();
+        }
+
+        if (jobStoreConfiguration.isReadyQueueEnabled()) {
+            runReadyJobsAsSlotsFree();
+        }
+
+        if (jobStoreConfiguration.getLookaheadSeconds() > 0) {
+            startTimedJobTicker();
+        }
+
+        if (jobStoreConfiguration.isFairTaskClaimingEnabled()) {
+            logger.info("Claiming jobs fairly across registered tasks, jobs of tasks not registered on this node are left for the nodes that register them");
+
+            if (jobStoreConfiguration.isPriorityAgingEnabled()) {
+                logger.warn("Both fair task claiming and priority aging are enabled, jobs will be claimed fairly across tasks in priority order without aging");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (jobNotificationListener != null) {
+            jobNotificationListener.stop();
+        }
+
+        if (jobDispatcher != null || jobStoreConfiguration.isReadyQueueEnabled()) {
+            jobExecutionTracker.onSlotFreed(() -> {});
+        }
+
+        if (jobDispatcher != null) {
+            jobDispatcher.stop();
+        }
+
+        if (timedJobTicker != null) {
+            timedJobTicker.stop();
+            releaseJobs(timedJobQueue.drain(), "held until their start time");
+        }
+
+        if (jobStoreConfiguration.isReadyQueueEnabled()) {
+            releaseJobs(readyJobQueue.drain(), "left in the ready queue");
+        }
+    }
+
+    /**
+     * Fetches unassigned jobs straight away rather than waiting for the next interval timeout.
+     * Wake ups requested while one is already pending are coalesced into a single fetch.
+     */
+    @Lock(LockType.READ)
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            timerService.createSingleActionTimer(0, new TimerConfig(timerName() + ".wakeup", false));
+        }
+    }
+
+    /**
+     * Claims and executes a batch of unassigned jobs for the dispatcher.
+     *
+     * @return true if a full batch was claimed, so more jobs are likely to be waiting
+     */
+    public boolean dispatchUnassignedJobs() {
+        return claimAndExecuteUnassignedJobs();
+    }
+
+    private void startDispatcher() {
+        final JobScheduler jobScheduler = sessionContext.getBusinessObject(JobScheduler.class);
+
+        jobDispatcher = new JobDispatcher(
+                jobScheduler::dispatchUnassignedJobs,
+                jobStoreConfiguration.getTimerStartWaitMilliseconds(),
+                jobStoreConfiguration.getDispatcherMinBackOffMilliseconds(),
+                jobStoreConfiguration.getDispatcherMaxBackOffMilliseconds(),
+                getLogger(JobDispatcher.class));
+
+        jobExecutionTracker.onSlotFreed(jobDispatcher::signal);
+
+        logger.info("Starting jobstore dispatcher for timer [{}]", timerName());
+
+        managedThreadFactory.newThread(jobDispatcher).start();
+    }
+
+    /**
+     * Fills each slot freed by a finishing job from the ready queue, and claims more jobs once the
+     * ready queue falls below its low water mark
+     */
+    private void runReadyJobsAsSlotsFree() {
+        final JobScheduler jobScheduler = sessionContext.getBusinessObject(JobScheduler.class);
+        final Runnable claimMoreJobs = jobDispatcher != null ? jobDispatcher::signal : jobScheduler::wakeUp;
+
+        logger.info("Prefetching jobs into a ready queue of between {} and {} job(s)",
+                jobStoreConfiguration.getReadyQueueLowWaterMark(),
+                jobStoreConfiguration.getReadyQueueHighWaterMark());
+
+        jobExecutionTracker.onSlotFreed(() -> {
+            readyJobQueue.submitReadyJobs(this::execute);
+
+            if (readyJobQueue.getRefillCount() > 0) {
+                claimMoreJobs.run();
+            }
+        });
+    }
+
+    private void startTimedJobTicker() {
+        timedJobTicker = new TimedJobTicker(
+                this::runDueTimedJobs,
+                jobStoreConfiguration.getTimingWheelTickMilliseconds(),
+                getLogger(TimedJobTicker.class));
+
+        logger.info("Starting jobstore timed job ticker, claiming jobs up to {} second(s) ahead of their start time",
+                jobStoreConfiguration.getLookaheadSeconds());
+
+        managedThreadFactory.newThread(timedJobTicker).start();
+    }
+
+    /**
+     * Releases jobs this node still holds but has not started, so that other nodes can pick them
+     * up straight away rather than once their leases expire
+     */
+    private void releaseJobs(final List<Job> heldJobs, final String heldJobsDescription) {
+        if (heldJobs.isEmpty()) {
+            return;
+        }
+
+        logger.info("Releasing {} job(s) {}", heldJobs.size(), heldJobsDescription);
+
+        try {
+            userTransaction.begin();
+            heldJobs.forEach(job -> jobService.releaseJob(job.getJobId()));
+            userTransaction.commit();
+        } catch (final NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e) {
+            logger.error(format("Failed to release job(s) %s, they will be picked up again once their leases expire", heldJobsDescription), e);
+        }
+    }
+
+    private void startNotificationListener() {
+        final JobScheduler jobScheduler = sessionContext.getBusinessObject(JobScheduler.class);
+        final Runnable onJobsInserted = jobDispatcher != null ? jobDispatcher::signal : jobScheduler::wakeUp;
+
+        jobNotificationListener = new JobNotificationListener(
+                jobNotificationSubscriber,
+                onJobsInserted,
+                jobStoreConfiguration.getNotificationPollMilliseconds(),
+                getLogger(JobNotificationListener.class));
+
+        logger.info("Starting jobstore notification listener for timer [{}]", timerName());
+
+        managedThreadFactory.newThread(jobNotificationListener).start();
     }
 
     private void createIntervalTimer() {
@@ -107,11 +309,59 @@ public class JobScheduler {
     @Timeout
     public void fetchUnassignedJobs() {
 
-        final UUID workerId = randomUUID();
+        wakeUpPending.set(false);
+
+        claimAndExecuteUnassignedJobs();
+    }
+
+    /**
+     * Claims jobs of tasks not at their concurrency limit, sharing each priority between the
+     * registered tasks by weight when fair task claiming is enabled. Jobs of tasks not registered
+     * on this node are then left for the nodes that register them rather than claimed and released.
+     */
+    private Stream<Job> claimJobs(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim) {
+        final List<String> saturatedTaskNames = jobExecutionTracker.getSaturatedTaskNames();
+
+        if (jobStoreConfiguration.isFairTaskClaimingEnabled()) {
+            final Map<String, Integer> weightByTaskName = new HashMap<>(taskRegistry.getWeightByTaskName());
+            weightByTaskName.keySet().removeAll(saturatedTaskNames);
+            return jobService.getUnassignedJobsFairlyFor(workerId, orderedPriorities, jobCountToClaim, weightByTaskName);
+        }
+
+        return jobService.getUnassignedJobsFor(workerId, orderedPriorities, jobCountToClaim, saturatedTaskNames);
+    }
+
+    private boolean claimAndExecuteUnassignedJobs() {
+
+        final boolean readyQueueEnabled = jobStoreConfiguration.isReadyQueueEnabled();
+
+        if (readyQueueEnabled) {
+            readyJobQueue.submitReadyJobs(this::execute);
+        }
+
+        final int jobCountToClaim = readyQueueEnabled
+                ? readyJobQueue.getRefillCount()
+                : min(jobStoreConfiguration.getWorkerJobCount(), max(0, jobExecutionTracker.getFreeSlotCount() - timedJobQueue.size()));
+
+        if (jobCountToClaim == 0) {
+            if (logger.isDebugEnabled()) {
+                if (readyQueueEnabled) {
+                    logger.debug(format("Ready queue holds %d job(s), not prefetching more until it falls below its low water mark",
+                            readyJobQueue.size()));
+                } else {
+                    logger.debug(format("No free slots to run new jobs, %d job(s) in flight of which %d queued",
+                            jobExecutionTracker.getInFlightJobCount(),
+                            jobExecutionTracker.getQueuedJobCount()));
+                }
+            }
+            return false;
+        }
+
+        final UUID workerId = workerNode.getNodeId();
         final List<Priority> orderedPriorities = jobStoreSchedulerPrioritySelector.selectOrderedPriorities();
 
         if (logger.isDebugEnabled()) {
-            logger.debug(format("Fetching new jobs from jobstore in priority order %s", orderedPriorities));
+            logger.debug(format("Fetching up to %d new jobs from jobstore in priority order %s", jobCountToClaim, orderedPriorities));
         }
 
         Stream<Job> unassignedJobs = null;
@@ -121,8 +371,10 @@ public class JobScheduler {
 
             // Collect into List and forward to execute() method as a new Stream.
             // (as userTransaction.commit() will close the DB cursor/resultset)
-            unassignedJobs = jobService.getUnassignedJobsFor(workerId, orderedPriorities);
-            final List<Job> jobList = unassignedJobs.toList();
+            unassignedJobs = claimJobs(workerId, orderedPriorities, jobCountToClaim);
+            final List<Job> claimedJobs = unassignedJobs.toList();
+            // Jobs prefetched into the ready queue wait there for a task slot rather than being released
+            final List<Job> jobList = readyQueueEnabled ? claimedJobs : releaseJobsOverTaskConcurrencyLimit(claimedJobs);
 
             userTransaction.commit();
 
@@ -135,9 +387,10 @@ public class JobScheduler {
                     logger.debug(format("Found %d %s priority job(s) to run from jobstore", jobList.size(), jobList.get(0).getPriority()));
                 }
 
-                execute(jobList.stream());
+                runJobs(jobStoreConfiguration.getLookaheadSeconds() > 0 ? holdJobsNotYetDue(jobList) : jobList);
             }
 
+            return claimedJobs.size() == jobCountToClaim;
 
         } catch (final NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e) {
 
@@ -153,6 +406,8 @@ public class JobScheduler {
                 logger.error("Unexpected exception during transaction rollback, rollback maybe incomplete", e1);
             }
 
+            return false;
+
         } finally {
             if (unassignedJobs != null) {
                 unassignedJobs.close();
@@ -160,19 +415,123 @@ public class JobScheduler {
         }
     }
 
-    private void execute(Stream<Job> jobsToDo) {
-        jobsToDo.forEach(job -> {
-            logger.trace("Trigger task execution:");
+    /**
+     * Releases any claimed jobs that would take their task over its maximum concurrency, so that
+     * they can be picked up by another node or by a later claim
+     */
+    private List<Job> releaseJobsOverTaskConcurrencyLimit(final List<Job> claimedJobs) {
+        final Map<Boolean, List<Job>> claimedJobsByWithinTaskConcurrencyLimit = partitionByTaskConcurrencyLimit(claimedJobs);
 
-            executorService.submit(new JobExecutor(
-                    job,
-                    taskRegistry,
-                    jobService,
-                    userTransaction,
-                    clock,
-                    getLogger(JobExecutor.class)));
+        for (final Job job : claimedJobsByWithinTaskConcurrencyLimit.get(false)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Releasing job %s as task %s is at its concurrency limit", job.getJobId(), job.getNextTask()));
+            }
+            jobService.releaseJob(job.getJobId());
+        }
 
-            logger.trace("Invocation of Task complete");
-        });
+        return claimedJobsByWithinTaskConcurrencyLimit.get(true);
+    }
+
+    /**
+     * Splits the jobs into those that can start without taking their task over its maximum
+     * concurrency, keyed by true, and those that would, keyed by false
+     */
+    private Map<Boolean, List<Job>> partitionByTaskConcurrencyLimit(final List<Job> jobs) {
+        final Map<String, Integer> freeTaskSlotCountByTaskName = new HashMap<>();
+        final Map<Boolean, List<Job>> jobsByWithinTaskConcurrencyLimit = Map.of(true, new ArrayList<>(), false, new ArrayList<>());
+
+        for (final Job job : jobs) {
+            final String taskName = job.getNextTask();
+            final int freeTaskSlotCount = freeTaskSlotCountByTaskName.computeIfAbsent(taskName, jobExecutionTracker::getFreeTaskSlotCount);
+
+            if (freeTaskSlotCount > 0) {
+                freeTaskSlotCountByTaskName.put(taskName, freeTaskSlotCount - 1);
+            }
+            jobsByWithinTaskConcurrencyLimit.get(freeTaskSlotCount > 0).add(job);
+        }
+
+        return jobsByWithinTaskConcurrencyLimit;
+    }
+
+    /**
+     * Holds the jobs claimed ahead of their start time until they fall due
+     *
+     * @return the jobs that are already due
+     */
+    private List<Job> holdJobsNotYetDue(final List<Job> claimedJobs) {
+        return claimedJobs.stream()
+                .filter(job -> !timedJobQueue.hold(job))
+                .toList();
+    }
+
+    /**
+     * Runs the held jobs that have fallen due. Held jobs take up slots of their tasks, but the
+     * concurrency limits are checked again as the jobs start without going through a claim, and
+     * jobs that would take their task over its limit are released rather than run. With the ready
+     * queue they wait there for a slot of their task instead.
+     */
+    private void runDueTimedJobs() {
+        final List<Job> dueJobs = timedJobQueue.takeDueJobs();
+
+        if (dueJobs.isEmpty()) {
+            return;
+        }
+
+        if (jobStoreConfiguration.isReadyQueueEnabled()) {
+            runJobs(dueJobs);
+            return;
+        }
+
+        final Map<Boolean, List<Job>> dueJobsByWithinTaskConcurrencyLimit = partitionByTaskConcurrencyLimit(dueJobs);
+
+        releaseJobs(dueJobsByWithinTaskConcurrencyLimit.get(false), "that fell due while their task was at its concurrency limit");
+        runJobs(dueJobsByWithinTaskConcurrencyLimit.get(true));
+    }
+
+    private void runJobs(final List<Job> jobs) {
+        if (jobStoreConfiguration.isReadyQueueEnabled()) {
+            readyJobQueue.addAll(jobs);
+            readyJobQueue.submitReadyJobs(this::execute);
+        } else {
+            jobs.forEach(this::execute);
+        }
+    }
+
+    private void execute(final Job job) {
+        logger.trace("Trigger task execution:");
+
+        final Runnable trackedJobExecutor = jobExecutionTracker.track(job, new JobExecutor(
+                job,
+                taskRegistry,
+                jobService,
+                userTransaction,
+                clock,
+                getLogger(JobExecutor.class),
+                completedJobBufferIfEnabled()));
+
+        try {
+            submit(trackedJobExecutor);
+        } catch (final RejectedExecutionException e) {
+            jobExecutionTracker.untrack(job);
+            logger.warn(format("Executor rejected job %s, it will be picked up again once its lock expires", job.getJobId()), e);
+        }
+
+        logger.trace("Invocation of Task complete");
+    }
+
+    private Optional<CompletedJobBuffer> completedJobBufferIfEnabled() {
+        if (jobStoreConfiguration.isBatchedCompletionEnabled()) {
+            return Optional.of(completedJobBuffer);
+        }
+
+        return Optional.empty();
+    }
+
+    private void submit(final Runnable jobExecutor) {
+        if (jobStoreConfiguration.isVirtualThreadsEnabled()) {
+            virtualThreadJobExecutor.submit(jobExecutor);
+        } else {
+            executorService.submit(jobExecutor);
+        }
     }
 }
@@ -1,15 +1,17 @@
 package uk.gov.moj.cpp.task.execution;
 
-import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class RandomPercentageProvider {
 
     /**
-     * Gets a pseudo random integer from zero (inclusive) to 100 (exclusive)
+     * Gets a pseudo random integer from zero (inclusive) to 100 (exclusive). The percentage only
+     * spreads claims across priorities, so it uses the calling thread's random rather than
+     * creating and seeding a new secure random on every call.
      *
      * @return An Integer greater or equal to zero and less than 100
      */
     public int getRandomPercentage() {
-        return new SecureRandom().nextInt(100);
+        return ThreadLocalRandom.current().nextInt(100);
     }
 }
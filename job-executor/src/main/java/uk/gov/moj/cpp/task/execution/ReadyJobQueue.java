@@ -0,0 +1,93 @@
+package uk.gov.moj.cpp.task.execution;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Node local queue of jobs claimed ahead of demand, so that an executor slot freed by a finishing
+ * job can be filled straight from memory rather than waiting on the next claim.
+ *
+ * The scheduler tops the queue up to its high water mark once it falls below its low water mark.
+ * Jobs in the queue stay locked to this node; their leases are renewed with those of the running
+ * jobs and they are released when the node shuts down.
+ */
+@ApplicationScoped
+public class ReadyJobQueue {
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private JobExecutionTracker jobExecutionTracker;
+
+    private final Deque<Job> readyJobs = new ArrayDeque<>();
+
+    public synchronized void addAll(final List<Job> jobs) {
+        readyJobs.addAll(jobs);
+    }
+
+    /**
+     * Hands ready jobs, oldest first, to the given submitter for as long as there are free
+     * executor slots. Jobs whose task is at its concurrency limit are left in the queue.
+     */
+    public synchronized void submitReadyJobs(final Consumer<Job> submitter) {
+        final Iterator<Job> readyJobIterator = readyJobs.iterator();
+
+        while (readyJobIterator.hasNext() && jobExecutionTracker.getFreeSlotCount() > 0) {
+            final Job readyJob = readyJobIterator.next();
+
+            if (jobExecutionTracker.getFreeTaskSlotCount(readyJob.getNextTask()) > 0) {
+                readyJobIterator.remove();
+                submitter.accept(readyJob);
+            }
+        }
+    }
+
+    /**
+     * @return the number of jobs to claim to fill the queue to its high water mark, or zero if the
+     * queue has not yet fallen below its low water mark
+     */
+    public synchronized int getRefillCount() {
+        if (readyJobs.size() >= jobStoreConfiguration.getReadyQueueLowWaterMark()) {
+            return 0;
+        }
+
+        return jobStoreConfiguration.getReadyQueueHighWaterMark() - readyJobs.size();
+    }
+
+    /**
+     * @return the id of the worker each ready job is locked to, keyed by job id, for renewing the
+     * leases of the jobs
+     */
+    public synchronized Map<UUID, UUID> getLeases() {
+        final Map<UUID, UUID> workerIdsByJobId = new HashMap<>();
+        readyJobs.forEach(job -> job.getWorkerId().ifPresent(workerId -> workerIdsByJobId.put(job.getJobId(), workerId)));
+        return workerIdsByJobId;
+    }
+
+    /**
+     * Removes and returns every job in the queue
+     */
+    public synchronized List<Job> drain() {
+        final List<Job> drainedJobs = new ArrayList<>(readyJobs);
+        readyJobs.clear();
+        return drainedJobs;
+    }
+
+    public synchronized int size() {
+        return readyJobs.size();
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.moj.cpp.task.execution;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Holds jobs claimed ahead of their start time, when the scheduler looks ahead, in a
+ * {@link TimingWheel} until they fall due, so that they start on time rather than on the first
+ * claim after their start time.
+ *
+ * Jobs held here stay locked to this node; their leases are renewed with those of the running
+ * jobs and they are released when the node shuts down. They are counted per task, so that they
+ * take up the slots of tasks with a maximum concurrency until they fall due.
+ */
+@ApplicationScoped
+public class TimedJobQueue {
+
+    private static final int WHEEL_SIZE = 64;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private UtcClock clock;
+
+    private TimingWheel<Job> timingWheel;
+
+    private final Map<String, Integer> heldJobCountByTaskName = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        timingWheel = new TimingWheel<>(
+                jobStoreConfiguration.getTimingWheelTickMilliseconds(),
+                WHEEL_SIZE,
+                clock.now().toInstant().toEpochMilli());
+    }
+
+    /**
+     * Holds the job until its start time
+     *
+     * @return false, without holding the job, if the job is already due
+     */
+    public synchronized boolean hold(final Job job) {
+        if (!job.getNextTaskStartTime().isAfter(clock.now())) {
+            return false;
+        }
+
+        final boolean held = timingWheel.schedule(job.getNextTaskStartTime().toInstant().toEpochMilli(), job);
+
+        if (held) {
+            heldJobCountByTaskName.merge(job.getNextTask(), 1, Integer::sum);
+        }
+
+        return held;
+    }
+
+    /**
+     * Removes and returns the jobs whose start time has been reached
+     */
+    public synchronized List<Job> takeDueJobs() {
+        return uncount(timingWheel.advanceTo(clock.now().toInstant().toEpochMilli()));
+    }
+
+    /**
+     * @return the id of the worker each held job is locked to, keyed by job id, for renewing the
+     * leases of the jobs
+     */
+    public synchronized Map<UUID, UUID> getLeases() {
+        final Map<UUID, UUID> workerIdsByJobId = new HashMap<>();
+        timingWheel.items().forEach(job -> job.getWorkerId().ifPresent(workerId -> workerIdsByJobId.put(job.getJobId(), workerId)));
+        return workerIdsByJobId;
+    }
+
+    /**
+     * Removes and returns every job held
+     */
+    public synchronized List<Job> drain() {
+        return uncount(timingWheel.drain());
+    }
+
+    public synchronized int size() {
+        return timingWheel.size();
+    }
+
+    public synchronized int getHeldJobCount(final String taskName) {
+        return heldJobCountByTaskName.getOrDefault(taskName, 0);
+    }
+
+    private List<Job> uncount(final List<Job> releasedJobs) {
+        releasedJobs.forEach(job -> heldJobCountByTaskName.computeIfPresent(job.getNextTask(), (taskName, count) -> count > 1 ? count - 1 : null));
+        return releasedJobs;
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.moj.cpp.task.execution;
+
+import org.slf4j.Logger;
+
+/**
+ * Long running loop that turns the {@link TimedJobQueue} timing wheel once a tick, running each
+ * held job as its start time is reached.
+ */
+public class TimedJobTicker implements Runnable {
+
+    private final Runnable runDueJobs;
+    private final long tickMilliseconds;
+    private final Logger logger;
+
+    private volatile boolean running = true;
+
+    public TimedJobTicker(final Runnable runDueJobs, final long tickMilliseconds, final Logger logger) {
+        this.runDueJobs = runDueJobs;
+        this.tickMilliseconds = tickMilliseconds;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            tick();
+            sleep();
+        }
+
+        logger.info("Jobstore timed job ticker stopped");
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void tick() {
+        try {
+            runDueJobs.run();
+        } catch (final RuntimeException e) {
+            logger.warn("Jobstore timed job ticker failed to run due jobs", e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(tickMilliseconds);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
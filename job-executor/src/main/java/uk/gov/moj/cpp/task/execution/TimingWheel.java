@@ -0,0 +1,195 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding items until a deadline, in epoch milliseconds.
+ *
+ * The first level has one slot per tick; each level above it has one slot per full turn of the
+ * level below, and levels are added as deadlines further out are scheduled. Scheduling an item
+ * and advancing by a tick cost the same however many items are held. Items in the first level are
+ * rounded up to the next tick, so they are never handed back before their deadline; items in the
+ * levels above cascade down a level as their slot comes round.
+ *
+ * Not thread safe.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMilliseconds;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    private long currentTime;
+    private int size;
+
+    public TimingWheel(final long tickMilliseconds, final int wheelSize, final long startTime) {
+        this.tickMilliseconds = tickMilliseconds;
+        this.wheelSize = wheelSize;
+        this.currentTime = startTime;
+        levels.add(new Level<>(tickMilliseconds, wheelSize, startTime));
+    }
+
+    /**
+     * @return false, without holding the item, if its deadline has already been reached
+     */
+    public boolean schedule(final long deadline, final T item) {
+        if (deadline <= currentTime) {
+            return false;
+        }
+
+        insert(new TimedItem<>(deadline, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel on to the given time, cascading items down the levels as their slots come
+     * round
+     *
+     * @return the items whose deadlines have been reached, in no particular order
+     */
+    public List<T> advanceTo(final long time) {
+        final List<T> dueItems = new ArrayList<>();
+
+        if (time <= currentTime) {
+            return dueItems;
+        }
+
+        currentTime = time;
+
+        for (int levelIndex = levels.size() - 1; levelIndex > 0; levelIndex--) {
+            for (final TimedItem<T> timedItem : levels.get(levelIndex).removeExpired(time)) {
+                if (timedItem.deadline <= time) {
+                    dueItems.add(timedItem.item);
+                } else {
+                    insert(timedItem);
+                }
+            }
+        }
+
+        levels.get(0).removeExpired(time).forEach(timedItem -> dueItems.add(timedItem.item));
+
+        size -= dueItems.size();
+        return dueItems;
+    }
+
+    /**
+     * @return every item held, in no particular order
+     */
+    public List<T> items() {
+        final List<T> items = new ArrayList<>();
+        levels.forEach(level -> level.forEach(timedItem -> items.add(timedItem.item)));
+        return items;
+    }
+
+    /**
+     * Removes and returns every item held, in no particular order
+     */
+    public List<T> drain() {
+        final List<T> items = items();
+        levels.forEach(Level::clear);
+        size = 0;
+        return items;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void insert(final TimedItem<T> timedItem) {
+        long levelTickMilliseconds = tickMilliseconds;
+        int levelIndex = 0;
+
+        while (timedItem.deadline - currentTime >= levelTickMilliseconds * wheelSize) {
+            levelTickMilliseconds *= wheelSize;
+            levelIndex++;
+        }
+
+        while (levels.size() <= levelIndex) {
+            final long overflowTickMilliseconds = levels.get(levels.size() - 1).tickMilliseconds * wheelSize;
+            levels.add(new Level<>(overflowTickMilliseconds, wheelSize, currentTime));
+        }
+
+        final Level<T> level = levels.get(levelIndex);
+        final long slotId = levelIndex == 0
+                ? -floorDiv(-timedItem.deadline, levelTickMilliseconds)
+                : floorDiv(timedItem.deadline, levelTickMilliseconds);
+
+        level.add(slotId, timedItem);
+    }
+
+    private static class TimedItem<T> {
+
+        private final long deadline;
+        private final T item;
+        private long slotId;
+
+        private TimedItem(final long deadline, final T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+
+    private static class Level<T> {
+
+        private final long tickMilliseconds;
+        private final List<List<TimedItem<T>>> slots = new ArrayList<>();
+
+        private long lastExpiredSlotId;
+
+        private Level(final long tickMilliseconds, final int wheelSize, final long startTime) {
+            this.tickMilliseconds = tickMilliseconds;
+            this.lastExpiredSlotId = floorDiv(startTime, tickMilliseconds);
+
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        private void add(final long slotId, final TimedItem<T> timedItem) {
+            timedItem.slotId = slotId;
+            slots.get(slotIndexOf(slotId)).add(timedItem);
+        }
+
+        private List<TimedItem<T>> removeExpired(final long time) {
+            final List<TimedItem<T>> expiredItems = new ArrayList<>();
+            final long expiredSlotId = floorDiv(time, tickMilliseconds);
+            final long slotCount = min(expiredSlotId - lastExpiredSlotId, slots.size());
+
+            for (long slotId = expiredSlotId - slotCount + 1; slotId <= expiredSlotId; slotId++) {
+                final Iterator<TimedItem<T>> slotIterator = slots.get(slotIndexOf(slotId)).iterator();
+
+                while (slotIterator.hasNext()) {
+                    final TimedItem<T> timedItem = slotIterator.next();
+
+                    if (timedItem.slotId <= expiredSlotId) {
+                        slotIterator.remove();
+                        expiredItems.add(timedItem);
+                    }
+                }
+            }
+
+            lastExpiredSlotId = expiredSlotId;
+            return expiredItems;
+        }
+
+        private void forEach(final Consumer<TimedItem<T>> action) {
+            slots.forEach(slot -> slot.forEach(action));
+        }
+
+        private void clear() {
+            slots.forEach(List::clear);
+        }
+
+        private int slotIndexOf(final long slotId) {
+            return floorMod(slotId, slots.size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Runs jobs on virtual threads rather than on the container's managed executor pool, so that
+ * jobs blocked on JDBC or downstream calls do not each hold a platform thread.
+ *
+ * Every job gets its own virtual thread; the number running at once is capped by a semaphore
+ * rather than by a pool size. Jobs are wrapped in a contextual proxy from the container's
+ * {@link ContextService} so that they run with the same naming, class loader and security context
+ * as on a managed thread, which the {@link javax.transaction.UserTransaction} used by
+ * {@link JobExecutor} relies on.
+ */
+@ApplicationScoped
+public class VirtualThreadJobExecutor {
+
+    @Resource
+    private ContextService contextService;
+
+    @Inject
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    private Logger logger;
+
+    private ExecutorService executorService;
+
+    private Semaphore concurrencyLimit;
+
+    @PostConstruct
+    public void init() {
+        final int maxConcurrency = jobStoreConfiguration.getVirtualThreadMaxConcurrency();
+
+        logger.info("Running jobs on virtual threads, at most {} at a time", maxConcurrency);
+
+        executorService = newVirtualThreadPerTaskExecutor();
+        concurrencyLimit = new Semaphore(maxConcurrency);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdown();
+    }
+
+    /**
+     * Starts the job on a new virtual thread, which waits for a free permit before running it
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the executor has been shut down
+     */
+    public void submit(final Runnable job) {
+        final Runnable contextualJob = contextService.createContextualProxy(job, Runnable.class);
+
+        executorService.execute(() -> {
+            concurrencyLimit.acquireUninterruptibly();
+            try {
+                contextualJob.run();
+            } finally {
+                concurrencyLimit.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.UUID.randomUUID;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Identifies this node to the jobstore. The node id is fixed for the life of the application and
+ * is what every job claimed by this node is locked to, so that the jobs of a node that stops
+ * heartbeating can be found and released.
+ */
+@ApplicationScoped
+public class WorkerNode {
+
+    private final UUID nodeId = randomUUID();
+
+    private String nodeName;
+
+    public UUID getNodeId() {
+        return nodeId;
+    }
+
+    public String getNodeName() {
+        if (nodeName == null) {
+            nodeName = hostName();
+        }
+
+        return nodeName;
+    }
+
+    private String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (final UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
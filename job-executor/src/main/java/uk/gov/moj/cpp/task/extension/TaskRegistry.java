@@ -1,5 +1,7 @@
 package uk.gov.moj.cpp.task.extension;
 
+import static java.lang.Math.max;
+
 import uk.gov.moj.cpp.jobstore.api.annotation.Task;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutableTask;
 
@@ -23,16 +25,28 @@ public class TaskRegistry {
 
     private final Map<String, ExecutableTask> taskProxyByNameMap = new HashMap<>();
 
+    private final Map<String, Integer> maxConcurrencyByTaskName = new HashMap<>();
+
+    private final Map<String, Integer> weightByTaskName = new HashMap<>();
+
     @Inject
     private Instance<ExecutableTask> taskBeanProxy;
 
     public void register(@Observes final TaskFoundEvent event) {
 
         final Class taskClass = event.getClazz();
-        final String taskName = ((Task) taskClass.getAnnotation(Task.class)).value();
+        final Task task = (Task) taskClass.getAnnotation(Task.class);
+        final String taskName = task.value();
 
         logger.info("Notified of Work Task [type={}], [name={}]", taskClass, taskName);
 
+        if (task.maxConcurrency() > 0) {
+            maxConcurrencyByTaskName.putIfAbsent(taskName, task.maxConcurrency());
+            logger.info("Limiting Work Task [name={}] to {} concurrent job(s)", taskName, task.maxConcurrency());
+        }
+
+        weightByTaskName.putIfAbsent(taskName, max(1, task.weight()));
+
         for (final ExecutableTask taskProxy : taskBeanProxy) {
             final String proxyClassName = taskProxy.getClass().getName();
             if (proxyClassName.startsWith(taskClass.getName())) {
@@ -52,6 +66,21 @@ public class TaskRegistry {
         return Optional.ofNullable(taskProxyByNameMap.get(taskName));
     }
 
+    public Optional<Integer> getMaxConcurrency(final String taskName) {
+        return Optional.ofNullable(maxConcurrencyByTaskName.get(taskName));
+    }
+
+    public Map<String, Integer> getMaxConcurrencyByTaskName() {
+        return Map.copyOf(maxConcurrencyByTaskName);
+    }
+
+    /**
+     * @return the claiming weight of every registered task, keyed by task name
+     */
+    public Map<String, Integer> getWeightByTaskName() {
+        return Map.copyOf(weightByTaskName);
+    }
+
     public Integer findRetryAttemptsRemainingFor(final String taskName) {
         return getTask(taskName)
                 .map(this::findRetryAttemptsRemainingFor)
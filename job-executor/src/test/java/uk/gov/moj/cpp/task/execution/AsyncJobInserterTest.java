@@ -0,0 +1,121 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.empty;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.JdbcRepositoryException;
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+import uk.gov.moj.cpp.task.execution.JobInsertBuffer.PendingJobInsert;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncJobInserterTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private UserTransaction userTransaction;
+
+    @Mock
+    private JobInsertBuffer jobInsertBuffer;
+
+    @InjectMocks
+    private AsyncJobInserter asyncJobInserter;
+
+    @Test
+    public void shouldNotStartTheJobInsertFlusherWhenAsyncEnqueueIsDisabled() {
+        when(jobStoreConfiguration.isAsyncEnqueueEnabled()).thenReturn(false);
+
+        asyncJobInserter.init();
+        asyncJobInserter.destroy();
+
+        verifyNoInteractions(managedThreadFactory, jobInsertBuffer);
+    }
+
+    @Test
+    public void shouldStartTheJobInsertFlusherAndFlushTheJobsLeftInTheBufferInATransactionOnShutdown() throws Exception {
+        final Thread thread = mock(Thread.class);
+        final PendingJobInsert pendingJobInsert = new PendingJobInsert(job());
+
+        when(jobStoreConfiguration.isAsyncEnqueueEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getAsyncEnqueueBatchSize()).thenReturn(500);
+        when(jobStoreConfiguration.getAsyncEnqueueFlushMilliseconds()).thenReturn(5L);
+        when(managedThreadFactory.newThread(any(JobInsertFlusher.class))).thenReturn(thread);
+        when(jobInsertBuffer.drain()).thenReturn(List.of(pendingJobInsert));
+
+        asyncJobInserter.init();
+        asyncJobInserter.destroy();
+
+        verify(thread).start();
+
+        final InOrder inOrder = inOrder(jobInsertBuffer, thread, userTransaction, jobService);
+        inOrder.verify(jobInsertBuffer).close();
+        inOrder.verify(thread).interrupt();
+        inOrder.verify(thread).join(AsyncJobInserter.FLUSHER_STOP_TIMEOUT_MILLISECONDS);
+        inOrder.verify(jobInsertBuffer).drain();
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).insertJobs(List.of(pendingJobInsert.getJob()));
+        inOrder.verify(userTransaction).commit();
+        assertThat(pendingJobInsert.getInsertCompletion().toCompletableFuture().get(), is(pendingJobInsert.getJob().getJobId()));
+    }
+
+    @Test
+    public void shouldRollBackAndFailTheJobsIfTheInsertFails() throws Exception {
+        final Thread thread = mock(Thread.class);
+        final PendingJobInsert pendingJobInsert = new PendingJobInsert(job());
+        final JdbcRepositoryException exception = new JdbcRepositoryException("Ooops");
+
+        when(jobStoreConfiguration.isAsyncEnqueueEnabled()).thenReturn(true);
+        when(managedThreadFactory.newThread(any(JobInsertFlusher.class))).thenReturn(thread);
+        when(jobInsertBuffer.drain()).thenReturn(List.of(pendingJobInsert));
+        doThrow(exception).when(jobService).insertJobs(List.of(pendingJobInsert.getJob()));
+        when(userTransaction.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        asyncJobInserter.init();
+        asyncJobInserter.destroy();
+
+        verify(userTransaction).rollback();
+        assertThat(pendingJobInsert.getInsertCompletion().toCompletableFuture().isCompletedExceptionally(), is(true));
+    }
+
+    private Job job() {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), empty(), empty(), 0, HIGH);
+    }
+}
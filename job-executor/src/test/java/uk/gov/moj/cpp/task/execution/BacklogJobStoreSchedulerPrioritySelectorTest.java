@@ -0,0 +1,136 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.persistence.Priority;
+import uk.gov.moj.cpp.jobstore.persistence.PriorityBacklog;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BacklogJobStoreSchedulerPrioritySelectorTest {
+
+    private final ZonedDateTime now = new UtcClock().now();
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private UtcClock clock;
+
+    @InjectMocks
+    private BacklogJobStoreSchedulerPrioritySelector backlogJobStoreSchedulerPrioritySelector;
+
+    @BeforeEach
+    public void setUpClock() {
+        when(clock.now()).thenReturn(now);
+    }
+
+    @Test
+    public void shouldPutWaitingPrioritiesFirstInProportionToTheirShares() {
+
+        givenSharesAndMaximumWait();
+        when(jobService.getPriorityBacklogs()).thenReturn(List.of(
+                waiting(HIGH, now), waiting(MEDIUM, now), waiting(LOW, now)));
+
+        final Map<Priority, Integer> firstCounts = new EnumMap<>(Priority.class);
+        for (int selection = 0; selection < 100; selection++) {
+            firstCounts.merge(backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities().get(0), 1, Integer::sum);
+        }
+
+        assertThat(firstCounts, is(Map.of(HIGH, 70, MEDIUM, 20, LOW, 10)));
+    }
+
+    @Test
+    public void shouldLeaveOutPrioritiesWithNothingWaitingAndShareBetweenTheRest() {
+
+        givenSharesAndMaximumWait();
+        when(jobService.getPriorityBacklogs()).thenReturn(List.of(
+                nothingWaiting(HIGH), waiting(MEDIUM, now), waiting(LOW, now)));
+
+        final Map<Priority, Integer> firstCounts = new EnumMap<>(Priority.class);
+        for (int selection = 0; selection < 30; selection++) {
+            final List<Priority> orderedPriorities = backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities();
+            assertThat(orderedPriorities.size(), is(2));
+            firstCounts.merge(orderedPriorities.get(0), 1, Integer::sum);
+        }
+
+        assertThat(firstCounts, is(Map.of(MEDIUM, 20, LOW, 10)));
+    }
+
+    @Test
+    public void shouldFallBackToAllPrioritiesInOrderOfUrgencyIfNothingIsWaiting() {
+
+        when(jobService.getPriorityBacklogs()).thenReturn(List.of(
+                nothingWaiting(HIGH), nothingWaiting(MEDIUM), nothingWaiting(LOW)));
+
+        assertThat(backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities(), is(List.of(HIGH, MEDIUM, LOW)));
+    }
+
+    @Test
+    public void shouldPutPriorityWaitingLongerThanTheMaximumFirst() {
+
+        givenSharesAndMaximumWait();
+        when(jobService.getPriorityBacklogs()).thenReturn(List.of(
+                waiting(HIGH, now), waiting(MEDIUM, now), waiting(LOW, now.minusSeconds(301))));
+
+        for (int selection = 0; selection < 5; selection++) {
+            assertThat(backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities().get(0), is(LOW));
+        }
+    }
+
+    @Test
+    public void shouldOnlyRefreshBacklogsOnceTheRefreshIntervalHasPassed() {
+
+        givenSharesAndMaximumWait();
+        when(jobStoreConfiguration.getPriorityBacklogRefreshMilliseconds()).thenReturn(1000L);
+        when(jobService.getPriorityBacklogs()).thenReturn(List.of(waiting(HIGH, now)));
+
+        backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities();
+        backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities();
+
+        when(clock.now()).thenReturn(now.plusSeconds(1));
+        backlogJobStoreSchedulerPrioritySelector.selectOrderedPriorities();
+
+        verify(jobService, times(2)).getPriorityBacklogs();
+    }
+
+    private void givenSharesAndMaximumWait() {
+        when(jobStoreConfiguration.getJobPriorityPercentageHigh()).thenReturn(70);
+        when(jobStoreConfiguration.getJobPriorityPercentageLow()).thenReturn(10);
+        when(jobStoreConfiguration.getPriorityBacklogMaxWaitSeconds()).thenReturn(300L);
+    }
+
+    private PriorityBacklog waiting(final Priority priority, final ZonedDateTime oldestStartTime) {
+        return new PriorityBacklog(priority, 100, of(oldestStartTime));
+    }
+
+    private PriorityBacklog nothingWaiting(final Priority priority) {
+        return new PriorityBacklog(priority, 0, empty());
+    }
+}
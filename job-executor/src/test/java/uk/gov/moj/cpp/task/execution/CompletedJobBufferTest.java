@@ -0,0 +1,62 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.empty;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class CompletedJobBufferTest {
+
+    private static final UUID WORKER_ID = randomUUID();
+
+    private final CompletedJobBuffer completedJobBuffer = new CompletedJobBuffer();
+
+    @Test
+    public void shouldTakeBatchesOfCompletedJobsInTheOrderTheyCompleted() {
+        final Job job1 = lockedJob();
+        final Job job2 = lockedJob();
+        final Job job3 = lockedJob();
+        List.of(job1, job2, job3).forEach(completedJobBuffer::add);
+
+        assertThat(List.copyOf(completedJobBuffer.takeBatch(2).keySet()), is(List.of(job1.getJobId(), job2.getJobId())));
+        assertThat(completedJobBuffer.takeBatch(2), is(Map.of(job3.getJobId(), WORKER_ID)));
+        assertThat(completedJobBuffer.takeBatch(2), is(Map.of()));
+    }
+
+    @Test
+    public void shouldKeepTheLeasesOfCompletedJobsUntilTheyAreTakenAndOfBatchesPutBack() {
+        final Job job = lockedJob();
+        completedJobBuffer.add(job);
+
+        assertThat(completedJobBuffer.getLeases(), is(Map.of(job.getJobId(), WORKER_ID)));
+
+        final Map<UUID, UUID> batch = completedJobBuffer.takeBatch(10);
+        assertThat(completedJobBuffer.getLeases(), is(Map.of()));
+
+        completedJobBuffer.restore(batch);
+        assertThat(completedJobBuffer.getLeases(), is(Map.of(job.getJobId(), WORKER_ID)));
+    }
+
+    @Test
+    public void shouldIgnoreJobsNotLockedToAWorker() {
+        completedJobBuffer.add(new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), empty(), empty(), 0, HIGH));
+
+        assertThat(completedJobBuffer.size(), is(0));
+    }
+
+    private Job lockedJob() {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), Optional.of(WORKER_ID), Optional.of(ZonedDateTime.now()), 0, HIGH);
+    }
+}
@@ -0,0 +1,107 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.UUID.randomUUID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import uk.gov.moj.cpp.jobstore.persistence.JdbcRepositoryException;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class CompletedJobDeleterTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private UserTransaction userTransaction;
+
+    @Mock
+    private CompletedJobBuffer completedJobBuffer;
+
+    @InjectMocks
+    private CompletedJobDeleter completedJobDeleter;
+
+    @Test
+    public void shouldNotStartTheCompletedJobFlusherWhenBatchedCompletionIsDisabled() {
+        when(jobStoreConfiguration.isBatchedCompletionEnabled()).thenReturn(false);
+
+        completedJobDeleter.init();
+        completedJobDeleter.destroy();
+
+        verifyNoInteractions(managedThreadFactory, completedJobBuffer);
+    }
+
+    @Test
+    public void shouldStartTheCompletedJobFlusherAndDeleteTheJobsLeftInTheBufferInATransactionOnShutdown() throws Exception {
+        final Thread thread = mock(Thread.class);
+        final Map<UUID, UUID> completedJobs = Map.of(randomUUID(), randomUUID());
+
+        when(jobStoreConfiguration.isBatchedCompletionEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getBatchedCompletionBatchSize()).thenReturn(500);
+        when(jobStoreConfiguration.getBatchedCompletionFlushMilliseconds()).thenReturn(1000L);
+        when(managedThreadFactory.newThread(any(CompletedJobFlusher.class))).thenReturn(thread);
+        when(completedJobBuffer.takeBatch(500)).thenReturn(completedJobs).thenReturn(Map.of());
+        when(jobService.deleteJobs(completedJobs)).thenReturn(1);
+
+        completedJobDeleter.init();
+        completedJobDeleter.destroy();
+
+        verify(thread).start();
+
+        final InOrder inOrder = inOrder(userTransaction, jobService);
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).deleteJobs(completedJobs);
+        inOrder.verify(userTransaction).commit();
+    }
+
+    @Test
+    public void shouldRollBackAndPutBackTheJobsIfTheDeleteFails() throws Exception {
+        final Thread thread = mock(Thread.class);
+        final Map<UUID, UUID> completedJobs = Map.of(randomUUID(), randomUUID());
+        final JdbcRepositoryException exception = new JdbcRepositoryException("Ooops");
+
+        when(jobStoreConfiguration.isBatchedCompletionEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getBatchedCompletionBatchSize()).thenReturn(500);
+        when(managedThreadFactory.newThread(any(CompletedJobFlusher.class))).thenReturn(thread);
+        when(completedJobBuffer.takeBatch(500)).thenReturn(completedJobs);
+        doThrow(exception).when(jobService).deleteJobs(completedJobs);
+        when(userTransaction.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        completedJobDeleter.init();
+        completedJobDeleter.destroy();
+
+        verify(userTransaction).rollback();
+        verify(completedJobBuffer).restore(completedJobs);
+    }
+}
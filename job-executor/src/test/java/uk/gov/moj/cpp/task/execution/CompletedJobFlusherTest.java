@@ -0,0 +1,79 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class CompletedJobFlusherTest {
+
+    private static final UUID WORKER_ID = randomUUID();
+    private static final int BATCH_SIZE = 2;
+    private static final long FLUSH_MILLISECONDS = 1L;
+
+    @Mock
+    private Logger logger;
+
+    private final CompletedJobBuffer completedJobBuffer = new CompletedJobBuffer();
+
+    @Test
+    public void shouldDeleteTheBufferedJobsInBatchesUntilStopped() {
+        final List<Map<UUID, UUID>> deletedBatches = new ArrayList<>();
+        final List<Job> jobs = List.of(lockedJob(), lockedJob(), lockedJob());
+        jobs.forEach(completedJobBuffer::add);
+
+        final CompletedJobFlusher[] completedJobFlusher = new CompletedJobFlusher[1];
+        completedJobFlusher[0] = new CompletedJobFlusher(completedJobBuffer, batch -> {
+            deletedBatches.add(batch);
+            if (completedJobBuffer.size() == 0) {
+                completedJobFlusher[0].stop();
+            }
+        }, BATCH_SIZE, FLUSH_MILLISECONDS, logger);
+
+        completedJobFlusher[0].run();
+
+        assertThat(deletedBatches, is(List.of(
+                Map.of(jobs.get(0).getJobId(), WORKER_ID, jobs.get(1).getJobId(), WORKER_ID),
+                Map.of(jobs.get(2).getJobId(), WORKER_ID))));
+        assertThat(completedJobFlusher[0].isRunning(), is(false));
+        verify(logger).info("Jobstore completed job flusher stopped");
+    }
+
+    @Test
+    public void shouldPutBackABatchThatCouldNotBeDeletedSoItsLeaseIsStillRenewed() {
+        final IllegalStateException exception = new IllegalStateException("Ooops");
+        final Job job = lockedJob();
+        completedJobBuffer.add(job);
+
+        final CompletedJobFlusher completedJobFlusher = new CompletedJobFlusher(completedJobBuffer, batch -> {
+            throw exception;
+        }, BATCH_SIZE, FLUSH_MILLISECONDS, logger);
+
+        completedJobFlusher.flush();
+
+        assertThat(completedJobBuffer.getLeases(), is(Map.of(job.getJobId(), WORKER_ID)));
+        verify(logger).warn("Jobstore completed job flusher failed to delete {} job(s)", 1, exception);
+    }
+
+    private Job lockedJob() {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), Optional.of(WORKER_ID), Optional.of(ZonedDateTime.now()), 0, HIGH);
+    }
+}
@@ -3,19 +3,27 @@ package uk.gov.moj.cpp.task.execution;
 import static org.hamcrest.CoreMatchers.any;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
 
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionStatus;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import javax.json.JsonObject;
 
@@ -36,12 +44,21 @@ public class DefaultExecutionServiceTest {
     @Mock
     private TaskRegistry taskRegistry;
 
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private JobInsertBuffer jobInsertBuffer;
+
     @InjectMocks
     private DefaultExecutionService executionService;
 
     @Captor
     private ArgumentCaptor<Job> jobArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Job>> jobsArgumentCaptor;
+
 
     @Test
     public void shouldInsertJobByInvokingJobService() {
@@ -64,4 +81,84 @@ public class DefaultExecutionServiceTest {
         assertThat(jobToInsert.getJobData(), is(jobData));
         assertThat(jobToInsert.getRetryAttemptsRemaining(), is(1));
     }
+
+    @Test
+    public void shouldInsertJobWithItsNumericPriority() {
+
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final ExecutionInfo executionInfo = ExecutionInfo.executionInfo()
+                .withJobData(jobData)
+                .withNextTask("startTask")
+                .withNextTaskStartTime(ZonedDateTime.now())
+                .withPriorityValue(180)
+                .build();
+
+        executionService.executeWith(executionInfo);
+        verify(jobService).insertJob(jobArgumentCaptor.capture());
+
+        assertThat(jobArgumentCaptor.getValue().getPriority(), is(MEDIUM));
+        assertThat(jobArgumentCaptor.getValue().getPriorityValue(), is(180));
+    }
+
+    @Test
+    public void shouldInsertAllJobsInOneCallLookingUpTheRetryAttemptsOncePerTask() {
+
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final ZonedDateTime startTime = ZonedDateTime.now();
+        final List<ExecutionInfo> executionInfos = List.of(
+                new ExecutionInfo(jobData, "startTask", startTime, ExecutionStatus.STARTED, true, HIGH),
+                new ExecutionInfo(jobData, "otherTask", startTime, ExecutionStatus.STARTED, true, LOW),
+                new ExecutionInfo(jobData, "startTask", startTime, ExecutionStatus.STARTED, true, HIGH));
+
+        when(taskRegistry.findRetryAttemptsRemainingFor("startTask")).thenReturn(2);
+        when(taskRegistry.findRetryAttemptsRemainingFor("otherTask")).thenReturn(0);
+
+        executionService.executeWithAll(executionInfos);
+        verify(jobService).insertJobs(jobsArgumentCaptor.capture());
+        verify(taskRegistry, times(1)).findRetryAttemptsRemainingFor("startTask");
+
+        final List<Job> jobsToInsert = jobsArgumentCaptor.getValue();
+        assertThat(jobsToInsert.size(), is(3));
+        assertThat(jobsToInsert.stream().map(Job::getNextTask).toList(), is(List.of("startTask", "otherTask", "startTask")));
+        assertThat(jobsToInsert.stream().map(Job::getRetryAttemptsRemaining).toList(), is(List.of(2, 0, 2)));
+        assertThat(jobsToInsert.stream().map(Job::getPriority).toList(), is(List.of(HIGH, LOW, HIGH)));
+        assertThat(jobsToInsert.stream().map(Job::getJobId).distinct().count(), is(3L));
+    }
+
+    @Test
+    public void shouldInsertTheJobStraightAwayWhenEnqueuedAsynchronouslyWithAsyncEnqueueDisabled() throws Exception {
+
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final ExecutionInfo executionInfo = new ExecutionInfo(jobData, "startTask", ZonedDateTime.now(), ExecutionStatus.STARTED, true, HIGH);
+
+        when(taskRegistry.findRetryAttemptsRemainingFor("startTask")).thenReturn(1);
+        when(jobStoreConfiguration.isAsyncEnqueueEnabled()).thenReturn(false);
+
+        final CompletionStage<UUID> insertCompletion = executionService.executeAsyncWith(executionInfo);
+        verify(jobService).insertJob(jobArgumentCaptor.capture());
+
+        assertThat(insertCompletion.toCompletableFuture().get(), is(jobArgumentCaptor.getValue().getJobId()));
+        verifyNoInteractions(jobInsertBuffer);
+    }
+
+    @Test
+    public void shouldAddTheJobToTheInsertBufferWhenEnqueuedAsynchronously() {
+
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final ZonedDateTime startTime = ZonedDateTime.now();
+        final ExecutionInfo executionInfo = new ExecutionInfo(jobData, "startTask", startTime, ExecutionStatus.STARTED, true, HIGH);
+        final CompletionStage<UUID> insertCompletion = new CompletableFuture<>();
+
+        when(taskRegistry.findRetryAttemptsRemainingFor("startTask")).thenReturn(1);
+        when(jobStoreConfiguration.isAsyncEnqueueEnabled()).thenReturn(true);
+        when(jobInsertBuffer.add(jobArgumentCaptor.capture())).thenReturn(insertCompletion);
+
+        assertThat(executionService.executeAsyncWith(executionInfo), is(insertCompletion));
+
+        final Job jobToInsert = jobArgumentCaptor.getValue();
+        assertThat(jobToInsert.getNextTask(), is("startTask"));
+        assertThat(jobToInsert.getNextTaskStartTime(), is(startTime));
+        assertThat(jobToInsert.getRetryAttemptsRemaining(), is(1));
+        verifyNoInteractions(jobService);
+    }
 }
@@ -0,0 +1,108 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class JobDispatcherTest {
+
+    private static final long LONG_BACK_OFF_MILLISECONDS = 60_000;
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    public void shouldDispatchAgainImmediatelyWhileFullBatchesAreClaimed() {
+
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        final JobDispatcher[] jobDispatcher = new JobDispatcher[1];
+
+        final BooleanSupplier dispatch = () -> {
+            if (dispatchCount.incrementAndGet() == 3) {
+                jobDispatcher[0].stop();
+            }
+            return true;
+        };
+
+        jobDispatcher[0] = new JobDispatcher(dispatch, 0, LONG_BACK_OFF_MILLISECONDS, LONG_BACK_OFF_MILLISECONDS, logger);
+        jobDispatcher[0].run();
+
+        assertThat(dispatchCount.get(), is(3));
+    }
+
+    @Test
+    public void shouldBackOffWhenBatchIsNotFullAndDispatchAgainOnceTheBackOffExpires() {
+
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        final JobDispatcher[] jobDispatcher = new JobDispatcher[1];
+
+        final BooleanSupplier dispatch = () -> {
+            if (dispatchCount.incrementAndGet() == 3) {
+                jobDispatcher[0].stop();
+            }
+            return false;
+        };
+
+        jobDispatcher[0] = new JobDispatcher(dispatch, 0, 1, 2, logger);
+        jobDispatcher[0].run();
+
+        assertThat(dispatchCount.get(), is(3));
+    }
+
+    @Test
+    public void shouldDispatchAgainWhenSignalledWhileBackingOff() throws Exception {
+
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        final JobDispatcher[] jobDispatcher = new JobDispatcher[1];
+
+        final BooleanSupplier dispatch = () -> {
+            if (dispatchCount.incrementAndGet() == 2) {
+                jobDispatcher[0].stop();
+            } else {
+                jobDispatcher[0].signal();
+            }
+            return false;
+        };
+
+        jobDispatcher[0] = new JobDispatcher(dispatch, 0, LONG_BACK_OFF_MILLISECONDS, LONG_BACK_OFF_MILLISECONDS, logger);
+
+        final Thread dispatcherThread = new Thread(jobDispatcher[0]);
+        dispatcherThread.start();
+        dispatcherThread.join(10_000);
+
+        assertThat(dispatcherThread.isAlive(), is(false));
+        assertThat(dispatchCount.get(), is(2));
+    }
+
+    @Test
+    public void shouldBackOffAndCarryOnIfDispatchFails() {
+
+        final IllegalStateException illegalStateException = new IllegalStateException("Ooops");
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        final JobDispatcher[] jobDispatcher = new JobDispatcher[1];
+
+        final BooleanSupplier dispatch = () -> {
+            if (dispatchCount.incrementAndGet() == 1) {
+                throw illegalStateException;
+            }
+            jobDispatcher[0].stop();
+            return true;
+        };
+
+        jobDispatcher[0] = new JobDispatcher(dispatch, 0, 1, 1, logger);
+        jobDispatcher[0].run();
+
+        verify(logger).warn("Jobstore dispatcher failed to dispatch jobs, backing off", illegalStateException);
+        assertThat(dispatchCount.get(), is(2));
+    }
+}
@@ -0,0 +1,214 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static java.lang.Integer.MAX_VALUE;
+import static java.time.ZonedDateTime.now;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.task.extension.TaskRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JobExecutionTrackerTest {
+
+    private static final String TASK_NAME = "sample-task";
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private TaskRegistry taskRegistry;
+
+    @Mock
+    private TimedJobQueue timedJobQueue;
+
+    @InjectMocks
+    private JobExecutionTracker jobExecutionTracker;
+
+    @Test
+    public void shouldCountTrackedJobsAsQueuedUntilTheyStartRunning() {
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(jobExecutionTracker.getQueuedJobCount(), is(2));
+        assertThat(jobExecutionTracker.getRunningJobCount(), is(0));
+        assertThat(jobExecutionTracker.getInFlightJobCount(), is(2));
+    }
+
+    @Test
+    public void shouldCountJobAsRunningWhileItRunsAndRemoveItWhenFinished() {
+
+        final int[] countsWhileRunning = new int[3];
+        final Runnable trackedJob = jobExecutionTracker.track(jobFor(TASK_NAME), () -> {
+            countsWhileRunning[0] = jobExecutionTracker.getQueuedJobCount();
+            countsWhileRunning[1] = jobExecutionTracker.getRunningJobCount();
+            countsWhileRunning[2] = jobExecutionTracker.getInFlightJobCount();
+        });
+
+        trackedJob.run();
+
+        assertThat(countsWhileRunning, is(new int[]{0, 1, 1}));
+        assertThat(jobExecutionTracker.getInFlightJobCount(), is(0));
+    }
+
+    @Test
+    public void shouldRemoveJobFromCountsWhenItFails() {
+
+        final Runnable trackedJob = jobExecutionTracker.track(jobFor(TASK_NAME), () -> {
+            throw new IllegalStateException("Ooops");
+        });
+
+        assertThrows(IllegalStateException.class, trackedJob::run);
+
+        assertThat(jobExecutionTracker.getInFlightJobCount(), is(0));
+    }
+
+    @Test
+    public void shouldRemoveUntrackedJobFromQueue() {
+
+        final Job job = jobFor(TASK_NAME);
+
+        jobExecutionTracker.track(job, () -> {});
+        jobExecutionTracker.untrack(job);
+
+        assertThat(jobExecutionTracker.getQueuedJobCount(), is(0));
+    }
+
+    @Test
+    public void shouldCalculateFreeSlotsFromMaximumInFlightJobCount() {
+
+        when(jobStoreConfiguration.getWorkerMaxInFlightJobCount()).thenReturn(3);
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(jobExecutionTracker.getFreeSlotCount(), is(2));
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(jobExecutionTracker.getFreeSlotCount(), is(0));
+    }
+
+    @Test
+    public void shouldCalculateFreeSlotsFromVirtualThreadMaxConcurrencyWhenVirtualThreadsAreEnabled() {
+
+        when(jobStoreConfiguration.isVirtualThreadsEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getVirtualThreadMaxConcurrency()).thenReturn(200);
+
+        for (int i = 0; i < 25; i++) {
+            jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        }
+
+        assertThat(jobExecutionTracker.getFreeSlotCount(), is(175));
+    }
+
+    @Test
+    public void shouldNotifyWhenATrackedJobFinishesAndFreesItsSlot() {
+
+        final AtomicInteger slotsFreed = new AtomicInteger();
+        jobExecutionTracker.onSlotFreed(slotsFreed::incrementAndGet);
+
+        final Runnable trackedJob = jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(slotsFreed.get(), is(0));
+
+        trackedJob.run();
+
+        assertThat(slotsFreed.get(), is(1));
+    }
+
+    @Test
+    public void shouldCountInFlightJobsPerTaskUntilTheyFinish() {
+
+        final Runnable trackedJob = jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor("other-task"), () -> {});
+
+        assertThat(jobExecutionTracker.getInFlightJobCount(TASK_NAME), is(2));
+
+        trackedJob.run();
+
+        assertThat(jobExecutionTracker.getInFlightJobCount(TASK_NAME), is(1));
+        assertThat(jobExecutionTracker.getInFlightJobCount("other-task"), is(1));
+        assertThat(jobExecutionTracker.getInFlightJobCount("unknown-task"), is(0));
+    }
+
+    @Test
+    public void shouldCalculateFreeTaskSlotsFromTaskMaxConcurrency() {
+
+        when(taskRegistry.getMaxConcurrency(TASK_NAME)).thenReturn(Optional.of(3));
+        when(taskRegistry.getMaxConcurrency("unlimited-task")).thenReturn(Optional.empty());
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME), is(2));
+        assertThat(jobExecutionTracker.getFreeTaskSlotCount("unlimited-task"), is(MAX_VALUE));
+    }
+
+    @Test
+    public void shouldFindTasksAtTheirConcurrencyLimit() {
+
+        when(taskRegistry.getMaxConcurrencyByTaskName()).thenReturn(Map.of(TASK_NAME, 1, "other-task", 2, "idle-task", 1));
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+        jobExecutionTracker.track(jobFor("other-task"), () -> {});
+
+        assertThat(jobExecutionTracker.getSaturatedTaskNames(), is(List.of(TASK_NAME)));
+    }
+
+    @Test
+    public void shouldCountJobsHeldUntilTheirStartTimeAgainstTheirTaskConcurrencyLimit() {
+
+        when(taskRegistry.getMaxConcurrency(TASK_NAME)).thenReturn(Optional.of(3));
+        when(taskRegistry.getMaxConcurrencyByTaskName()).thenReturn(Map.of(TASK_NAME, 3));
+        when(timedJobQueue.getHeldJobCount(TASK_NAME)).thenReturn(2);
+
+        jobExecutionTracker.track(jobFor(TASK_NAME), () -> {});
+
+        assertThat(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME), is(0));
+        assertThat(jobExecutionTracker.getSaturatedTaskNames(), is(List.of(TASK_NAME)));
+    }
+
+    @Test
+    public void shouldKeepLeasesOfJobsInFlightUntilTheyFinishOrAreUntracked() {
+
+        final Job runningJob = jobFor(TASK_NAME);
+        final Job queuedJob = jobFor(TASK_NAME);
+        final Job rejectedJob = jobFor(TASK_NAME);
+
+        final Runnable trackedJob = jobExecutionTracker.track(runningJob, () -> {
+            assertThat(jobExecutionTracker.getInFlightJobLeases().containsKey(runningJob.getJobId()), is(true));
+        });
+        jobExecutionTracker.track(queuedJob, () -> {});
+        jobExecutionTracker.track(rejectedJob, () -> {});
+
+        jobExecutionTracker.untrack(rejectedJob);
+        trackedJob.run();
+
+        assertThat(jobExecutionTracker.getInFlightJobLeases(), is(Map.of(queuedJob.getJobId(), queuedJob.getWorkerId().get())));
+    }
+
+    private Job jobFor(final String taskName) {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), taskName, now(), of(randomUUID()), of(now()), 0, HIGH);
+    }
+}
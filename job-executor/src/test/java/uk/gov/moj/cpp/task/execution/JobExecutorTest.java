@@ -4,6 +4,8 @@ import static java.time.ZonedDateTime.now;
 import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -20,17 +22,20 @@ import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataPatch;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.SampleTask;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import javax.json.JsonObject;
 import javax.transaction.NotSupportedException;
+import javax.transaction.RollbackException;
 import javax.transaction.SystemException;
 import javax.transaction.UserTransaction;
 
@@ -79,10 +84,8 @@ public class JobExecutorTest {
         createJobExecutor(job).run();
 
         verify(sampleTask).execute(any(ExecutionInfo.class));
-        verify(jobService).updateNextTaskRetryDetails(jobId, nextTaskStartTime.plusSeconds(4), retryAttemptsRemaining-1);
-        verify(jobService).releaseJob(jobId);
-        verify(jobService, never()).updateNextTaskDetails(any(), any(), any(), any());
-        verify(jobService, never()).updateJobTaskData(any(), any());
+        verify(jobService).updateNextTaskRetryDetailsAndReleaseJob(jobId, nextTaskStartTime.plusSeconds(4), retryAttemptsRemaining-1);
+        verify(jobService, never()).updateNextTaskPatchingJobDataAndReleaseJob(any(), any(), any(), any(), any());
         verify(jobService, never()).deleteJob(any());
         verify(taskRegistry, never()).findRetryAttemptsRemainingFor(any());
     }
@@ -105,10 +108,8 @@ public class JobExecutorTest {
         createJobExecutor(job).run();
 
         verify(sampleTask).execute(any(ExecutionInfo.class));
-        verify(jobService).updateJobTaskData(jobId, jobData);
-        verify(jobService).updateNextTaskDetails(jobId, "taskName", nextTaskStartTime, retryAttemptsRemaining);
-        verify(jobService).releaseJob(jobId);
-        verify(jobService, never()).updateNextTaskRetryDetails(any(), any(), any());
+        verify(jobService).updateNextTaskPatchingJobDataAndReleaseJob(jobId, new JobDataPatch(jobData, jobData, List.of()), "taskName", nextTaskStartTime, retryAttemptsRemaining);
+        verify(jobService, never()).updateNextTaskRetryDetailsAndReleaseJob(any(), any(), any());
         verify(jobService, never()).deleteJob(any());
     }
 
@@ -129,10 +130,8 @@ public class JobExecutorTest {
         createJobExecutor(job).run();
 
         verify(sampleTask).execute(any(ExecutionInfo.class));
-        verify(jobService).updateJobTaskData(jobId, jobData);
-        verify(jobService).updateNextTaskDetails(jobId, "taskName", nextTaskStartTime, retryAttemptsRemaining);
-        verify(jobService).releaseJob(jobId);
-        verify(jobService, never()).updateNextTaskRetryDetails(any(), any(), any());
+        verify(jobService).updateNextTaskPatchingJobDataAndReleaseJob(jobId, new JobDataPatch(jobData, jobData, List.of()), "taskName", nextTaskStartTime, retryAttemptsRemaining);
+        verify(jobService, never()).updateNextTaskRetryDetailsAndReleaseJob(any(), any(), any());
         verify(jobService, never()).deleteJob(any());
     }
 
@@ -153,13 +152,42 @@ public class JobExecutorTest {
         createJobExecutor(job).run();
 
         verify(sampleTask).execute(any(ExecutionInfo.class));
-        verify(jobService).updateJobTaskData(jobId, jobData);
-        verify(jobService).updateNextTaskDetails(jobId, "taskName", nextTaskStartTime, retryAttemptsRemaining);
-        verify(jobService).releaseJob(jobId);
-        verify(jobService, never()).updateNextTaskRetryDetails(any(), any(), any());
+        verify(jobService).updateNextTaskPatchingJobDataAndReleaseJob(jobId, new JobDataPatch(jobData, jobData, List.of()), "taskName", nextTaskStartTime, retryAttemptsRemaining);
+        verify(jobService, never()).updateNextTaskRetryDetailsAndReleaseJob(any(), any(), any());
         verify(jobService, never()).deleteJob(any());
     }
 
+    @Test
+    public void shouldStoreOnlyTheJobDataFieldsTheTaskChanged() {
+        final UUID jobId = randomUUID();
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder()
+                .add("unchanged", "large value")
+                .add("changed", 1)
+                .add("removed", true)
+                .build();
+        final JsonObject updatedJobData = jsonBuilderFactory.createObjectBuilder()
+                .add("unchanged", "large value")
+                .add("changed", 2)
+                .add("added", "new")
+                .build();
+        final ZonedDateTime nextTaskStartTime = now();
+        final Job job = job(jobId, jobData, nextTaskStartTime, 0);
+        final ExecutionInfo responseExecutionInfo = executionInfo().fromJob(job).withJobData(updatedJobData).withExecutionStatus(INPROGRESS).build();
+
+        when(taskRegistry.getTask(eq("taskName"))).thenReturn(Optional.of(sampleTask));
+        when(taskRegistry.findRetryAttemptsRemainingFor(eq("taskName"))).thenReturn(0);
+        when(sampleTask.execute(any(ExecutionInfo.class))).thenReturn(responseExecutionInfo);
+        when(clock.now()).thenReturn(nextTaskStartTime);
+
+        createJobExecutor(job).run();
+
+        final JobDataPatch jobDataPatch = new JobDataPatch(
+                updatedJobData,
+                jsonBuilderFactory.createObjectBuilder().add("changed", 2).add("added", "new").build(),
+                List.of("removed"));
+        verify(jobService).updateNextTaskPatchingJobDataAndReleaseJob(jobId, jobDataPatch, "taskName", nextTaskStartTime, 0);
+    }
+
     @Test
     public void shouldDeleteJobViaJobServiceWhenExecutionStatusIsCompleted() {
         final UUID jobId = randomUUID();
@@ -175,14 +203,52 @@ public class JobExecutorTest {
         createJobExecutor(job).run();
 
         verify(sampleTask).execute(any(ExecutionInfo.class));
-        verify(jobService, never()).updateJobTaskData(any(), any());
-        verify(jobService, never()).updateNextTaskDetails(any(), any(), any(), any());
+        verify(jobService, never()).updateNextTaskPatchingJobDataAndReleaseJob(any(), any(), any(), any(), any());
         verify(jobService, never()).releaseJob(any());
-        verify(jobService, never()).updateNextTaskRetryDetails(any(), any(), any());
+        verify(jobService, never()).updateNextTaskRetryDetailsAndReleaseJob(any(), any(), any());
         verify(jobService).deleteJob(jobId);
         verify(taskRegistry, never()).findRetryAttemptsRemainingFor(any());
     }
 
+    @Test
+    public void shouldLeaveACompletedJobLockedAndBufferItForDeletionOnceCommittedWhenBatchedCompletionIsEnabled() throws Exception {
+        final UUID jobId = randomUUID();
+        final UUID workerId = randomUUID();
+        final ZonedDateTime nextTaskStartTime = now();
+        final Job job = new Job(jobId, jsonBuilderFactory.createObjectBuilder().build(), "taskName", nextTaskStartTime, Optional.of(workerId), Optional.of(nextTaskStartTime), 0, HIGH);
+        final ExecutionInfo responseExecutionInfo = executionInfo().fromJob(job).withExecutionStatus(COMPLETED).build();
+        final CompletedJobBuffer completedJobBuffer = new CompletedJobBuffer();
+
+        when(taskRegistry.getTask(eq("taskName"))).thenReturn(ofNullable(sampleTask));
+        when(sampleTask.execute(any(ExecutionInfo.class))).thenReturn(responseExecutionInfo);
+        when(clock.now()).thenReturn(nextTaskStartTime);
+
+        new JobExecutor(job, taskRegistry, jobService, userTransaction, clock, logger, Optional.of(completedJobBuffer)).run();
+
+        verify(userTransaction).commit();
+        verify(jobService, never()).deleteJob(any());
+        verify(jobService, never()).releaseJob(any());
+        assertThat(completedJobBuffer.getLeases(), is(Map.of(jobId, workerId)));
+    }
+
+    @Test
+    public void shouldNotBufferACompletedJobWhoseTransactionFailedToCommit() throws Exception {
+        final ZonedDateTime nextTaskStartTime = now();
+        final Job job = new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "taskName", nextTaskStartTime, Optional.of(randomUUID()), Optional.of(nextTaskStartTime), 0, HIGH);
+        final ExecutionInfo responseExecutionInfo = executionInfo().fromJob(job).withExecutionStatus(COMPLETED).build();
+        final CompletedJobBuffer completedJobBuffer = new CompletedJobBuffer();
+
+        when(taskRegistry.getTask(eq("taskName"))).thenReturn(ofNullable(sampleTask));
+        when(sampleTask.execute(any(ExecutionInfo.class))).thenReturn(responseExecutionInfo);
+        when(clock.now()).thenReturn(nextTaskStartTime);
+        doThrow(new RollbackException()).when(userTransaction).commit();
+
+        new JobExecutor(job, taskRegistry, jobService, userTransaction, clock, logger, Optional.of(completedJobBuffer)).run();
+
+        verify(userTransaction).rollback();
+        assertThat(completedJobBuffer.size(), is(0));
+    }
+
     @Test
     public void shouldExecuteTaskWhenProvidedFromRegistryAndNextStartTimeIsEqualsNow() {
         final UUID jobId = randomUUID();
@@ -218,6 +284,27 @@ public class JobExecutorTest {
         verify(sampleTask).execute(any(ExecutionInfo.class));
     }
 
+    @Test
+    public void shouldNotLoadTheJobDataOfAJobThatIsNotRun() {
+        final ZonedDateTime nextTaskStartTime = now();
+        final Job unregisteredTaskJob = new Job(randomUUID(), () -> {
+            throw new AssertionError("job data loaded");
+        }, "unregisteredTask", nextTaskStartTime, empty(), empty(), 0, HIGH, HIGH.getValue());
+        final Job notYetDueJob = new Job(randomUUID(), () -> {
+            throw new AssertionError("job data loaded");
+        }, "taskName", nextTaskStartTime, empty(), empty(), 0, HIGH, HIGH.getValue());
+
+        when(taskRegistry.getTask(eq("unregisteredTask"))).thenReturn(empty());
+        when(taskRegistry.getTask(eq("taskName"))).thenReturn(ofNullable(sampleTask));
+        when(clock.now()).thenReturn(nextTaskStartTime.minusSeconds(10L));
+
+        createJobExecutor(unregisteredTaskJob).run();
+        createJobExecutor(notYetDueJob).run();
+
+        verify(sampleTask, never()).execute(any(ExecutionInfo.class));
+        verify(jobService).releaseJob(unregisteredTaskJob.getJobId());
+    }
+
     @Test
     public void shouldNotExecuteTaskWhenNotProvidedFromRegistry() {
         final UUID jobId = randomUUID();
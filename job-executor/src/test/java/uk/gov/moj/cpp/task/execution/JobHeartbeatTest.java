@@ -0,0 +1,200 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.service.JobService;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class JobHeartbeatTest {
+
+    private static final UUID NODE_ID = randomUUID();
+    private static final String NODE_NAME = "node-1";
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private TimerService timerService;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobExecutionTracker jobExecutionTracker;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private ReadyJobQueue readyJobQueue;
+
+    @Mock
+    private TimedJobQueue timedJobQueue;
+
+    @Mock
+    private CompletedJobBuffer completedJobBuffer;
+
+    @Mock
+    private WorkerNode workerNode;
+
+    @Mock
+    private UtcClock clock;
+
+    @Mock
+    private UserTransaction userTransaction;
+
+    @Captor
+    private ArgumentCaptor<TimerConfig> timerConfigArgumentCaptor;
+
+    @InjectMocks
+    private JobHeartbeat jobHeartbeat;
+
+    @Test
+    public void shouldRegisterWorkerNodeAndReplaceExistingTimerWithIntervalTimerOnPostConstruct() throws Exception {
+
+        final Timer existingTimer = mock(Timer.class);
+
+        when(jobStoreConfiguration.getModuleName()).thenReturn("TEST_TIMER");
+        when(jobStoreConfiguration.getJobLeaseRenewalMilliseconds()).thenReturn(10000L);
+        when(existingTimer.getInfo()).thenReturn("TEST_TIMER.job-manager.job.heartbeat.timer");
+        when(timerService.getAllTimers()).thenReturn(List.of(existingTimer));
+        when(workerNode.getNodeId()).thenReturn(NODE_ID);
+        when(workerNode.getNodeName()).thenReturn(NODE_NAME);
+
+        jobHeartbeat.init();
+
+        final InOrder inOrder = inOrder(userTransaction, jobService);
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).heartbeatWorkerNode(NODE_ID, NODE_NAME);
+        inOrder.verify(userTransaction).commit();
+        verify(existingTimer).cancel();
+        verify(timerService).createIntervalTimer(eq(10000L), eq(10000L), timerConfigArgumentCaptor.capture());
+        assertFalse(timerConfigArgumentCaptor.getValue().isPersistent());
+        assertThat(timerConfigArgumentCaptor.getValue().getInfo(), is("TEST_TIMER.job-manager.job.heartbeat.timer"));
+    }
+
+    @Test
+    public void shouldHeartbeatWorkerNodeRenewLeasesOfJobsInFlightAndReleaseJobsOfDeadWorkerNodes() throws Exception {
+
+        final Map<UUID, UUID> inFlightJobLeases = Map.of(randomUUID(), NODE_ID, randomUUID(), NODE_ID);
+        final ZonedDateTime now = new UtcClock().now();
+
+        when(workerNode.getNodeId()).thenReturn(NODE_ID);
+        when(workerNode.getNodeName()).thenReturn(NODE_NAME);
+        when(jobExecutionTracker.getInFlightJobLeases()).thenReturn(inFlightJobLeases);
+        when(jobService.renewJobLeases(inFlightJobLeases)).thenReturn(2);
+        when(clock.now()).thenReturn(now);
+        when(jobStoreConfiguration.getWorkerNodeExpirySeconds()).thenReturn(180L);
+        when(jobService.releaseJobsOfDeadWorkerNodes(now.minusSeconds(180))).thenReturn(3);
+
+        jobHeartbeat.heartbeat();
+
+        final InOrder inOrder = inOrder(userTransaction, jobService);
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).heartbeatWorkerNode(NODE_ID, NODE_NAME);
+        inOrder.verify(jobService).renewJobLeases(inFlightJobLeases);
+        inOrder.verify(userTransaction).commit();
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).releaseJobsOfDeadWorkerNodes(now.minusSeconds(180));
+        inOrder.verify(userTransaction).commit();
+        verify(logger).debug("Renewed leases of {} of {} job(s) in flight", 2, 2);
+        verify(logger).warn("Released {} job(s) locked to worker nodes that stopped heartbeating before {}", 3, now.minusSeconds(180));
+    }
+
+    @Test
+    public void shouldRenewLeasesOfJobsWaitingInTheReadyQueueHeldUntilTheirStartTimeOrAwaitingDeletion() {
+
+        final UUID runningJobId = randomUUID();
+        final UUID readyJobId = randomUUID();
+        final UUID timedJobId = randomUUID();
+        final UUID completedJobId = randomUUID();
+
+        when(workerNode.getNodeId()).thenReturn(NODE_ID);
+        when(workerNode.getNodeName()).thenReturn(NODE_NAME);
+        when(jobExecutionTracker.getInFlightJobLeases()).thenReturn(Map.of(runningJobId, NODE_ID));
+        when(readyJobQueue.getLeases()).thenReturn(Map.of(readyJobId, NODE_ID));
+        when(timedJobQueue.getLeases()).thenReturn(Map.of(timedJobId, NODE_ID));
+        when(completedJobBuffer.getLeases()).thenReturn(Map.of(completedJobId, NODE_ID));
+        when(clock.now()).thenReturn(new UtcClock().now());
+
+        jobHeartbeat.heartbeat();
+
+        verify(jobService).renewJobLeases(Map.of(runningJobId, NODE_ID, readyJobId, NODE_ID, timedJobId, NODE_ID, completedJobId, NODE_ID));
+    }
+
+    @Test
+    public void shouldNotRenewLeasesIfNoJobsInFlight() {
+
+        when(workerNode.getNodeId()).thenReturn(NODE_ID);
+        when(workerNode.getNodeName()).thenReturn(NODE_NAME);
+        when(jobExecutionTracker.getInFlightJobLeases()).thenReturn(Map.of());
+        when(clock.now()).thenReturn(new UtcClock().now());
+
+        jobHeartbeat.heartbeat();
+
+        verify(jobService, never()).renewJobLeases(any());
+    }
+
+    @Test
+    public void shouldCommitHeartbeatAndLeaseRenewalEvenIfReleasingJobsOfDeadWorkerNodesFails() throws Exception {
+
+        final Map<UUID, UUID> inFlightJobLeases = Map.of(randomUUID(), NODE_ID);
+        final ZonedDateTime now = new UtcClock().now();
+        final RuntimeException releaseFailure = new RuntimeException("Ooops");
+
+        when(workerNode.getNodeId()).thenReturn(NODE_ID);
+        when(workerNode.getNodeName()).thenReturn(NODE_NAME);
+        when(jobExecutionTracker.getInFlightJobLeases()).thenReturn(inFlightJobLeases);
+        when(clock.now()).thenReturn(now);
+        when(jobStoreConfiguration.getWorkerNodeExpirySeconds()).thenReturn(180L);
+        doThrow(releaseFailure).when(jobService).releaseJobsOfDeadWorkerNodes(now.minusSeconds(180));
+        when(userTransaction.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        jobHeartbeat.heartbeat();
+
+        final InOrder inOrder = inOrder(userTransaction, jobService);
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).heartbeatWorkerNode(NODE_ID, NODE_NAME);
+        inOrder.verify(jobService).renewJobLeases(inFlightJobLeases);
+        inOrder.verify(userTransaction).commit();
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).releaseJobsOfDeadWorkerNodes(now.minusSeconds(180));
+        inOrder.verify(userTransaction).rollback();
+        inOrder.verify(userTransaction, never()).commit();
+        verify(logger).error("Failed to release jobs of dead worker nodes, retrying on the next heartbeat", releaseFailure);
+    }
+}
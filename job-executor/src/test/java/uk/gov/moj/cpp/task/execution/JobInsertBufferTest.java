@@ -0,0 +1,167 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.empty;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.task.execution.JobInsertBuffer.PendingJobInsert;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JobInsertBufferTest {
+
+    private static final long FLUSH_MILLISECONDS = 5L;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @InjectMocks
+    private JobInsertBuffer jobInsertBuffer;
+
+    @BeforeEach
+    public void createBuffer() {
+        when(jobStoreConfiguration.getAsyncEnqueueBufferCapacity()).thenReturn(3);
+        jobInsertBuffer.init();
+    }
+
+    @Test
+    public void shouldTakeBatchesOfUpToTheBatchSizeInTheOrderTheJobsWereAdded() throws Exception {
+        final Job job1 = job();
+        final Job job2 = job();
+        final Job job3 = job();
+        jobInsertBuffer.add(job1);
+        jobInsertBuffer.add(job2);
+        jobInsertBuffer.add(job3);
+
+        assertThat(jobsOf(jobInsertBuffer.takeBatch(2, FLUSH_MILLISECONDS)), is(List.of(job1, job2)));
+        assertThat(jobsOf(jobInsertBuffer.takeBatch(2, FLUSH_MILLISECONDS)), is(List.of(job3)));
+        assertThat(jobsOf(jobInsertBuffer.takeBatch(2, FLUSH_MILLISECONDS)), is(List.of()));
+    }
+
+    @Test
+    public void shouldCompleteTheStageOfEachJobWithItsIdOnceInserted() throws Exception {
+        final Job job = job();
+        final CompletableFuture<UUID> insertCompletion = jobInsertBuffer.add(job).toCompletableFuture();
+
+        final List<PendingJobInsert> batch = jobInsertBuffer.takeBatch(10, FLUSH_MILLISECONDS);
+        assertThat(insertCompletion.isDone(), is(false));
+
+        batch.forEach(PendingJobInsert::inserted);
+        assertThat(insertCompletion.get(), is(job.getJobId()));
+    }
+
+    @Test
+    public void shouldFailTheStageOfEachJobIfTheInsertFailed() throws Exception {
+        final IllegalStateException exception = new IllegalStateException("Ooops");
+        final CompletableFuture<UUID> insertCompletion = jobInsertBuffer.add(job()).toCompletableFuture();
+
+        jobInsertBuffer.takeBatch(10, FLUSH_MILLISECONDS).forEach(pendingJobInsert -> pendingJobInsert.failed(exception));
+
+        assertThat(insertCompletion.isCompletedExceptionally(), is(true));
+        assertThat(insertCompletion.handle((jobId, cause) -> cause).get(), is(exception));
+    }
+
+    @Test
+    public void shouldMakeProducersWaitForRoomWhenTheBufferIsFull() throws Exception {
+        jobInsertBuffer.add(job());
+        jobInsertBuffer.add(job());
+        jobInsertBuffer.add(job());
+
+        final Job waitingJob = job();
+        final CompletableFuture<Void> added = CompletableFuture.runAsync(() -> jobInsertBuffer.add(waitingJob));
+
+        Thread.sleep(50);
+        assertThat(added.isDone(), is(false));
+        assertThat(jobInsertBuffer.size(), is(3));
+
+        jobInsertBuffer.takeBatch(1, FLUSH_MILLISECONDS);
+        added.get(5, SECONDS);
+
+        assertThat(jobInsertBuffer.size(), is(3));
+        assertThat(jobsOf(jobInsertBuffer.drain()).get(2), is(waitingJob));
+        assertThat(jobInsertBuffer.size(), is(0));
+    }
+
+    @Test
+    public void shouldFailAddingJobsOnceClosedAndKeepTheJobsAlreadyAddedForTheFinalDrain() throws Exception {
+        final Job addedJob = job();
+        jobInsertBuffer.add(addedJob);
+
+        jobInsertBuffer.close();
+        final CompletableFuture<UUID> insertCompletion = jobInsertBuffer.add(job()).toCompletableFuture();
+
+        assertThat(insertCompletion.isCompletedExceptionally(), is(true));
+        assertThat(insertCompletion.handle((jobId, cause) -> cause).get(), instanceOf(IllegalStateException.class));
+        assertThat(jobsOf(jobInsertBuffer.drain()), is(List.of(addedJob)));
+    }
+
+    @Test
+    public void shouldFailProducersWaitingForRoomWhenTheBufferIsClosed() throws Exception {
+        jobInsertBuffer.add(job());
+        jobInsertBuffer.add(job());
+        jobInsertBuffer.add(job());
+
+        final CompletableFuture<CompletableFuture<UUID>> added = CompletableFuture.supplyAsync(() -> jobInsertBuffer.add(job()).toCompletableFuture());
+
+        Thread.sleep(50);
+        assertThat(added.isDone(), is(false));
+
+        jobInsertBuffer.close();
+
+        assertThat(added.get(5, SECONDS).isCompletedExceptionally(), is(true));
+        assertThat(jobInsertBuffer.size(), is(3));
+    }
+
+    @Test
+    public void shouldReturnTheJobsGatheredSoFarIfInterruptedWhileGatheringABatch() throws Exception {
+        final Job job = job();
+        jobInsertBuffer.add(job);
+
+        final Thread takingThread = Thread.currentThread();
+        final CompletableFuture<Void> interrupt = CompletableFuture.runAsync(() -> {
+            sleep(100);
+            takingThread.interrupt();
+        });
+
+        final List<PendingJobInsert> batch = jobInsertBuffer.takeBatch(10, 5_000L);
+        interrupt.get(5, SECONDS);
+
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(jobsOf(batch), is(List.of(job)));
+    }
+
+    private void sleep(final long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Job> jobsOf(final List<PendingJobInsert> batch) {
+        return batch.stream().map(PendingJobInsert::getJob).toList();
+    }
+
+    private Job job() {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), empty(), empty(), 0, HIGH);
+    }
+}
@@ -0,0 +1,94 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.empty;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class JobInsertFlusherTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final long FLUSH_MILLISECONDS = 1L;
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @InjectMocks
+    private JobInsertBuffer jobInsertBuffer;
+
+    @BeforeEach
+    public void createBuffer() {
+        when(jobStoreConfiguration.getAsyncEnqueueBufferCapacity()).thenReturn(10);
+        jobInsertBuffer.init();
+    }
+
+    @Test
+    public void shouldInsertTheBufferedJobsInBatchesUntilStopped() throws Exception {
+        final List<List<Job>> insertedBatches = new ArrayList<>();
+        final List<CompletableFuture<UUID>> insertCompletions = new ArrayList<>();
+        final List<Job> jobs = List.of(job(), job(), job());
+        jobs.forEach(job -> insertCompletions.add(jobInsertBuffer.add(job).toCompletableFuture()));
+
+        final JobInsertFlusher[] jobInsertFlusher = new JobInsertFlusher[1];
+        jobInsertFlusher[0] = new JobInsertFlusher(jobInsertBuffer, batch -> {
+            insertedBatches.add(batch);
+            if (jobInsertBuffer.size() == 0) {
+                jobInsertFlusher[0].stop();
+            }
+        }, BATCH_SIZE, FLUSH_MILLISECONDS, logger);
+
+        jobInsertFlusher[0].run();
+
+        assertThat(insertedBatches, is(List.of(jobs.subList(0, 2), jobs.subList(2, 3))));
+        for (int i = 0; i < jobs.size(); i++) {
+            assertThat(insertCompletions.get(i).get(), is(jobs.get(i).getJobId()));
+        }
+        assertThat(jobInsertFlusher[0].isRunning(), is(false));
+        verify(logger).info("Jobstore job insert flusher stopped");
+    }
+
+    @Test
+    public void shouldFailTheStagesOfABatchThatCouldNotBeInserted() throws Exception {
+        final IllegalStateException exception = new IllegalStateException("Ooops");
+        final CompletableFuture<UUID> insertCompletion = jobInsertBuffer.add(job()).toCompletableFuture();
+
+        final JobInsertFlusher jobInsertFlusher = new JobInsertFlusher(jobInsertBuffer, batch -> {
+            throw exception;
+        }, BATCH_SIZE, FLUSH_MILLISECONDS, logger);
+
+        jobInsertFlusher.flush(jobInsertBuffer.drain());
+
+        assertThat(insertCompletion.isCompletedExceptionally(), is(true));
+        assertThat(insertCompletion.handle((jobId, cause) -> cause).get(), is(exception));
+        verify(logger).warn("Jobstore job insert flusher failed to insert {} job(s)", 1, exception);
+    }
+
+    private Job job() {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "startTask", ZonedDateTime.now(), empty(), empty(), 0, HIGH);
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Collections.emptySet;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.JdbcRepositoryException;
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscriber;
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscription;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class JobNotificationListenerTest {
+
+    private static final int POLL_MILLISECONDS = 1;
+
+    @Mock
+    private JobNotificationSubscriber jobNotificationSubscriber;
+
+    @Mock
+    private JobNotificationSubscription jobNotificationSubscription;
+
+    @Mock
+    private Runnable onJobsInserted;
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    public void shouldWakeSchedulerWhenJobsInsertedNotificationReceived() {
+
+        final JobNotificationListener jobNotificationListener = new JobNotificationListener(jobNotificationSubscriber, onJobsInserted, POLL_MILLISECONDS, logger);
+
+        when(jobNotificationSubscriber.subscribe()).thenReturn(jobNotificationSubscription);
+        when(jobNotificationSubscription.awaitNotifications(POLL_MILLISECONDS))
+                .thenReturn(Set.of(HIGH))
+                .thenAnswer(invocation -> {
+                    jobNotificationListener.stop();
+                    return emptySet();
+                });
+
+        jobNotificationListener.run();
+
+        verify(onJobsInserted).run();
+        verify(jobNotificationSubscription).close();
+    }
+
+    @Test
+    public void shouldResubscribeIfSubscriptionFails() {
+
+        final JdbcRepositoryException jdbcRepositoryException = new JdbcRepositoryException("Ooops");
+        final JobNotificationListener jobNotificationListener = new JobNotificationListener(jobNotificationSubscriber, onJobsInserted, POLL_MILLISECONDS, logger);
+
+        when(jobNotificationSubscriber.subscribe())
+                .thenThrow(jdbcRepositoryException)
+                .thenReturn(jobNotificationSubscription);
+        when(jobNotificationSubscription.awaitNotifications(POLL_MILLISECONDS)).thenAnswer(invocation -> {
+            jobNotificationListener.stop();
+            return Set.of(HIGH);
+        });
+
+        jobNotificationListener.run();
+
+        verify(logger).warn("Jobstore notification listener failed, resubscribing in {} milliseconds", POLL_MILLISECONDS, jdbcRepositoryException);
+        verify(onJobsInserted).run();
+    }
+}
@@ -1,13 +1,21 @@
 package uk.gov.moj.cpp.task.execution;
 
+import static java.lang.Integer.MAX_VALUE;
 import static java.util.stream.Stream.empty;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.AdditionalAnswers.returnsLastArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -23,12 +31,17 @@ import uk.gov.moj.cpp.jobstore.service.JobService;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import javax.ejb.SessionContext;
 import javax.ejb.TimerConfig;
 import javax.ejb.TimerService;
 import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
 import javax.transaction.UserTransaction;
@@ -46,6 +59,8 @@ import org.slf4j.Logger;
 @ExtendWith(MockitoExtension.class)
 public class JobSchedulerTest {
 
+    private static final String TASK_NAME = "sample-task";
+
     @Mock
     private ManagedExecutorService executorService;
 
@@ -76,9 +91,36 @@ public class JobSchedulerTest {
     @Mock
     private UtcClock clock;
 
+    @Mock
+    private ManagedThreadFactory managedThreadFactory;
+
+    @Mock
+    private SessionContext sessionContext;
+
+    @Mock
+    private JobExecutionTracker jobExecutionTracker;
+
+    @Mock
+    private VirtualThreadJobExecutor virtualThreadJobExecutor;
+
+    @Mock
+    private WorkerNode workerNode;
+
+    @Mock
+    private ReadyJobQueue readyJobQueue;
+
+    @Mock
+    private TimedJobQueue timedJobQueue;
+
     @Captor
     private ArgumentCaptor<TimerConfig> timerConfigArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<Runnable> onSlotFreedArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<TimedJobTicker> timedJobTickerArgumentCaptor;
+
     @InjectMocks
     private JobScheduler jobExecutor;
 
@@ -88,31 +130,54 @@ public class JobSchedulerTest {
         final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
         when(logger.isDebugEnabled()).thenReturn(true);
         when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
-        when(jobService.getUnassignedJobsFor(any(UUID.class), eq(priorities))).thenReturn(Stream.of(job));
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of(job));
         when(job.getPriority()).thenReturn(MEDIUM);
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
 
         jobExecutor.fetchUnassignedJobs();
 
         final InOrder inOrder = inOrder(executorService, logger);
 
-        inOrder.verify(logger).debug("Fetching new jobs from jobstore in priority order [HIGH, MEDIUM, LOW]");
+        inOrder.verify(logger).debug("Fetching up to 10 new jobs from jobstore in priority order [HIGH, MEDIUM, LOW]");
         inOrder.verify(logger).debug("Found 1 MEDIUM priority job(s) to run from jobstore");
         inOrder.verify(executorService).submit(any(JobExecutor.class));
     }
 
+    @Test
+    public void shouldClaimJobsForThisWorkerNode() {
+
+        final UUID nodeId = UUID.randomUUID();
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(workerNode.getNodeId()).thenReturn(nodeId);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(nodeId, priorities, 10, List.of())).thenReturn(empty());
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobService).getUnassignedJobsFor(nodeId, priorities, 10, List.of());
+    }
+
     @Test
     public void shouldLogIfNoNewJobsFound() throws Exception {
 
         final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
         when(logger.isDebugEnabled()).thenReturn(true);
         when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
-        when(jobService.getUnassignedJobsFor(any(UUID.class), eq(priorities))).thenReturn(empty());
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(empty());
 
         jobExecutor.fetchUnassignedJobs();
 
         final InOrder inOrder = inOrder(logger);
 
-        inOrder.verify(logger).debug("Fetching new jobs from jobstore in priority order [HIGH, MEDIUM, LOW]");
+        inOrder.verify(logger).debug("Fetching up to 10 new jobs from jobstore in priority order [HIGH, MEDIUM, LOW]");
         inOrder.verify(logger).debug("No new jobs found in jobstore");
 
         verifyNoInteractions(executorService);
@@ -123,7 +188,9 @@ public class JobSchedulerTest {
 
         final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
         when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
-        when(jobService.getUnassignedJobsFor(any(UUID.class), eq(priorities))).thenReturn(Stream.of());
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of());
 
         jobExecutor.fetchUnassignedJobs();
 
@@ -149,10 +216,428 @@ public class JobSchedulerTest {
         assertThat(timerConfigArgumentCaptor.getValue().getInfo(), is("TEST_TIMER.job-manager.job.timer"));
     }
 
+    @Test
+    public void shouldStartJobNotificationListenerOnPostConstructWhenNotificationsEnabled() {
+
+        final Thread listenerThread = mock(Thread.class);
+
+        when(jobStoreConfiguration.isNotificationEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getNotificationPollMilliseconds()).thenReturn(500);
+        when(sessionContext.getBusinessObject(JobScheduler.class)).thenReturn(jobExecutor);
+        when(managedThreadFactory.newThread(any(JobNotificationListener.class))).thenReturn(listenerThread);
+
+        jobExecutor.init();
+
+        verify(listenerThread).start();
+    }
+
+    @Test
+    public void shouldNotStartJobNotificationListenerOnPostConstructWhenNotificationsDisabled() {
+
+        jobExecutor.init();
+
+        verifyNoInteractions(managedThreadFactory);
+    }
+
+    @Test
+    public void shouldStartDispatcherInsteadOfIntervalTimerOnPostConstructWhenDispatcherEnabled() {
+
+        final Thread dispatcherThread = mock(Thread.class);
+
+        when(jobStoreConfiguration.isDispatcherEnabled()).thenReturn(true);
+        when(sessionContext.getBusinessObject(JobScheduler.class)).thenReturn(jobExecutor);
+        when(managedThreadFactory.newThread(any(JobDispatcher.class))).thenReturn(dispatcherThread);
+
+        jobExecutor.init();
+
+        verify(dispatcherThread).start();
+        verify(jobExecutionTracker).onSlotFreed(any(Runnable.class));
+        verify(timerService, never()).createIntervalTimer(anyLong(), anyLong(), any(TimerConfig.class));
+    }
+
+    @Test
+    public void shouldReportFullBatchWhenDispatchClaimsAllRequestedJobs() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(2);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(2), eq(List.of()))).thenReturn(Stream.of(job, job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        assertThat(jobExecutor.dispatchUnassignedJobs(), is(true));
+    }
+
+    @Test
+    public void shouldNotReportFullBatchWhenDispatchClaimsFewerJobsThanRequested() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of(job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        assertThat(jobExecutor.dispatchUnassignedJobs(), is(false));
+    }
+
+    @Test
+    public void shouldCoalesceWakeUpsIntoSingleImmediateTimerUntilJobsFetched() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreConfiguration.getModuleName()).thenReturn("TEST_TIMER");
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(empty());
+
+        jobExecutor.wakeUp();
+        jobExecutor.wakeUp();
+
+        verify(timerService, times(1)).createSingleActionTimer(eq(0L), timerConfigArgumentCaptor.capture());
+        assertFalse(timerConfigArgumentCaptor.getValue().isPersistent());
+        assertThat(timerConfigArgumentCaptor.getValue().getInfo(), is("TEST_TIMER.job-manager.job.timer.wakeup"));
+
+        jobExecutor.fetchUnassignedJobs();
+        jobExecutor.wakeUp();
+
+        verify(timerService, times(2)).createSingleActionTimer(eq(0L), any(TimerConfig.class));
+    }
+
+    @Test
+    public void shouldClaimNoMoreJobsThanThereAreFreeSlots() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(3);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(3), eq(List.of()))).thenReturn(Stream.of(job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobService).getUnassignedJobsFor(any(), eq(priorities), eq(3), eq(List.of()));
+        verify(executorService).submit(any(JobExecutor.class));
+    }
+
+    @Test
+    public void shouldClaimJobsFairlyAcrossTasksNotAtTheirConcurrencyLimitWhenEnabled() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobStoreConfiguration.isFairTaskClaimingEnabled()).thenReturn(true);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(3);
+        when(jobExecutionTracker.getSaturatedTaskNames()).thenReturn(List.of("saturated-task"));
+        when(taskRegistry.getWeightByTaskName()).thenReturn(Map.of(TASK_NAME, 2, "saturated-task", 1));
+        when(jobService.getUnassignedJobsFairlyFor(any(), eq(priorities), eq(3), eq(Map.of(TASK_NAME, 2)))).thenReturn(Stream.of(job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobService, never()).getUnassignedJobsFor(any(), any(), anyInt(), any());
+        verify(executorService).submit(any(JobExecutor.class));
+    }
+
+    @Test
+    public void shouldNotClaimJobsWhenThereAreNoFreeSlots() throws Exception {
+
+        when(logger.isDebugEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(0);
+        when(jobExecutionTracker.getInFlightJobCount()).thenReturn(20);
+        when(jobExecutionTracker.getQueuedJobCount()).thenReturn(4);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(logger).debug("No free slots to run new jobs, 20 job(s) in flight of which 4 queued");
+        verify(jobService, never()).getUnassignedJobsFor(any(), any(), anyInt(), any());
+        verifyNoInteractions(userTransaction, executorService);
+    }
+
+    @Test
+    public void shouldReleaseClaimedJobsOverTheirTaskConcurrencyLimitAndNotClaimSaturatedTasks() throws Exception {
+
+        final Job jobOverLimit = mock(Job.class);
+        final UUID jobOverLimitId = UUID.randomUUID();
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobExecutionTracker.getSaturatedTaskNames()).thenReturn(List.of("saturated-task"));
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of("saturated-task")))).thenReturn(Stream.of(job, jobOverLimit));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobOverLimit.getNextTask()).thenReturn(TASK_NAME);
+        when(jobOverLimit.getJobId()).thenReturn(jobOverLimitId);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(1);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        final InOrder inOrder = inOrder(jobService, userTransaction, executorService);
+        inOrder.verify(jobService).releaseJob(jobOverLimitId);
+        inOrder.verify(userTransaction).commit();
+        inOrder.verify(executorService, times(1)).submit(any(JobExecutor.class));
+    }
+
+    @Test
+    public void shouldRunJobsOnVirtualThreadsWhenEnabled() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobStoreConfiguration.isVirtualThreadsEnabled()).thenReturn(true);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of(job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(virtualThreadJobExecutor).submit(any(JobExecutor.class));
+        verifyNoInteractions(executorService);
+    }
+
+    @Test
+    public void shouldStopTrackingJobRejectedByExecutor() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of(job));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+        when(executorService.submit(any(JobExecutor.class))).thenThrow(new RejectedExecutionException());
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobExecutionTracker).untrack(job);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPrefetchClaimedJobsIntoReadyQueueAndRunThemFromThereWhenEnabled() throws Exception {
+
+        final Job jobOverLimit = mock(Job.class);
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+
+        when(jobStoreConfiguration.isReadyQueueEnabled()).thenReturn(true);
+        when(readyJobQueue.getRefillCount()).thenReturn(15);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(15), eq(List.of()))).thenReturn(Stream.of(job, jobOverLimit));
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+        doAnswer(invocation -> {
+            invocation.<Consumer<Job>>getArgument(0).accept(job);
+            return null;
+        }).when(readyJobQueue).submitReadyJobs(any(Consumer.class));
+
+        assertThat(jobExecutor.dispatchUnassignedJobs(), is(false));
+
+        final InOrder inOrder = inOrder(userTransaction, readyJobQueue, executorService);
+        inOrder.verify(userTransaction).commit();
+        inOrder.verify(readyJobQueue).addAll(List.of(job, jobOverLimit));
+        inOrder.verify(readyJobQueue).submitReadyJobs(any(Consumer.class));
+        inOrder.verify(executorService).submit(any(JobExecutor.class));
+        verify(jobService, never()).releaseJob(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldOnlyRunReadyJobsWhileReadyQueueIsAboveItsLowWaterMark() {
+
+        when(logger.isDebugEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.isReadyQueueEnabled()).thenReturn(true);
+        when(readyJobQueue.getRefillCount()).thenReturn(0);
+        when(readyJobQueue.size()).thenReturn(8);
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(readyJobQueue).submitReadyJobs(any(Consumer.class));
+        verify(logger).debug("Ready queue holds 8 job(s), not prefetching more until it falls below its low water mark");
+        verify(jobService, never()).getUnassignedJobsFor(any(), any(), anyInt(), any());
+        verifyNoInteractions(userTransaction);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRunReadyJobsAndWakeUpToPrefetchMoreWhenSlotFreed() {
+
+        when(jobStoreConfiguration.isReadyQueueEnabled()).thenReturn(true);
+        when(sessionContext.getBusinessObject(JobScheduler.class)).thenReturn(jobExecutor);
+        when(readyJobQueue.getRefillCount()).thenReturn(5);
+
+        jobExecutor.init();
+
+        verify(jobExecutionTracker).onSlotFreed(onSlotFreedArgumentCaptor.capture());
+
+        onSlotFreedArgumentCaptor.getValue().run();
+
+        verify(readyJobQueue).submitReadyJobs(any(Consumer.class));
+        verify(timerService).createSingleActionTimer(eq(0L), any(TimerConfig.class));
+    }
+
+    @Test
+    public void shouldReleaseJobsLeftInReadyQueueOnPreDestroy() throws Exception {
+
+        final UUID jobId = UUID.randomUUID();
+
+        when(jobStoreConfiguration.isReadyQueueEnabled()).thenReturn(true);
+        when(readyJobQueue.drain()).thenReturn(List.of(job));
+        when(job.getJobId()).thenReturn(jobId);
+
+        jobExecutor.destroy();
+
+        final InOrder inOrder = inOrder(userTransaction, jobService);
+        inOrder.verify(userTransaction).begin();
+        inOrder.verify(jobService).releaseJob(jobId);
+        inOrder.verify(userTransaction).commit();
+    }
+
+    @Test
+    public void shouldHoldJobsClaimedAheadOfTheirStartTimeAndRunThoseAlreadyDue() {
+
+        final Job futureJob = mock(Job.class);
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(30L);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(10), eq(List.of()))).thenReturn(Stream.of(job, futureJob));
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(futureJob.getNextTask()).thenReturn(TASK_NAME);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+        when(timedJobQueue.hold(job)).thenReturn(false);
+        when(timedJobQueue.hold(futureJob)).thenReturn(true);
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobExecutionTracker, never()).track(eq(futureJob), any());
+        verify(executorService, times(1)).submit(any(JobExecutor.class));
+    }
+
+    @Test
+    public void shouldCountJobsHeldUntilTheirStartTimeAgainstFreeSlots() {
+
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        when(jobStoreSchedulerPrioritySelector.selectOrderedPriorities()).thenReturn(priorities);
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(8);
+        when(timedJobQueue.size()).thenReturn(5);
+        when(jobService.getUnassignedJobsFor(any(), eq(priorities), eq(3), eq(List.of()))).thenReturn(empty());
+
+        jobExecutor.fetchUnassignedJobs();
+
+        verify(jobService).getUnassignedJobsFor(any(), eq(priorities), eq(3), eq(List.of()));
+    }
+
+    @Test
+    public void shouldStartTimedJobTickerOnPostConstructWhenLookaheadEnabled() {
+
+        final Thread tickerThread = mock(Thread.class);
+
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(30L);
+        when(jobStoreConfiguration.getTimingWheelTickMilliseconds()).thenReturn(100L);
+        when(managedThreadFactory.newThread(any(TimedJobTicker.class))).thenReturn(tickerThread);
+
+        jobExecutor.init();
+
+        verify(tickerThread).start();
+    }
+
+    @Test
+    public void shouldReleaseHeldJobsFallingDueOverTheirTaskConcurrencyLimitAndRunTheRest() throws Exception {
+
+        final Job jobOverLimit = mock(Job.class);
+        final UUID jobOverLimitId = UUID.randomUUID();
+
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(30L);
+        when(managedThreadFactory.newThread(timedJobTickerArgumentCaptor.capture())).thenReturn(mock(Thread.class));
+        when(timedJobQueue.takeDueJobs()).then(invocation -> {
+            timedJobTickerArgumentCaptor.getValue().stop();
+            return List.of(job, jobOverLimit);
+        });
+        when(job.getNextTask()).thenReturn(TASK_NAME);
+        when(jobOverLimit.getNextTask()).thenReturn(TASK_NAME);
+        when(jobOverLimit.getJobId()).thenReturn(jobOverLimitId);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(1);
+        when(jobExecutionTracker.track(eq(job), any(JobExecutor.class))).then(returnsLastArg());
+
+        jobExecutor.init();
+        timedJobTickerArgumentCaptor.getValue().run();
+
+        verify(jobService).releaseJob(jobOverLimitId);
+        verify(userTransaction).commit();
+        verify(jobExecutionTracker, never()).track(eq(jobOverLimit), any());
+        verify(executorService, times(1)).submit(any(JobExecutor.class));
+    }
+
+    @Test
+    public void shouldLeaveHeldJobsFallingDueToWaitForATaskSlotInTheReadyQueue() {
+
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(30L);
+        when(jobStoreConfiguration.isReadyQueueEnabled()).thenReturn(true);
+        when(sessionContext.getBusinessObject(JobScheduler.class)).thenReturn(jobExecutor);
+        when(managedThreadFactory.newThread(timedJobTickerArgumentCaptor.capture())).thenReturn(mock(Thread.class));
+        when(timedJobQueue.takeDueJobs()).then(invocation -> {
+            timedJobTickerArgumentCaptor.getValue().stop();
+            return List.of(job);
+        });
+
+        jobExecutor.init();
+        timedJobTickerArgumentCaptor.getValue().run();
+
+        verify(readyJobQueue).addAll(List.of(job));
+        verify(jobExecutionTracker, never()).getFreeTaskSlotCount(any());
+        verify(jobService, never()).releaseJob(any());
+    }
+
+    @Test
+    public void shouldWarnOnPostConstructThatPriorityAgingIsNotAppliedWhenClaimingFairly() {
+
+        when(jobStoreConfiguration.isFairTaskClaimingEnabled()).thenReturn(true);
+        when(jobStoreConfiguration.isPriorityAgingEnabled()).thenReturn(true);
+
+        jobExecutor.init();
+
+        verify(logger).info("Claiming jobs fairly across registered tasks, jobs of tasks not registered on this node are left for the nodes that register them");
+        verify(logger).warn("Both fair task claiming and priority aging are enabled, jobs will be claimed fairly across tasks in priority order without aging");
+    }
+
+    @Test
+    public void shouldReleaseJobsHeldUntilTheirStartTimeOnPreDestroy() {
+
+        final UUID jobId = UUID.randomUUID();
+
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(30L);
+        when(managedThreadFactory.newThread(any(TimedJobTicker.class))).thenReturn(mock(Thread.class));
+        when(timedJobQueue.drain()).thenReturn(List.of(job));
+        when(job.getJobId()).thenReturn(jobId);
+
+        jobExecutor.init();
+        jobExecutor.destroy();
+
+        verify(jobService).releaseJob(jobId);
+    }
 
     @Test
     public void shouldRollbackTransactionWhenAnExceptionOccurs() throws SystemException, NotSupportedException {
 
+        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(20);
         doThrow(new NotSupportedException()).when(userTransaction).begin();
 
         jobExecutor.fetchUnassignedJobs();
@@ -0,0 +1,107 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.time.ZonedDateTime.now;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadyJobQueueTest {
+
+    private static final String TASK_NAME = "sample-task";
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private JobExecutionTracker jobExecutionTracker;
+
+    @InjectMocks
+    private ReadyJobQueue readyJobQueue;
+
+    @Test
+    public void shouldRefillToHighWaterMarkOnlyOnceBelowLowWaterMark() {
+
+        when(jobStoreConfiguration.getReadyQueueLowWaterMark()).thenReturn(2);
+        when(jobStoreConfiguration.getReadyQueueHighWaterMark()).thenReturn(5);
+
+        assertThat(readyJobQueue.getRefillCount(), is(5));
+
+        readyJobQueue.addAll(List.of(jobFor(TASK_NAME)));
+        assertThat(readyJobQueue.getRefillCount(), is(4));
+
+        readyJobQueue.addAll(List.of(jobFor(TASK_NAME)));
+        assertThat(readyJobQueue.getRefillCount(), is(0));
+    }
+
+    @Test
+    public void shouldSubmitReadyJobsInOrderWhileThereAreFreeSlots() {
+
+        final Job firstJob = jobFor(TASK_NAME);
+        final Job secondJob = jobFor(TASK_NAME);
+        final Job thirdJob = jobFor(TASK_NAME);
+        final List<Job> submittedJobs = new ArrayList<>();
+
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(2, 1, 0);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        readyJobQueue.addAll(List.of(firstJob, secondJob, thirdJob));
+        readyJobQueue.submitReadyJobs(submittedJobs::add);
+
+        assertThat(submittedJobs, is(List.of(firstJob, secondJob)));
+        assertThat(readyJobQueue.drain(), is(List.of(thirdJob)));
+    }
+
+    @Test
+    public void shouldLeaveJobsOfTasksAtTheirConcurrencyLimitInTheQueue() {
+
+        final Job saturatedJob = jobFor("saturated-task");
+        final Job readyJob = jobFor(TASK_NAME);
+        final List<Job> submittedJobs = new ArrayList<>();
+
+        when(jobExecutionTracker.getFreeSlotCount()).thenReturn(10);
+        when(jobExecutionTracker.getFreeTaskSlotCount("saturated-task")).thenReturn(0);
+        when(jobExecutionTracker.getFreeTaskSlotCount(TASK_NAME)).thenReturn(MAX_VALUE);
+
+        readyJobQueue.addAll(List.of(saturatedJob, readyJob));
+        readyJobQueue.submitReadyJobs(submittedJobs::add);
+
+        assertThat(submittedJobs, is(List.of(readyJob)));
+        assertThat(readyJobQueue.size(), is(1));
+    }
+
+    @Test
+    public void shouldGetLeasesOfReadyJobsAndEmptyQueueWhenDrained() {
+
+        final Job readyJob = jobFor(TASK_NAME);
+
+        readyJobQueue.addAll(List.of(readyJob));
+
+        assertThat(readyJobQueue.getLeases(), is(Map.of(readyJob.getJobId(), readyJob.getWorkerId().get())));
+        assertThat(readyJobQueue.drain(), is(List.of(readyJob)));
+        assertThat(readyJobQueue.size(), is(0));
+        assertThat(readyJobQueue.getLeases(), is(Map.of()));
+    }
+
+    private Job jobFor(final String taskName) {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), taskName, now(), of(randomUUID()), of(now()), 0, HIGH);
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TimedJobQueueTest {
+
+    private final ZonedDateTime now = new UtcClock().now();
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private UtcClock clock;
+
+    @InjectMocks
+    private TimedJobQueue timedJobQueue;
+
+    @BeforeEach
+    public void initTimingWheel() {
+        when(jobStoreConfiguration.getTimingWheelTickMilliseconds()).thenReturn(100L);
+        when(clock.now()).thenReturn(now);
+
+        timedJobQueue.init();
+    }
+
+    @Test
+    public void shouldNotHoldJobsThatAreAlreadyDue() {
+
+        assertThat(timedJobQueue.hold(jobStartingAt(now)), is(false));
+        assertThat(timedJobQueue.size(), is(0));
+    }
+
+    @Test
+    public void shouldHoldJobsUntilTheirStartTime() {
+
+        final Job job = jobStartingAt(now.plusSeconds(2));
+
+        assertThat(timedJobQueue.hold(job), is(true));
+        assertThat(timedJobQueue.getLeases(), is(Map.of(job.getJobId(), job.getWorkerId().get())));
+
+        when(clock.now()).thenReturn(now.plusSeconds(1));
+        assertThat(timedJobQueue.takeDueJobs(), is(empty()));
+
+        when(clock.now()).thenReturn(now.plusSeconds(2).plusNanos(100_000_000));
+        assertThat(timedJobQueue.takeDueJobs(), is(List.of(job)));
+        assertThat(timedJobQueue.size(), is(0));
+    }
+
+    @Test
+    public void shouldDrainHeldJobs() {
+
+        final Job job = jobStartingAt(now.plusSeconds(30));
+
+        timedJobQueue.hold(job);
+
+        assertThat(timedJobQueue.drain(), is(List.of(job)));
+        assertThat(timedJobQueue.getLeases(), is(Map.of()));
+    }
+
+    @Test
+    public void shouldCountHeldJobsPerTaskUntilTheyFallDueOrAreDrained() {
+
+        final Job soonJob = jobStartingAt(now.plusSeconds(1));
+        final Job laterJob = jobStartingAt(now.plusSeconds(30));
+        final Job otherTaskJob = jobStartingAt(now.plusSeconds(30), "other-task");
+
+        timedJobQueue.hold(soonJob);
+        timedJobQueue.hold(laterJob);
+        timedJobQueue.hold(otherTaskJob);
+        timedJobQueue.hold(jobStartingAt(now));
+
+        assertThat(timedJobQueue.getHeldJobCount("sample-task"), is(2));
+        assertThat(timedJobQueue.getHeldJobCount("other-task"), is(1));
+
+        when(clock.now()).thenReturn(now.plusSeconds(2));
+        timedJobQueue.takeDueJobs();
+
+        assertThat(timedJobQueue.getHeldJobCount("sample-task"), is(1));
+
+        timedJobQueue.drain();
+
+        assertThat(timedJobQueue.getHeldJobCount("sample-task"), is(0));
+        assertThat(timedJobQueue.getHeldJobCount("other-task"), is(0));
+    }
+
+    private Job jobStartingAt(final ZonedDateTime startTime) {
+        return jobStartingAt(startTime, "sample-task");
+    }
+
+    private Job jobStartingAt(final ZonedDateTime startTime, final String taskName) {
+        return new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), taskName, startTime, of(randomUUID()), of(now), 0, HIGH);
+    }
+}
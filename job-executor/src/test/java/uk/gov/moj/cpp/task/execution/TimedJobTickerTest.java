@@ -0,0 +1,59 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class TimedJobTickerTest {
+
+    private static final long TICK_MILLISECONDS = 1L;
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    public void shouldRunDueJobsEachTickUntilStopped() {
+
+        final AtomicInteger tickCount = new AtomicInteger();
+        final TimedJobTicker[] timedJobTicker = new TimedJobTicker[1];
+        timedJobTicker[0] = new TimedJobTicker(() -> {
+            if (tickCount.incrementAndGet() == 3) {
+                timedJobTicker[0].stop();
+            }
+        }, TICK_MILLISECONDS, logger);
+
+        timedJobTicker[0].run();
+
+        assertThat(tickCount.get(), is(3));
+        assertThat(timedJobTicker[0].isRunning(), is(false));
+        verify(logger).info("Jobstore timed job ticker stopped");
+    }
+
+    @Test
+    public void shouldKeepTickingIfRunningDueJobsFails() {
+
+        final IllegalStateException exception = new IllegalStateException("Ooops");
+        final AtomicInteger tickCount = new AtomicInteger();
+        final TimedJobTicker[] timedJobTicker = new TimedJobTicker[1];
+        timedJobTicker[0] = new TimedJobTicker(() -> {
+            if (tickCount.incrementAndGet() == 1) {
+                throw exception;
+            }
+            timedJobTicker[0].stop();
+        }, TICK_MILLISECONDS, logger);
+
+        timedJobTicker[0].run();
+
+        assertThat(tickCount.get(), is(2));
+        verify(logger).warn("Jobstore timed job ticker failed to run due jobs", exception);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    private static final long TICK_MILLISECONDS = 10L;
+    private static final int WHEEL_SIZE = 8;
+    private static final long START_TIME = 1_000_000L;
+
+    private final TimingWheel<String> timingWheel = new TimingWheel<>(TICK_MILLISECONDS, WHEEL_SIZE, START_TIME);
+
+    @Test
+    public void shouldNotHoldItemsWhoseDeadlineHasBeenReached() {
+
+        assertThat(timingWheel.schedule(START_TIME, "due"), is(false));
+        assertThat(timingWheel.size(), is(0));
+    }
+
+    @Test
+    public void shouldHandBackItemsAtTheFirstTickOnOrAfterTheirDeadline() {
+
+        timingWheel.schedule(START_TIME + 10, "first");
+        timingWheel.schedule(START_TIME + 25, "second");
+
+        assertThat(timingWheel.advanceTo(START_TIME + 9), is(empty()));
+        assertThat(timingWheel.advanceTo(START_TIME + 10), is(List.of("first")));
+        assertThat(timingWheel.advanceTo(START_TIME + 29), is(empty()));
+        assertThat(timingWheel.advanceTo(START_TIME + 30), is(List.of("second")));
+        assertThat(timingWheel.size(), is(0));
+    }
+
+    @Test
+    public void shouldCascadeItemsBeyondTheFirstLevelDownToTheirExactTick() {
+
+        final long farDeadline = START_TIME + TICK_MILLISECONDS * WHEEL_SIZE * WHEEL_SIZE + 35;
+        timingWheel.schedule(farDeadline, "far");
+
+        final List<String> dueItems = new ArrayList<>();
+        long time = START_TIME;
+        while (dueItems.isEmpty()) {
+            time += TICK_MILLISECONDS;
+            dueItems.addAll(timingWheel.advanceTo(time));
+        }
+
+        assertThat(dueItems, is(List.of("far")));
+        assertThat(time >= farDeadline, is(true));
+        assertThat(time - farDeadline < TICK_MILLISECONDS, is(true));
+    }
+
+    @Test
+    public void shouldHandBackEverythingDueWhenAdvancedPastSeveralTurnsAtOnce() {
+
+        timingWheel.schedule(START_TIME + 5, "near");
+        timingWheel.schedule(START_TIME + 500, "middle");
+        timingWheel.schedule(START_TIME + 5_000, "far");
+        timingWheel.schedule(START_TIME + 50_000, "later");
+
+        assertThat(timingWheel.advanceTo(START_TIME + 10_000), containsInAnyOrder("near", "middle", "far"));
+        assertThat(timingWheel.items(), is(List.of("later")));
+        assertThat(timingWheel.size(), is(1));
+    }
+
+    @Test
+    public void shouldDrainEveryItemHeld() {
+
+        timingWheel.schedule(START_TIME + 5, "near");
+        timingWheel.schedule(START_TIME + 5_000, "far");
+
+        assertThat(timingWheel.drain(), containsInAnyOrder("near", "far"));
+        assertThat(timingWheel.size(), is(0));
+        assertThat(timingWheel.advanceTo(START_TIME + 10_000), is(empty()));
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.concurrent.ContextService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+public class VirtualThreadJobExecutorTest {
+
+    private static final int MAX_CONCURRENCY = 2;
+
+    @Mock
+    private ContextService contextService;
+
+    @Mock
+    private JobStoreConfiguration jobStoreConfiguration;
+
+    @Mock
+    private Logger logger;
+
+    @InjectMocks
+    private VirtualThreadJobExecutor virtualThreadJobExecutor;
+
+    @BeforeEach
+    public void startExecutor() {
+        when(jobStoreConfiguration.getVirtualThreadMaxConcurrency()).thenReturn(MAX_CONCURRENCY);
+        virtualThreadJobExecutor.init();
+    }
+
+    @AfterEach
+    public void stopExecutor() {
+        virtualThreadJobExecutor.destroy();
+    }
+
+    @Test
+    public void shouldRunContextualProxyOfJobOnVirtualThread() throws Exception {
+
+        final AtomicBoolean ranOnVirtualThread = new AtomicBoolean();
+        final CountDownLatch finished = new CountDownLatch(1);
+        final Runnable job = () -> {};
+        final Runnable contextualJob = () -> {
+            ranOnVirtualThread.set(Thread.currentThread().isVirtual());
+            finished.countDown();
+        };
+
+        when(contextService.createContextualProxy(job, Runnable.class)).thenReturn(contextualJob);
+
+        virtualThreadJobExecutor.submit(job);
+
+        assertThat(finished.await(10, SECONDS), is(true));
+        assertThat(ranOnVirtualThread.get(), is(true));
+    }
+
+    @Test
+    public void shouldRunNoMoreJobsAtOnceThanTheMaximumConcurrency() throws Exception {
+
+        final int jobCount = 6;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(jobCount);
+
+        when(contextService.createContextualProxy(any(Runnable.class), eq(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < jobCount; i++) {
+            virtualThreadJobExecutor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(10, SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+
+        Thread.sleep(200);
+        assertThat(running.get(), is(MAX_CONCURRENCY));
+
+        release.countDown();
+
+        assertThat(finished.await(10, SECONDS), is(true));
+        assertThat(maxRunning.get(), is(MAX_CONCURRENCY));
+    }
+
+    @Test
+    public void shouldRejectJobsOnceShutDown() {
+
+        when(contextService.createContextualProxy(any(Runnable.class), eq(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        virtualThreadJobExecutor.destroy();
+
+        assertThrows(RejectedExecutionException.class, () -> virtualThreadJobExecutor.submit(() -> {}));
+    }
+}
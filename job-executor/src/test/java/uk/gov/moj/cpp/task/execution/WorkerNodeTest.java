@@ -0,0 +1,27 @@
+package uk.gov.moj.cpp.task.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkerNodeTest {
+
+    @Test
+    public void shouldKeepTheSameNodeIdForTheLifeOfTheNode() {
+
+        final WorkerNode workerNode = new WorkerNode();
+
+        assertThat(workerNode.getNodeId(), is(notNullValue()));
+        assertThat(workerNode.getNodeId(), is(workerNode.getNodeId()));
+        assertThat(workerNode.getNodeId(), is(not(new WorkerNode().getNodeId())));
+    }
+
+    @Test
+    public void shouldNameTheNode() {
+
+        assertThat(new WorkerNode().getNodeName(), is(notNullValue()));
+    }
+}
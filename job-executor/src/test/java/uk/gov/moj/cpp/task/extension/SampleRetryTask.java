@@ -11,7 +11,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
-@Task("sample-retry-task")
+@Task(value = "sample-retry-task", maxConcurrency = 2, weight = 3)
 public class SampleRetryTask implements ExecutableTask {
 
     @Override
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import uk.gov.moj.cpp.jobstore.api.task.ExecutableTask;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.enterprise.inject.Instance;
@@ -53,6 +54,39 @@ public class TaskRegistryTest {
 
     }
 
+    @Test
+    public void shouldRegisterMaxConcurrencyOfTaskWithConcurrencyLimit() {
+        when(taskFoundEventMock.getClazz()).thenReturn((Class) SampleRetryTask.class);
+        when(taskBeanProxyMock.iterator()).thenReturn(new TestIterator());
+
+        taskRegistry.register(taskFoundEventMock);
+
+        assertThat(taskRegistry.getMaxConcurrency("sample-retry-task"), is(Optional.of(2)));
+        assertThat(taskRegistry.getMaxConcurrencyByTaskName(), is(Map.of("sample-retry-task", 2)));
+    }
+
+    @Test
+    public void shouldNotRegisterMaxConcurrencyOfTaskWithoutConcurrencyLimit() {
+        when(taskFoundEventMock.getClazz()).thenReturn((Class) SampleTask.class);
+        when(taskBeanProxyMock.iterator()).thenReturn(new TestIterator());
+
+        taskRegistry.register(taskFoundEventMock);
+
+        assertThat(taskRegistry.getMaxConcurrency("sample-task"), is(Optional.empty()));
+        assertThat(taskRegistry.getMaxConcurrencyByTaskName().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRegisterWeightOfEachTaskDefaultingToOne() {
+        when(taskFoundEventMock.getClazz()).thenReturn((Class) SampleRetryTask.class, (Class) SampleTask.class);
+        when(taskBeanProxyMock.iterator()).thenReturn(new TestIterator(), new TestIterator());
+
+        taskRegistry.register(taskFoundEventMock);
+        taskRegistry.register(taskFoundEventMock);
+
+        assertThat(taskRegistry.getWeightByTaskName(), is(Map.of("sample-retry-task", 3, "sample-task", 1)));
+    }
+
     @Test
     public void findRetryAttemptsRemainingShouldBeZeroForNonRetryTask() {
         when(taskFoundEventMock.getClazz()).thenReturn((Class) SampleTask.class);
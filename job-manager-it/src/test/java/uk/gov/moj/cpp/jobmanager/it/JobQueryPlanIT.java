@@ -0,0 +1,275 @@
+package uk.gov.moj.cpp.jobmanager.it;
+
+import static java.time.ZonedDateTime.now;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.justice.services.test.utils.core.reflection.ReflectionUtil.setField;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
+
+import uk.gov.justice.datasource.jobstore.JndiJobStoreDataSourceProvider;
+import uk.gov.justice.services.cdi.InitialContextProducer;
+import uk.gov.justice.services.cdi.LoggerProducer;
+import uk.gov.justice.services.common.configuration.GlobalValueProducer;
+import uk.gov.justice.services.common.configuration.JndiBasedServiceContextNameProvider;
+import uk.gov.justice.services.common.configuration.ValueProducer;
+import uk.gov.justice.services.jdbc.persistence.InitialContextFactory;
+import uk.gov.moj.cpp.jobmanager.it.util.ExplainingPreparedStatementWrapperFactory;
+import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbConfigurationBuilder;
+import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbJobJdbcRepository;
+import uk.gov.moj.cpp.jobstore.persistence.DeflateJobDataCodec;
+import uk.gov.moj.cpp.jobstore.persistence.JdbcRepositoryException;
+import uk.gov.moj.cpp.jobstore.persistence.JdbcResultSetStreamer;
+import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataPatch;
+import uk.gov.moj.cpp.jobstore.persistence.JobJdbcRepository;
+import uk.gov.moj.cpp.jobstore.persistence.JobRepository;
+import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
+import uk.gov.moj.cpp.jobstore.persistence.PreparedStatementWrapperFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.naming.InitialContext;
+import javax.sql.DataSource;
+import javax.transaction.UserTransaction;
+
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.apache.openejb.jee.WebApp;
+import org.apache.openejb.junit5.RunWithApplicationComposer;
+import org.apache.openejb.testing.Application;
+import org.apache.openejb.testing.Classes;
+import org.apache.openejb.testing.Configuration;
+import org.apache.openejb.testing.Module;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Guards the query plans of the job table statements: loads a realistically sized job table and
+ * asserts that each {@link JobJdbcRepository} statement reads the index meant for it rather than
+ * scanning the table, so claim latency does not grow with the table.
+ */
+@RunWithApplicationComposer
+public class JobQueryPlanIT {
+
+    private static final String LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML = "liquibase/jobstore-db-changelog.xml";
+    private static final int JOB_COUNT = 100_000;
+
+    @Inject
+    OpenEjbJobJdbcRepository testJobJdbcRepository;
+
+    @Inject
+    JndiJobStoreDataSourceProvider jobStoreDataSourceProvider;
+
+    @Inject
+    JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    UserTransaction userTransaction;
+
+    @Resource(name = "openejb/Resource/jobStore")
+    private DataSource dataSource;
+
+    private final ExplainingPreparedStatementWrapperFactory explainingPreparedStatementWrapperFactory = new ExplainingPreparedStatementWrapperFactory();
+
+    private final JobJdbcRepository jobJdbcRepository = new JobJdbcRepository();
+
+    @Module
+    @Classes(cdi = true, value = {
+            JobRepository.class,
+            JndiJobStoreDataSourceProvider.class,
+            PreparedStatementWrapperFactory.class,
+            JdbcResultSetStreamer.class,
+            LoggerProducer.class,
+            OpenEjbJobJdbcRepository.class,
+            JobDataCodecs.class,
+            DeflateJobDataCodec.class,
+            GlobalValueProducer.class,
+            ValueProducer.class,
+            JndiBasedServiceContextNameProvider.class,
+            InitialContextProducer.class,
+            Integer.class,
+            JobStoreConfiguration.class,
+            InitialContextFactory.class
+    })
+
+    public WebApp war() {
+        return new WebApp()
+                .contextRoot("framework-test")
+                .addServlet("ServiceApp", Application.class.getName());
+    }
+
+    @Configuration
+    public Properties configuration() {
+        return OpenEjbConfigurationBuilder.createOpenEjbConfigurationBuilder()
+                .addInitialContext()
+                .addHttpEjbPort(8080)
+                .addPostgresqlJobStore()
+                .build();
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final InitialContext initialContext = new InitialContext();
+        initialContext.bind("java:/app/JobQueryPlanIT/DS.jobstore", dataSource);
+
+        new Liquibase(LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML, new ClassLoaderResourceAccessor(), new JdbcConnection(dataSource.getConnection()))
+                .update("");
+
+        userTransaction.begin();
+        testJobJdbcRepository.cleanJobTables();
+        testJobJdbcRepository.loadJobs(JOB_COUNT);
+        userTransaction.commit();
+        testJobJdbcRepository.vacuumJobTables();
+
+        setField(jobJdbcRepository, "preparedStatementWrapperFactory", explainingPreparedStatementWrapperFactory);
+        setField(jobJdbcRepository, "jdbcResultSetStreamer", new JdbcResultSetStreamer());
+        setField(jobJdbcRepository, "logger", LoggerFactory.getLogger(JobJdbcRepository.class));
+        setField(jobJdbcRepository, "jobStoreDataSourceProvider", jobStoreDataSourceProvider);
+        setField(jobJdbcRepository, "jobStoreConfiguration", jobStoreConfiguration);
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        userTransaction.begin();
+        testJobJdbcRepository.cleanJobTables();
+        userTransaction.commit();
+    }
+
+    @Test
+    public void shouldClaimJobsInPriorityOrderThroughThePartialClaimIndexes() {
+        jobJdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 10, List.of("task-1")).close();
+
+        assertUsesIndexes("job_unlocked_priority_start_time_idx", "job_locked_worker_lock_time_idx", "job_pkey");
+    }
+
+    @Test
+    public void shouldLockJobsThroughThePartialClaimIndexes() {
+        jobJdbcRepository.lockJobsFor(randomUUID(), HIGH, 10);
+
+        assertUsesIndexes("job_unlocked_priority_start_time_idx", "job_locked_worker_lock_time_idx", "job_pkey");
+    }
+
+    @Test
+    public void shouldClaimJobsByEffectivePriorityThroughTheEffectiveStartTimeIndex() {
+        jobJdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 10, List.of()).close();
+
+        assertUsesIndexes("job_effective_start_time_idx", "job_pkey");
+    }
+
+    @Test
+    public void shouldClaimJobsFairlyThroughThePriorityAndTaskIndex() {
+        jobJdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 10, Map.of("task-1", 2, "task-2", 1, "task-3", 1)).close();
+
+        assertUsesIndexes("job_priority_next_task_start_time_idx", "job_pkey");
+    }
+
+    @Test
+    public void shouldFindPriorityBacklogsThroughThePartialClaimIndexes() {
+        jobJdbcRepository.findPriorityBacklogs(10_000);
+
+        assertUsesIndexes("job_unlocked_priority_start_time_idx", "job_locked_worker_lock_time_idx");
+    }
+
+    @Test
+    public void shouldFindJobsLockedToAWorkerThroughTheWorkerIdIndex() {
+        jobJdbcRepository.findJobsLockedTo(randomUUID()).close();
+
+        assertUsesIndexes("job_worker_id_idx", "job_payload_pkey");
+    }
+
+    @Test
+    public void shouldFindJobDataThroughThePayloadPrimaryKey() {
+        // The explained statement returns no rows, so no job data is found
+        assertThrows(JdbcRepositoryException.class, () -> jobJdbcRepository.findJobData(randomUUID()));
+
+        assertUsesIndexes("job_payload_pkey");
+    }
+
+    @Test
+    public void shouldRenewJobLeasesThroughAnIndexOnTheLeasedJobs() {
+        jobJdbcRepository.renewJobLeases(Map.of(randomUUID(), randomUUID(), randomUUID(), randomUUID()));
+
+        // Either the primary key or the worker id index finds a leased job, whichever the planner costs lower
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), containsString("Index Scan"));
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), not(containsString("Seq Scan")));
+    }
+
+    @Test
+    public void shouldUpdateSingleJobsThroughThePrimaryKey() {
+        jobJdbcRepository.updateJobData(randomUUID(), jsonBuilderFactory.createObjectBuilder().build());
+        assertUsesIndexes("job_payload_pkey");
+
+        jobJdbcRepository.updateNextTaskDetails(randomUUID(), "task-1", toSqlTimestamp(now()), 1);
+        assertUsesIndexes("job_pkey");
+
+        jobJdbcRepository.updateNextTaskRetryDetails(randomUUID(), toSqlTimestamp(now()), 1);
+        assertUsesIndexes("job_pkey");
+
+        jobJdbcRepository.releaseJob(randomUUID());
+        assertUsesIndexes("job_pkey");
+
+        jobJdbcRepository.updateNextTaskAndReleaseJob(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "task-1", toSqlTimestamp(now()), 1);
+        assertUsesIndexes("job_pkey", "job_payload_pkey");
+
+        jobJdbcRepository.updateNextTaskPatchingJobDataAndReleaseJob(randomUUID(), JobDataPatch.between(jsonBuilderFactory.createObjectBuilder().build(), jsonBuilderFactory.createObjectBuilder().add("field", 1).build()), "task-1", toSqlTimestamp(now()), 1);
+        assertUsesIndexes("job_pkey", "job_payload_pkey");
+
+        jobJdbcRepository.updateNextTaskRetryDetailsAndReleaseJob(randomUUID(), toSqlTimestamp(now()), 1);
+        assertUsesIndexes("job_pkey");
+
+        jobJdbcRepository.deleteJob(randomUUID());
+        assertUsesIndexes("job_pkey", "job_payload_pkey");
+    }
+
+    @Test
+    public void shouldDeleteBatchesOfCompletedJobsThroughAnIndexOnTheLeasedJobs() {
+        jobJdbcRepository.deleteJobs(Map.of(randomUUID(), randomUUID(), randomUUID(), randomUUID()));
+
+        // As with renewing leases, either the primary key or the worker id index finds a leased job
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), containsString("Index Scan"));
+        assertUsesIndexes("job_payload_pkey");
+    }
+
+    @Test
+    public void shouldInsertJobsWithoutReadingTheTable() {
+        jobJdbcRepository.insertJob(new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "task-1", now(), Optional.empty(), Optional.empty(), 0, HIGH));
+
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), containsString("Insert on job"));
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), not(containsString("Scan on job")));
+    }
+
+    @Test
+    public void shouldInsertBatchesOfJobsWithoutReadingTheTable() {
+        jobJdbcRepository.insertJobs(List.of(
+                new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "task-1", now(), Optional.empty(), Optional.empty(), 0, HIGH),
+                new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "task-2", now(), Optional.empty(), Optional.empty(), 0, LOW)));
+
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), containsString("Insert on job"));
+        assertThat(explainingPreparedStatementWrapperFactory.lastQueryPlan(), not(containsString("Scan on job")));
+    }
+
+    private void assertUsesIndexes(final String... indexNames) {
+        final String queryPlan = explainingPreparedStatementWrapperFactory.lastQueryPlan();
+
+        for (final String indexName : indexNames) {
+            assertThat(queryPlan, containsString(indexName));
+        }
+        assertThat(queryPlan, not(containsString("Seq Scan")));
+    }
+}
@@ -20,15 +20,25 @@ import uk.gov.justice.services.jdbc.persistence.InitialContextFactory;
 import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbConfigurationBuilder;
 import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbJobJdbcRepository;
 import uk.gov.moj.cpp.jobstore.api.ExecutionService;
+import uk.gov.moj.cpp.jobstore.persistence.DeflateJobDataCodec;
 import uk.gov.moj.cpp.jobstore.persistence.JdbcResultSetStreamer;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs;
+import uk.gov.moj.cpp.jobstore.persistence.JobNotificationSubscriber;
 import uk.gov.moj.cpp.jobstore.persistence.JobRepository;
 import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.persistence.PreparedStatementWrapperFactory;
+import uk.gov.moj.cpp.jobstore.persistence.WorkerNodeJdbcRepository;
 import uk.gov.moj.cpp.jobstore.service.JobService;
+import uk.gov.moj.cpp.task.execution.CompletedJobBuffer;
+import uk.gov.moj.cpp.task.execution.JobExecutionTracker;
 import uk.gov.moj.cpp.task.execution.JobScheduler;
 import uk.gov.moj.cpp.task.execution.JobStoreSchedulerPrioritySelector;
 import uk.gov.moj.cpp.task.execution.RandomPercentageProvider;
+import uk.gov.moj.cpp.task.execution.ReadyJobQueue;
+import uk.gov.moj.cpp.task.execution.TimedJobQueue;
+import uk.gov.moj.cpp.task.execution.VirtualThreadJobExecutor;
+import uk.gov.moj.cpp.task.execution.WorkerNode;
 import uk.gov.moj.cpp.task.extension.SampleTask;
 import uk.gov.moj.cpp.task.extension.TaskRegistry;
 
@@ -86,6 +96,16 @@ public class JobSchedulerIT {
             PreparedStatementWrapperFactory.class,
             JdbcResultSetStreamer.class,
             OpenEjbJobJdbcRepository.class,
+            JobDataCodecs.class,
+            DeflateJobDataCodec.class,
+            WorkerNodeJdbcRepository.class,
+            JobNotificationSubscriber.class,
+            JobExecutionTracker.class,
+            WorkerNode.class,
+            ReadyJobQueue.class,
+            TimedJobQueue.class,
+            CompletedJobBuffer.class,
+            VirtualThreadJobExecutor.class,
             JobScheduler.class,
             GlobalValueProducer.class,
             TaskRegistry.class,
@@ -127,11 +147,19 @@ public class JobSchedulerIT {
     @Inject
     private JobScheduler jobScheduler;
 
+    @Inject
+    private JobExecutionTracker jobExecutionTracker;
+
     @BeforeEach
     public void setup() throws Exception {
         final InitialContext initialContext = new InitialContext();
         initialContext.bind("java:/app/JobSchedulerIT/DS.jobstore", dataSource);
+        initialContext.bind("java:/app/JobSchedulerIT/worker.max.in.flight.job.count", "30");
         initEventDatabase();
+
+        // the three workers each claim a full batch only if the node has a slot for every claimed job,
+        // and the tracker reads its limit when first used, which has to be on this thread to see the binding
+        assertThat(jobExecutionTracker.getFreeSlotCount(), is(30));
     }
 
     @Configuration
@@ -22,11 +22,14 @@ import uk.gov.justice.services.jdbc.persistence.InitialContextFactory;
 import uk.gov.justice.services.test.utils.core.messaging.Poller;
 import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbConfigurationBuilder;
 import uk.gov.moj.cpp.jobmanager.it.util.OpenEjbJobJdbcRepository;
+import uk.gov.moj.cpp.jobstore.persistence.DeflateJobDataCodec;
 import uk.gov.moj.cpp.jobstore.persistence.JdbcResultSetStreamer;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs;
 import uk.gov.moj.cpp.jobstore.persistence.JobRepository;
 import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.persistence.PreparedStatementWrapperFactory;
+import uk.gov.moj.cpp.jobstore.persistence.WorkerNodeJdbcRepository;
 import uk.gov.moj.cpp.jobstore.service.JobService;
 
 import java.sql.SQLException;
@@ -86,6 +89,9 @@ public class JobServiceIT {
             JdbcResultSetStreamer.class,
             LoggerProducer.class,
             OpenEjbJobJdbcRepository.class,
+            JobDataCodecs.class,
+            DeflateJobDataCodec.class,
+            WorkerNodeJdbcRepository.class,
             GlobalValueProducer.class,
             ValueProducer.class,
             JndiBasedServiceContextNameProvider.class,
@@ -0,0 +1,98 @@
+package uk.gov.moj.cpp.jobmanager.it.util;
+
+import static java.lang.reflect.Proxy.newProxyInstance;
+
+import uk.gov.moj.cpp.jobstore.persistence.PreparedStatementWrapper;
+import uk.gov.moj.cpp.jobstore.persistence.PreparedStatementWrapperFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Stands in for the {@link PreparedStatementWrapperFactory} of a repository so that each
+ * statement the repository runs is EXPLAINed, with the parameters the repository binds, rather
+ * than executed. Queries return no rows and updates change none, so every repository method can
+ * be called against a loaded table without disturbing it.
+ */
+public class ExplainingPreparedStatementWrapperFactory extends PreparedStatementWrapperFactory {
+
+    private final List<String> queryPlans = new ArrayList<>();
+
+    @Override
+    public PreparedStatementWrapper preparedStatementWrapperOf(final DataSource dataSource, final String query) throws SQLException {
+        return PreparedStatementWrapper.valueOf(explainingConnectionOf(dataSource.getConnection()), query);
+    }
+
+    /**
+     * @return the plan of the last statement run
+     */
+    public String lastQueryPlan() {
+        return queryPlans.get(queryPlans.size() - 1);
+    }
+
+    private Connection explainingConnectionOf(final Connection connection) {
+        return proxyOf(Connection.class, (method, args) -> {
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return explainingStatementOf(connection.prepareStatement("EXPLAIN " + args[0]));
+            }
+            return method.invoke(connection, args);
+        });
+    }
+
+    private PreparedStatement explainingStatementOf(final PreparedStatement explainStatement) {
+        return proxyOf(PreparedStatement.class, (method, args) -> switch (method.getName()) {
+            case "executeQuery" -> {
+                explain(explainStatement);
+                yield emptyResultSet();
+            }
+            case "executeUpdate" -> {
+                explain(explainStatement);
+                yield 0;
+            }
+            default -> method.invoke(explainStatement, args);
+        });
+    }
+
+    private void explain(final PreparedStatement explainStatement) throws SQLException {
+        final StringBuilder queryPlan = new StringBuilder();
+
+        try (final ResultSet resultSet = explainStatement.executeQuery()) {
+            while (resultSet.next()) {
+                queryPlan.append(resultSet.getString(1)).append(System.lineSeparator());
+            }
+        }
+
+        queryPlans.add(queryPlan.toString());
+    }
+
+    private ResultSet emptyResultSet() {
+        return proxyOf(ResultSet.class, (method, args) -> switch (method.getName()) {
+            case "next", "wasNull" -> false;
+            default -> null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxyOf(final Class<T> type, final Handler handler) {
+        return (T) newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return handler.handle(method, args == null ? new Object[0] : args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(final Method method, final Object[] args) throws Throwable;
+    }
+}
@@ -37,10 +37,27 @@ public class OpenEjbJobJdbcRepository extends JobJdbcRepository {
     private static final String SQL_DELETE_PATTERN = "DELETE FROM %s";
     private static final String JOBS_PROCESSED_COUNT = "SELECT COUNT(*) FROM job where worker_id is not null and worker_lock_time > ?";
     private static final String JOBS_NOTPROCESSED_COUNT = "SELECT COUNT(*) FROM job where worker_id is null and worker_lock_time is null";
-    private static final String JOBS_PROCESSED = "SELECT * FROM job where worker_id is not null and worker_lock_time > ?";
-    private static final String JOBS_PROCESSED_FOR_WORKER = "SELECT * FROM job where worker_id = ?";
+    private static final String JOBS_PROCESSED = "SELECT job.job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority, priority_value, job_payload.job_data, job_data_encoded, job_data_codec FROM job JOIN job_payload ON job_payload.job_id = job.job_id where worker_id is not null and worker_lock_time > ?";
+    private static final String JOBS_PROCESSED_FOR_WORKER = "SELECT job.job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority, priority_value, job_payload.job_data, job_data_encoded, job_data_codec FROM job JOIN job_payload ON job_payload.job_id = job.job_id where worker_id = ?";
     private static final String JOB_DATA_JSON = "{\"some\": \"json\"}";
 
+    /**
+     * Loads a realistic job table: mostly LOW jobs spread over ten tasks and two hours of start
+     * times either side of now, one job in a hundred locked to a worker and one in a thousand
+     * locked with an expired lease
+     */
+    private static final String LOAD_JOBS_SQL = "WITH inserted_job AS (INSERT INTO job(job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority, priority_value, effective_start_time) " +
+            "SELECT job_id, worker_id, worker_lock_time, next_task, next_task_start_time, 0, priority, priority_value, next_task_start_time - make_interval(secs => priority_value * 3) FROM (" +
+            "SELECT gen_random_uuid() AS job_id, " +
+            "CASE WHEN i % 100 = 0 THEN gen_random_uuid() END AS worker_id, " +
+            "CASE WHEN i % 1000 = 0 THEN now() - interval '1 hour' WHEN i % 100 = 0 THEN now() END AS worker_lock_time, " +
+            "'task-' || (i % 10) AS next_task, " +
+            "now() + make_interval(secs => i % 7200 - 3600) AS next_task_start_time, " +
+            "(ARRAY['HIGH', 'MEDIUM', 'LOW', 'LOW', 'LOW'])[i % 5 + 1] AS priority, " +
+            "(ARRAY[300, 200, 100, 100, 100])[i % 5 + 1] AS priority_value " +
+            "FROM generate_series(1, ?) AS i) AS generated RETURNING job_id) " +
+            "INSERT INTO job_payload(job_id, job_data) SELECT job_id, to_jsonb(?::json) FROM inserted_job";
+
     public void waitForAllJobsToBeProcessed() {
 
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
@@ -60,9 +77,9 @@ public class OpenEjbJobJdbcRepository extends JobJdbcRepository {
     public void cleanJobTables() throws SQLException {
 
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
-        final String sql = format(SQL_DELETE_PATTERN, "job");
         try (Connection connection = jobStoreDataSource.getConnection()) {
-            executeDelete(sql, connection);
+            executeDelete(format(SQL_DELETE_PATTERN, "job"), connection);
+            executeDelete(format(SQL_DELETE_PATTERN, "job_payload"), connection);
         }
     }
 
@@ -72,6 +89,31 @@ public class OpenEjbJobJdbcRepository extends JobJdbcRepository {
         }
     }
 
+    public void loadJobs(final int count) throws SQLException {
+
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final Connection connection = jobStoreDataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement(LOAD_JOBS_SQL)) {
+            preparedStatement.setInt(1, count);
+            preparedStatement.setString(2, JOB_DATA_JSON);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Vacuums as well as analyzes the job tables, so that the planner sees the visibility map of a
+     * table in steady state rather than one just bulk loaded. Cannot run in a transaction.
+     */
+    public void vacuumJobTables() throws SQLException {
+
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final Connection connection = jobStoreDataSource.getConnection();
+             final PreparedStatement preparedStatement = connection.prepareStatement("VACUUM ANALYZE job, job_payload")) {
+            connection.setAutoCommit(true);
+            preparedStatement.execute();
+        }
+    }
+
     public int jobsProcessed() throws SQLException {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
         final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, JOBS_PROCESSED_COUNT);
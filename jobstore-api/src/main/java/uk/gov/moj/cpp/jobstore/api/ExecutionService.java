@@ -1,9 +1,39 @@
 package uk.gov.moj.cpp.jobstore.api;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
 
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
 public interface ExecutionService {
 
     void executeWith(final ExecutionInfo executionInfo);
+
+    /**
+     * Creates a job for each execution info, inserting the jobs in batches rather than one at a
+     * time. By default the jobs are created one at a time with {@link #executeWith(ExecutionInfo)}
+     */
+    default void executeWithAll(final Collection<ExecutionInfo> executionInfos) {
+        executionInfos.forEach(this::executeWith);
+    }
+
+    /**
+     * Enqueues a job without waiting for it to be inserted. Jobs enqueued from all threads are
+     * inserted together in batches, each in a transaction of its own, so the job is not part of the
+     * caller's transaction: it is only durable once the returned stage completes. Waits for room
+     * when too many jobs are waiting to be inserted. Inserts the job straight away, in the
+     * caller's transaction, when async enqueue is disabled.
+     *
+     * By default the job is inserted straight away with {@link #executeWith(ExecutionInfo)}, and
+     * the returned stage is already complete but holds no job id, as executeWith does not return it.
+     *
+     * @return completes with the id of the job once it has been inserted and committed
+     */
+    default CompletionStage<UUID> executeAsyncWith(final ExecutionInfo executionInfo) {
+        executeWith(executionInfo);
+        return completedFuture(null);
+    }
 }
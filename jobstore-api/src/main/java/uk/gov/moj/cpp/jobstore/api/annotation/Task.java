@@ -10,4 +10,17 @@ import java.lang.annotation.Target;
 @Target(TYPE)
 public @interface Task {
     String value();
-}
\ No newline at end of file
+
+    /**
+     * The maximum number of jobs of this task that a node will run at once. Jobs over the limit
+     * are not claimed, leaving them for other nodes. Zero, the default, means no limit.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * The share of each claimed batch given to jobs of this task, relative to the other tasks of
+     * the same priority, when fair task claiming is enabled. A task of weight two is given twice
+     * the jobs of a task of weight one while both have jobs waiting.
+     */
+    int weight() default 1;
+}
@@ -4,16 +4,18 @@ import uk.gov.moj.cpp.jobstore.persistence.Job;
 import uk.gov.moj.cpp.jobstore.persistence.Priority;
 
 import java.time.ZonedDateTime;
+import java.util.function.Supplier;
 
 import javax.json.JsonObject;
 
 public class ExecutionInfo {
-    private final JsonObject jobData;
+    private final Supplier<JsonObject> jobData;
     private final String nextTask;
     private final ZonedDateTime nextTaskStartTime;
     private final ExecutionStatus executionStatus;
     private final boolean shouldRetry;
     private Priority priority;
+    private final Integer priorityValue;
 
     public ExecutionInfo(final JsonObject jobData,
                          final String nextTask,
@@ -29,12 +31,23 @@ public class ExecutionInfo {
                          final ExecutionStatus executionStatus,
                          boolean shouldRetry,
                          final Priority priority) {
+        this(() -> jobData, nextTask, nextTaskStartTime, executionStatus, shouldRetry, priority, null);
+    }
+
+    private ExecutionInfo(final Supplier<JsonObject> jobData,
+                          final String nextTask,
+                          final ZonedDateTime nextTaskStartTime,
+                          final ExecutionStatus executionStatus,
+                          boolean shouldRetry,
+                          final Priority priority,
+                          final Integer priorityValue) {
         this.jobData = jobData;
         this.nextTask = nextTask;
         this.nextTaskStartTime = nextTaskStartTime;
         this.executionStatus = executionStatus;
         this.shouldRetry = shouldRetry;
         this.priority = priority;
+        this.priorityValue = priorityValue;
     }
 
     public String getNextTask() {
@@ -57,22 +70,39 @@ public class ExecutionInfo {
         return new Builder();
     }
 
+    /**
+     * @return the job data. When built from a job whose data is yet to be loaded, the data is
+     * loaded now
+     */
     public JsonObject getJobData() {
-        return jobData;
+        return jobData.get();
     }
 
     public Priority getPriority() {
         return priority;
     }
 
+    /**
+     * @return the numeric priority of the job, that of its named priority unless it was given its
+     * own, or null if it has neither
+     */
+    public Integer getPriorityValue() {
+        if (priorityValue != null) {
+            return priorityValue;
+        }
+
+        return priority != null ? priority.getValue() : null;
+    }
+
     public static class Builder {
 
-        private JsonObject jobData;
+        private Supplier<JsonObject> jobData = () -> null;
         private String nextTask;
         private ZonedDateTime nextTaskStartTime;
         private ExecutionStatus executionStatus;
         private boolean shouldRetry;
         private Priority priority;
+        private Integer priorityValue;
 
         private Builder() {
         }
@@ -84,22 +114,24 @@ public class ExecutionInfo {
             this.executionStatus = executionInfo.executionStatus;
             this.shouldRetry = executionInfo.shouldRetry;
             this.priority = executionInfo.priority;
+            this.priorityValue = executionInfo.priorityValue;
             return this;
         }
 
 
         public ExecutionInfo build() {
-            final boolean exhaustTaskDetailsNotConfigured = jobData == null || nextTask == null || nextTaskStartTime == null;
+            // The job data is only checked for a retry, so that building from a job does not load it
+            final boolean retryExhaustTaskDetailsNotConfigured = shouldRetry && (jobData.get() == null || nextTask == null || nextTaskStartTime == null);
 
-            if(shouldRetry && exhaustTaskDetailsNotConfigured) {
+            if(retryExhaustTaskDetailsNotConfigured) {
                 throw new InvalidRetryExecutionInfoException("retry exhaust task details (jobData, nextTask, nextTaskStartTime) must not be null when shouldRetry is true");
             }
 
-            return new ExecutionInfo(jobData, nextTask, nextTaskStartTime, executionStatus, shouldRetry, priority);
+            return new ExecutionInfo(jobData, nextTask, nextTaskStartTime, executionStatus, shouldRetry, priority, priorityValue);
         }
 
         public Builder withJobData(final JsonObject jobData) {
-            this.jobData = jobData;
+            this.jobData = () -> jobData;
             return this;
         }
 
@@ -125,15 +157,28 @@ public class ExecutionInfo {
 
         public Builder withPriority(final Priority priority) {
             this.priority = priority;
+            this.priorityValue = null;
+            return this;
+        }
+
+        /**
+         * Sets a numeric priority, where a higher value is more urgent and the named priorities are
+         * 300 for HIGH, 200 for MEDIUM and 100 for LOW. The job is claimed with the jobs of the
+         * closest named priority and, when priority aging is enabled, ordered by its own value.
+         */
+        public Builder withPriorityValue(final int priorityValue) {
+            this.priority = Priority.closestTo(priorityValue);
+            this.priorityValue = priorityValue;
             return this;
         }
 
         public Builder fromJob(final Job job) {
             this.executionStatus = ExecutionStatus.STARTED;
-            this.jobData = job.getJobData();
+            this.jobData = job::getJobData;
             this.nextTask = job.getNextTask();
             this.nextTaskStartTime = job.getNextTaskStartTime();
             this.priority = job.getPriority();
+            this.priorityValue = job.getPriorityValue();
             return this;
         }
     }
@@ -0,0 +1,52 @@
+package uk.gov.moj.cpp.jobstore.api;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo.executionInfo;
+
+import uk.gov.justice.services.common.util.UtcClock;
+import uk.gov.moj.cpp.jobstore.api.task.ExecutionInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class ExecutionServiceTest {
+
+    private final List<ExecutionInfo> executedExecutionInfos = new ArrayList<>();
+
+    private final ExecutionService executionService = executedExecutionInfos::add;
+
+    @Test
+    public void shouldExecuteEachExecutionInfoInTurnByDefault() {
+        final ExecutionInfo firstExecutionInfo = executionInfoFor("firstTask");
+        final ExecutionInfo secondExecutionInfo = executionInfoFor("secondTask");
+
+        executionService.executeWithAll(List.of(firstExecutionInfo, secondExecutionInfo));
+
+        assertThat(executedExecutionInfos, is(List.of(firstExecutionInfo, secondExecutionInfo)));
+    }
+
+    @Test
+    public void shouldExecuteStraightAwayWhenExecutingAsyncByDefault() {
+        final ExecutionInfo executionInfo = executionInfoFor("someTask");
+
+        final UUID jobId = executionService.executeAsyncWith(executionInfo).toCompletableFuture().getNow(randomUUID());
+
+        assertThat(jobId, is(nullValue()));
+        assertThat(executedExecutionInfos, is(List.of(executionInfo)));
+    }
+
+    private ExecutionInfo executionInfoFor(final String nextTask) {
+        return executionInfo()
+                .withJobData(jsonBuilderFactory.createObjectBuilder().build())
+                .withNextTask(nextTask)
+                .withNextTaskStartTime(new UtcClock().now())
+                .build();
+    }
+}
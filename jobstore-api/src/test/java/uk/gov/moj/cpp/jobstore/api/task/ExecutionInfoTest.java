@@ -7,11 +7,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
 
 import uk.gov.justice.services.common.util.UtcClock;
 import uk.gov.moj.cpp.jobstore.persistence.Job;
 
 import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.json.JsonObject;
 
@@ -60,6 +62,50 @@ public class ExecutionInfoTest {
         assertThat(copiedExecutionInfo.getExecutionStatus(), is(ExecutionStatus.STARTED));
     }
 
+    @Test
+    public void shouldNotLoadTheJobDataOfAJobUntilItIsAskedFor() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final Job job = new Job(randomUUID(), () -> {
+            loadCount.incrementAndGet();
+            return jobData;
+        }, NEXT_TASK, nextTaskStartTime, empty(), empty(), 0, HIGH, HIGH.getValue());
+
+        final ExecutionInfo executionInfo = ExecutionInfo.executionInfo().fromJob(job).build();
+
+        assertThat(loadCount.get(), is(0));
+        assertThat(executionInfo.getJobData(), is(jobData));
+        assertThat(executionInfo.getJobData(), is(jobData));
+        assertThat(loadCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldSetANumericPriorityClaimedWithTheClosestNamedPriority() {
+        final ExecutionInfo executionInfo = ExecutionInfo.executionInfo().withPriorityValue(260).build();
+
+        assertThat(executionInfo.getPriority(), is(HIGH));
+        assertThat(executionInfo.getPriorityValue(), is(260));
+    }
+
+    @Test
+    public void shouldTakeTheNumericPriorityOfANamedPriority() {
+        final ExecutionInfo executionInfo = ExecutionInfo.executionInfo().withPriorityValue(260).withPriority(LOW).build();
+
+        assertThat(executionInfo.getPriority(), is(LOW));
+        assertThat(executionInfo.getPriorityValue(), is(100));
+    }
+
+    @Test
+    public void shouldCopyTheNumericPriorityOfAJob() {
+        final Job job = Job.job().from(new Job(randomUUID(), jobData, NEXT_TASK, nextTaskStartTime, empty(), empty(), 0, HIGH))
+                .withPriorityValue(140)
+                .build();
+
+        final ExecutionInfo executionInfo = ExecutionInfo.executionInfo().fromJob(job).build();
+
+        assertThat(executionInfo.getPriority(), is(LOW));
+        assertThat(executionInfo.getPriorityValue(), is(140));
+    }
+
     @Test
     public void shouldSetTheJobdata() {
         final ExecutionInfo copiedExecutionInfo = ExecutionInfo.executionInfo().withJobData(jobData).build();
@@ -0,0 +1,57 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.zip.Deflater.BEST_SPEED;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonReaderFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+/**
+ * Stores job data as its JSON text compressed with deflate at its fastest level, trading a
+ * little compression for speed.
+ */
+@ApplicationScoped
+public class DeflateJobDataCodec implements JobDataCodec {
+
+    public static final String NAME = "deflate";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(final JsonObject jobData) {
+        final ByteArrayOutputStream encodedJobData = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(BEST_SPEED);
+
+        try (final Writer writer = new OutputStreamWriter(new DeflaterOutputStream(encodedJobData, deflater), UTF_8)) {
+            writer.write(jobData.toString());
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to deflate job data", e);
+        } finally {
+            deflater.end();
+        }
+
+        return encodedJobData.toByteArray();
+    }
+
+    @Override
+    public JsonObject decode(final byte[] encodedJobData) {
+        try (final JsonReader reader = jsonReaderFactory.createReader(new InflaterInputStream(new ByteArrayInputStream(encodedJobData)), UTF_8)) {
+            return reader.readObject();
+        }
+    }
+}
@@ -3,9 +3,15 @@ package uk.gov.moj.cpp.jobstore.persistence;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import javax.json.JsonObject;
 
+/**
+ * A job and its data. The data of a job claimed as a scheduling handle is not read with it, but
+ * loaded on first access to {@link #getJobData()}, so that jobs held before they run, or never
+ * run by this node, do not carry it.
+ */
 public class Job {
 
     private final UUID jobId;
@@ -13,9 +19,12 @@ public class Job {
     private final Optional<ZonedDateTime> workerLockTime;
     private final String nextTask;
     private final ZonedDateTime nextTaskStartTime;
-    private final JsonObject jobData;
+    private final Supplier<JsonObject> jobDataLoader;
     private final int retryAttemptsRemaining;
     private final Priority priority;
+    private final int priorityValue;
+
+    private volatile JsonObject jobData;
 
     public Job(final UUID jobId,
                final JsonObject jobData,
@@ -25,14 +34,47 @@ public class Job {
                final Optional<ZonedDateTime> workerLockTime,
                final Integer retryAttemptsRemaining,
                final Priority priority) {
+        this(jobId, jobData, nextTask, nextTaskStartTime, workerId, workerLockTime, retryAttemptsRemaining, priority, priority.getValue());
+    }
+
+    /**
+     * Creates a job with a numeric priority, ordered by its value rather than by that of its
+     * named priority when priority aging is enabled
+     */
+    public Job(final UUID jobId,
+               final JsonObject jobData,
+               final String nextTask,
+               final ZonedDateTime nextTaskStartTime,
+               final Optional<UUID> workerId,
+               final Optional<ZonedDateTime> workerLockTime,
+               final Integer retryAttemptsRemaining,
+               final Priority priority,
+               final int priorityValue) {
+        this(jobId, () -> jobData, nextTask, nextTaskStartTime, workerId, workerLockTime, retryAttemptsRemaining, priority, priorityValue);
+        this.jobData = jobData;
+    }
+
+    /**
+     * Creates a job whose data is loaded by the given loader on first access
+     */
+    public Job(final UUID jobId,
+               final Supplier<JsonObject> jobDataLoader,
+               final String nextTask,
+               final ZonedDateTime nextTaskStartTime,
+               final Optional<UUID> workerId,
+               final Optional<ZonedDateTime> workerLockTime,
+               final Integer retryAttemptsRemaining,
+               final Priority priority,
+               final int priorityValue) {
         this.jobId = jobId;
         this.workerId = workerId;
         this.workerLockTime = workerLockTime;
-        this.jobData = jobData;
+        this.jobDataLoader = jobDataLoader;
         this.nextTask = nextTask;
         this.nextTaskStartTime = nextTaskStartTime;
         this.retryAttemptsRemaining = retryAttemptsRemaining;
         this.priority = priority;
+        this.priorityValue = priorityValue;
     }
 
     @Override
@@ -46,6 +88,7 @@ public class Job {
                 .append(", nextTaskStartTime=").append(nextTaskStartTime)
                 .append(", retryAttemptsRemaining=").append(retryAttemptsRemaining)
                 .append(", priority=").append(priority)
+                .append(", priorityValue=").append(priorityValue)
                 .append("]");
 
         return sb.toString();
@@ -56,7 +99,20 @@ public class Job {
     }
 
     public JsonObject getJobData() {
-        return jobData;
+        JsonObject loadedJobData = jobData;
+
+        if (loadedJobData == null) {
+            synchronized (this) {
+                loadedJobData = jobData;
+
+                if (loadedJobData == null) {
+                    loadedJobData = jobDataLoader.get();
+                    jobData = loadedJobData;
+                }
+            }
+        }
+
+        return loadedJobData;
     }
 
     public Optional<UUID> getWorkerId() {
@@ -87,33 +143,49 @@ public class Job {
         return priority;
     }
 
+    /**
+     * @return the numeric priority of the job, that of its named priority unless it was given
+     * its own
+     */
+    public int getPriorityValue() {
+        return priorityValue;
+    }
+
     public static class Builder {
 
         private UUID jobId;
         private JsonObject jobData;
+        private Supplier<JsonObject> jobDataLoader;
         private Optional<UUID> workerId;
         private Optional<ZonedDateTime> workerLockTime;
         private String nextTask;
         private ZonedDateTime nextTaskStartTime;
         private Integer retryAttemptsRemaining;
         private Priority priority;
+        private int priorityValue;
 
         private Builder(){}
 
         public Builder from(final Job job) {
             this.jobId = job.jobId;
             this.jobData = job.jobData;
+            this.jobDataLoader = job.jobDataLoader;
             this.workerId = job.workerId;
             this.workerLockTime = job.workerLockTime;
             this.nextTask = job.nextTask;
             this.nextTaskStartTime = job.nextTaskStartTime;
             this.retryAttemptsRemaining = job.retryAttemptsRemaining;
             this.priority = job.priority;
+            this.priorityValue = job.priorityValue;
             return this;
         }
 
         public Job build() {
-            return new Job(jobId, jobData, nextTask, nextTaskStartTime, workerId, workerLockTime, retryAttemptsRemaining, priority);
+            if (jobData == null && jobDataLoader != null) {
+                return new Job(jobId, jobDataLoader, nextTask, nextTaskStartTime, workerId, workerLockTime, retryAttemptsRemaining, priority, priorityValue);
+            }
+
+            return new Job(jobId, jobData, nextTask, nextTaskStartTime, workerId, workerLockTime, retryAttemptsRemaining, priority, priorityValue);
         }
 
         public Builder withJobId(final UUID jobId) {
@@ -123,6 +195,7 @@ public class Job {
 
         public Builder withJobData(final JsonObject jobData) {
             this.jobData = jobData;
+            this.jobDataLoader = null;
             return this;
         }
 
@@ -153,6 +226,16 @@ public class Job {
 
         public Builder withPriority(final Priority priority) {
             this.priority = priority;
+            this.priorityValue = priority.getValue();
+            return this;
+        }
+
+        /**
+         * Sets a numeric priority, claimed with the jobs of the closest named priority
+         */
+        public Builder withPriorityValue(final int priorityValue) {
+            this.priority = Priority.closestTo(priorityValue);
+            this.priorityValue = priorityValue;
             return this;
         }
     }
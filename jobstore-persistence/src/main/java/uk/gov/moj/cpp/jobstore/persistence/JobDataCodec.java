@@ -0,0 +1,22 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import javax.json.JsonObject;
+
+/**
+ * Encodes job data for storage in place of jsonb, e.g. in a compact or compressed binary form.
+ *
+ * Codecs are CDI beans, looked up by name through {@link JobDataCodecs}; the codec data is
+ * stored with is selected by 'jobstore.job.data.codec'. The name is stored with the encoded data,
+ * so a codec must go on decoding data it encoded for as long as any such rows remain.
+ */
+public interface JobDataCodec {
+
+    /**
+     * @return the name the codec is selected and stored by
+     */
+    String getName();
+
+    byte[] encode(final JsonObject jobData);
+
+    JsonObject decode(final byte[] encodedJobData);
+}
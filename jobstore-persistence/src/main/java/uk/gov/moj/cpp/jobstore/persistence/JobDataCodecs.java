@@ -0,0 +1,45 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+/**
+ * Looks up the {@link JobDataCodec} beans by name, for encoding job data with the configured
+ * codec and decoding it with the codec it was stored with
+ */
+@ApplicationScoped
+public class JobDataCodecs {
+
+    /**
+     * The name that selects storing job data as jsonb, unencoded
+     */
+    public static final String JSONB = "jsonb";
+
+    @Inject
+    protected Instance<JobDataCodec> jobDataCodecBeans;
+
+    private final Map<String, JobDataCodec> jobDataCodecsByName = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException if no codec of the given name is deployed
+     */
+    public JobDataCodec codecNamed(final String codecName) {
+        return jobDataCodecsByName.computeIfAbsent(codecName, this::findCodecNamed);
+    }
+
+    private JobDataCodec findCodecNamed(final String codecName) {
+        for (final JobDataCodec jobDataCodec : jobDataCodecBeans) {
+            if (jobDataCodec.getName().equals(codecName)) {
+                return jobDataCodec;
+            }
+        }
+
+        throw new IllegalStateException(format("No job data codec named '%s' is deployed", codecName));
+    }
+}
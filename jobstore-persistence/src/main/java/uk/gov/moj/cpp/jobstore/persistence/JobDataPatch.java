@@ -0,0 +1,97 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * The top level fields of a job's data that a task added, changed or removed, so that only those
+ * fields need be sent when the job data is stored. Fields whose values are equal in the original
+ * and updated data are left out; nested values are compared, and sent, whole. The updated data is
+ * kept too, for storing whole where the patch cannot be applied, e.g. to encoded job data.
+ */
+public class JobDataPatch {
+
+    private final JsonObject updatedJobData;
+    private final JsonObject changedFields;
+    private final List<String> removedFields;
+
+    public JobDataPatch(final JsonObject updatedJobData, final JsonObject changedFields, final List<String> removedFields) {
+        this.updatedJobData = updatedJobData;
+        this.changedFields = changedFields;
+        this.removedFields = removedFields;
+    }
+
+    /**
+     * @return the fields of the updated data that are new or differ from the original, and the
+     * names of the fields of the original that the updated data no longer has
+     */
+    public static JobDataPatch between(final JsonObject originalJobData, final JsonObject updatedJobData) {
+        final JsonObjectBuilder changedFields = jsonBuilderFactory.createObjectBuilder();
+
+        updatedJobData.forEach((name, value) -> {
+            if (!value.equals(originalJobData.get(name))) {
+                changedFields.add(name, value);
+            }
+        });
+
+        final List<String> removedFields = originalJobData.keySet().stream()
+                .filter(name -> !updatedJobData.containsKey(name))
+                .toList();
+
+        return new JobDataPatch(updatedJobData, changedFields.build(), removedFields);
+    }
+
+    /**
+     * @return the job data as the task left it
+     */
+    public JsonObject getUpdatedJobData() {
+        return updatedJobData;
+    }
+
+    public JsonObject getChangedFields() {
+        return changedFields;
+    }
+
+    public List<String> getRemovedFields() {
+        return removedFields;
+    }
+
+    /**
+     * @return true if the task left the job data as it was, so there is nothing to store
+     */
+    public boolean isEmpty() {
+        return changedFields.isEmpty() && removedFields.isEmpty();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final JobDataPatch that = (JobDataPatch) o;
+        return Objects.equals(updatedJobData, that.updatedJobData) &&
+                Objects.equals(changedFields, that.changedFields) &&
+                Objects.equals(removedFields, that.removedFields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(updatedJobData, changedFields, removedFields);
+    }
+
+    @Override
+    public String toString() {
+        return "JobDataPatch [" +
+                "changedFields=" + changedFields +
+                ", removedFields=" + removedFields +
+                "]";
+    }
+}
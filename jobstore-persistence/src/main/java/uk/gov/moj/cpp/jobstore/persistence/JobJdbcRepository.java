@@ -3,11 +3,14 @@ package uk.gov.moj.cpp.jobstore.persistence;
 import static java.lang.Long.valueOf;
 import static java.lang.String.format;
 import static java.time.ZonedDateTime.now;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 import static java.util.Optional.of;
 import static java.util.UUID.fromString;
+import static java.util.stream.Collectors.joining;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
 import static uk.gov.justice.services.messaging.JsonObjects.jsonReaderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs.JSONB;
 
 import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
 import uk.gov.justice.services.common.converter.ZonedDateTimes;
@@ -17,9 +20,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.StringJoiner;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -33,18 +41,114 @@ import org.slf4j.Logger;
 @ApplicationScoped
 public class JobJdbcRepository implements JobRepository {
 
-    private static final String INSERT_JOB_SQL = "INSERT INTO job(job_id,worker_id,worker_lock_time,next_task,next_task_start_time,job_data,retry_attempts_remaining,priority) values (?,?,?,?,?,to_jsonb(?::json),?,?)";
-    private static final String UPDATE_JOB_DATA_SQL = "UPDATE job SET job_data = to_jsonb(?::json) WHERE job_id = ?";
-    private static final String UPDATE_NEXT_TASK_DETAILS_SQL = "UPDATE job set next_task= ?, next_task_start_time= ?, retry_attempts_remaining= ? where job_id= ? ";
-    private static final String UPDATE_NEXT_TASK_RETRY_DETAILS_SQL = "UPDATE job set next_task_start_time= ?, retry_attempts_remaining= ? where job_id= ? ";
-    private static final String DELETE_JOB_SQL = "DELETE from job where job_id= ? ";
+    /**
+     * The lock and scheduling state of a job is kept in the narrow table 'job', so that claiming
+     * and rescheduling it does not rewrite its data, which is kept in the table 'job_payload'.
+     * Job data is written to 'job_payload' as jsonb or, if large enough and a codec is configured,
+     * encoded; see {@link #setJobData}.
+     */
+    private static final String INSERT_JOB_SQL = "WITH inserted_job AS (INSERT INTO job(job_id,worker_id,worker_lock_time,next_task,next_task_start_time,retry_attempts_remaining,priority,priority_value,effective_start_time) values (?,?,?,?,?,?,?,?,?) RETURNING job_id) " +
+            "INSERT INTO job_payload(job_id,job_data,job_data_encoded,job_data_codec) SELECT job_id, ?::jsonb, ?::bytea, ? FROM inserted_job";
+    /**
+     * Inserts a batch of jobs, given as one array per column, in a single statement. Job data is
+     * parsed straight to jsonb.
+     */
+    private static final String INSERT_JOBS_SQL = "WITH inserted_job AS (INSERT INTO job(job_id,worker_id,worker_lock_time,next_task,next_task_start_time,retry_attempts_remaining,priority,priority_value,effective_start_time) " +
+            "SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::timestamptz[], ?::text[], ?::timestamptz[], ?::int[], ?::text[], ?::int[], ?::timestamptz[]) RETURNING job_id) " +
+            "INSERT INTO job_payload(job_id,job_data,job_data_encoded,job_data_codec) SELECT job_id, job_data::jsonb, job_data_encoded, job_data_codec " +
+            "FROM unnest(?::uuid[], ?::text[], ?::bytea[], ?::text[]) AS payload(job_id, job_data, job_data_encoded, job_data_codec)";
+    private static final int INSERT_JOBS_BATCH_SIZE = 5000;
+    private static final String JOB_DATA_ASSIGNMENT = "job_data = ?::jsonb, job_data_encoded = ?::bytea, job_data_codec = ?";
+    private static final String UPDATE_JOB_DATA_SQL = "UPDATE job_payload SET " + JOB_DATA_ASSIGNMENT + " WHERE job_id = ?";
+    private static final String EFFECTIVE_START_TIME = "?::timestamptz - make_interval(secs => priority_value * ?)";
+    private static final String UPDATE_NEXT_TASK_DETAILS_SQL = "UPDATE job set next_task= ?, next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ? where job_id= ? ";
+    private static final String UPDATE_NEXT_TASK_RETRY_DETAILS_SQL = "UPDATE job set next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ? where job_id= ? ";
+    private static final String UPDATE_NEXT_TASK_AND_RELEASE_JOB_SQL = "WITH updated_payload AS (UPDATE job_payload SET " + JOB_DATA_ASSIGNMENT + " WHERE job_id = ?) " +
+            "UPDATE job set next_task= ?, next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ?, worker_id= null, worker_lock_time= null where job_id= ? ";
+    /**
+     * Patches job data stored as jsonb; a job whose data is stored encoded is left untouched, and
+     * no row is updated, as the patch cannot be applied to it in the database
+     */
+    private static final String UPDATE_NEXT_TASK_PATCHING_JOB_DATA_AND_RELEASE_JOB_SQL = "WITH updated_payload AS (UPDATE job_payload SET job_data = (job_data - ?::text[]) || ?::jsonb " +
+            "WHERE job_id = ? AND job_data IS NOT NULL RETURNING job_id) " +
+            "UPDATE job set next_task= ?, next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ?, worker_id= null, worker_lock_time= null " +
+            "where job_id= ? AND EXISTS (SELECT 1 FROM updated_payload)";
+    private static final String UPDATE_NEXT_TASK_KEEPING_JOB_DATA_AND_RELEASE_JOB_SQL = "UPDATE job set next_task= ?, next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ?, worker_id= null, worker_lock_time= null where job_id= ? ";
+    private static final String UPDATE_NEXT_TASK_RETRY_DETAILS_AND_RELEASE_JOB_SQL = "UPDATE job set next_task_start_time= ?, effective_start_time= " + EFFECTIVE_START_TIME + ", retry_attempts_remaining= ?, worker_id= null, worker_lock_time= null where job_id= ? ";
+    private static final String DELETE_JOB_SQL = "WITH deleted_job AS (DELETE from job where job_id= ? RETURNING job_id) " +
+            "DELETE FROM job_payload WHERE job_id IN (SELECT job_id FROM deleted_job)";
+    private static final String DELETE_JOBS_SQL = "WITH deleted_job AS (DELETE FROM job USING unnest(?::uuid[], ?::uuid[]) AS completed_job(job_id, worker_id) " +
+            "WHERE job.job_id = completed_job.job_id AND job.worker_id = completed_job.worker_id RETURNING job.job_id) " +
+            "DELETE FROM job_payload WHERE job_id IN (SELECT job_id FROM deleted_job)";
     private static final String RELEASE_JOB_SQL = "UPDATE job set worker_id= null, worker_lock_time= null where job_id= ? ";
-    private static final String JOBS_LOCKED_TO_SQL = "SELECT job_id, job_data, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority from job WHERE worker_id= ?";
+    private static final String RENEW_JOB_LEASES_SQL = "UPDATE job SET worker_lock_time= ? FROM unnest(?::uuid[], ?::uuid[]) AS lease(job_id, worker_id) " +
+            "WHERE job.job_id = lease.job_id AND job.worker_id = lease.worker_id";
 
-    private static final String LOCK_JOBS_SQL = "UPDATE job SET worker_id= ? , worker_lock_time= ? WHERE job_id in " +
-            "(SELECT job_id FROM job WHERE (worker_id IS NULL OR worker_lock_time < ?) " +
-            "AND priority = ? AND next_task_start_time < ? LIMIT ? FOR UPDATE SKIP LOCKED) " +
-            "AND (worker_id IS NULL OR worker_lock_time < ?)";
+    private static final String JOB_HANDLE_COLUMNS = "job.job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority, priority_value";
+    private static final String JOB_COLUMNS = JOB_HANDLE_COLUMNS + ", job_payload.job_data, job_payload.job_data_encoded, job_payload.job_data_codec";
+    private static final String JOBS_LOCKED_TO_SQL = "SELECT " + JOB_COLUMNS + " from job JOIN job_payload ON job_payload.job_id = job.job_id WHERE worker_id= ?";
+    private static final String JOB_HANDLES_LOCKED_TO_SQL = "SELECT " + JOB_HANDLE_COLUMNS + " from job WHERE worker_id= ?";
+    private static final String JOB_DATA_SQL = "SELECT job_data, job_data_encoded, job_data_codec FROM job_payload WHERE job_id = ?";
+    private static final String CLAIMED_JOB_PAYLOAD_CONDITION = "job_payload.job_id = job.job_id";
+    private static final String UNLOCKED_JOBS_CONDITION = "worker_id IS NULL";
+    private static final String LEASE_EXPIRED_JOBS_CONDITION = "worker_id IS NOT NULL AND worker_lock_time < ?";
+    private static final String DUE_JOBS_CONDITION = "priority = ? AND next_task_start_time < ? AND next_task <> ALL(?)";
+    private static final String CLAIMABLE_JOBS_CONDITION = "(worker_id IS NULL OR worker_lock_time < ?) AND priority = ? AND next_task_start_time < ?";
+    private static final int FAIR_CLAIM_CANDIDATE_SLACK = 2;
+
+    /**
+     * Counts the due, unclaimed jobs of each priority up to a limit, so the count stays cheap
+     * however deep the backlog, and finds the start time of the longest waiting job of each.
+     * Jobs due within the lookahead are counted as due, as they are claimed with them.
+     * Unlocked jobs and jobs whose lease has expired are looked up apart, so that each reads its
+     * own partial index.
+     */
+    private static final String PRIORITY_BACKLOGS_SQL = "SELECT p.priority, LEAST(" +
+            "(SELECT count(*) FROM (SELECT 1 FROM job WHERE priority = p.priority AND worker_id IS NULL AND next_task_start_time < ? LIMIT ?) AS waiting) + " +
+            "(SELECT count(*) FROM job WHERE priority = p.priority AND worker_id IS NOT NULL AND worker_lock_time < ? AND next_task_start_time < ?), ?) AS depth, LEAST(" +
+            "(SELECT min(next_task_start_time) FROM job WHERE priority = p.priority AND worker_id IS NULL AND next_task_start_time < ?), " +
+            "(SELECT min(next_task_start_time) FROM job WHERE priority = p.priority AND worker_id IS NOT NULL AND worker_lock_time < ? AND next_task_start_time < ?)) AS oldest_start_time " +
+            "FROM unnest(?::text[]) AS p(priority)";
+
+    /**
+     * Claims the jobs with the earliest effective start time, i.e. the highest priority once aged
+     * by the time waited past their start time. The effective start time can be no later than the
+     * start time, so bounding it too keeps the scan of its index to jobs that may be due.
+     */
+    private static final String CLAIM_BY_EFFECTIVE_PRIORITY_SQL = "WITH claim AS (SELECT job_id FROM job " +
+            "WHERE (worker_id IS NULL OR worker_lock_time < ?) AND effective_start_time < ? AND next_task_start_time < ? AND next_task <> ALL(?) " +
+            "ORDER BY effective_start_time LIMIT ? FOR UPDATE SKIP LOCKED) ";
+    private static final String CLAIMED_BY_EFFECTIVE_PRIORITY_CONDITION = "job.job_id IN (SELECT job_id FROM claim) AND (worker_id IS NULL OR worker_lock_time < ?)";
+    private static final String CLAIM_JOBS_BY_EFFECTIVE_PRIORITY_SQL = CLAIM_BY_EFFECTIVE_PRIORITY_SQL + lockClaimedJobsSql(CLAIMED_BY_EFFECTIVE_PRIORITY_CONDITION, true);
+    private static final String CLAIM_JOB_HANDLES_BY_EFFECTIVE_PRIORITY_SQL = CLAIM_BY_EFFECTIVE_PRIORITY_SQL + lockClaimedJobsSql(CLAIMED_BY_EFFECTIVE_PRIORITY_CONDITION, false);
+
+    /**
+     * Claim statements indexed by the number of priorities claimed from, less one
+     */
+    private static final String[] CLAIM_JOBS_SQL = IntStream.rangeClosed(1, Priority.values().length)
+            .mapToObj(priorityCount -> claimJobsSql(priorityCount, true))
+            .toArray(String[]::new);
+
+    /**
+     * Claim statements returning job handles, without their data, indexed as {@link #CLAIM_JOBS_SQL}
+     */
+    private static final String[] CLAIM_JOB_HANDLES_SQL = IntStream.rangeClosed(1, Priority.values().length)
+            .mapToObj(priorityCount -> claimJobsSql(priorityCount, false))
+            .toArray(String[]::new);
+
+    /**
+     * Fair claim statements indexed by the number of priorities claimed from, less one
+     */
+    private static final String[] CLAIM_JOBS_FAIRLY_SQL = IntStream.rangeClosed(1, Priority.values().length)
+            .mapToObj(priorityCount -> claimJobsFairlySql(priorityCount, true))
+            .toArray(String[]::new);
+
+    /**
+     * Fair claim statements returning job handles, without their data, indexed as {@link #CLAIM_JOBS_FAIRLY_SQL}
+     */
+    private static final String[] CLAIM_JOB_HANDLES_FAIRLY_SQL = IntStream.rangeClosed(1, Priority.values().length)
+            .mapToObj(priorityCount -> claimJobsFairlySql(priorityCount, false))
+            .toArray(String[]::new);
 
     @Inject
     protected PreparedStatementWrapperFactory preparedStatementWrapperFactory;
@@ -58,6 +162,12 @@ public class JobJdbcRepository implements JobRepository {
     @Inject
     protected JobStoreDataSourceProvider jobStoreDataSourceProvider;
 
+    @Inject
+    protected JobStoreConfiguration jobStoreConfiguration;
+
+    @Inject
+    protected JobDataCodecs jobDataCodecs;
+
 
     @Override
     public void insertJob(final Job job) {
@@ -68,9 +178,11 @@ public class JobJdbcRepository implements JobRepository {
             ps.setTimestamp(3, convertToTimestamp(job.getWorkerLockTime()));
             ps.setString(4, job.getNextTask());
             ps.setTimestamp(5, convertToTimestamp(job.getNextTaskStartTime()));
-            ps.setString(6, job.getJobData().toString());
-            ps.setInt(7, job.getRetryAttemptsRemaining());
-            ps.setString(8, job.getPriority().name());
+            ps.setInt(6, job.getRetryAttemptsRemaining());
+            ps.setString(7, job.getPriority().name());
+            ps.setInt(8, job.getPriorityValue());
+            ps.setTimestamp(9, toSqlTimestamp(effectiveStartTimeOf(job)));
+            setJobData(ps, 10, job.getJobData());
             ps.executeUpdate();
         } catch (final SQLException e) {
             logger.error("Error storing job to the database", e);
@@ -79,12 +191,38 @@ public class JobJdbcRepository implements JobRepository {
         }
     }
 
+    @Override
+    public void insertJobs(final List<Job> jobs) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, INSERT_JOBS_SQL)) {
+            for (int fromIndex = 0; fromIndex < jobs.size(); fromIndex += INSERT_JOBS_BATCH_SIZE) {
+                final List<Job> batch = jobs.subList(fromIndex, Math.min(fromIndex + INSERT_JOBS_BATCH_SIZE, jobs.size()));
+                final String[] jobIds = batch.stream().map(job -> job.getJobId().toString()).toArray(String[]::new);
+
+                ps.setObject(1, jobIds);
+                ps.setObject(2, batch.stream().map(job -> job.getWorkerId().map(UUID::toString).orElse(null)).toArray(String[]::new));
+                ps.setObject(3, batch.stream().map(job -> timestampLiteralOf(job.getWorkerLockTime().orElse(null))).toArray(String[]::new));
+                ps.setObject(4, batch.stream().map(Job::getNextTask).toArray(String[]::new));
+                ps.setObject(5, batch.stream().map(job -> timestampLiteralOf(job.getNextTaskStartTime())).toArray(String[]::new));
+                ps.setObject(6, batch.stream().map(Job::getRetryAttemptsRemaining).toArray(Integer[]::new));
+                ps.setObject(7, batch.stream().map(job -> job.getPriority().name()).toArray(String[]::new));
+                ps.setObject(8, batch.stream().map(Job::getPriorityValue).toArray(Integer[]::new));
+                ps.setObject(9, batch.stream().map(job -> timestampLiteralOf(effectiveStartTimeOf(job))).toArray(String[]::new));
+                setJobData(ps, 10, jobIds, batch);
+                ps.executeUpdate();
+            }
+        } catch (final SQLException e) {
+            logger.error("Error storing jobs to the database", e);
+            throw new JdbcRepositoryException(format("Exception while storing %d job(s)", jobs.size()), e);
+        }
+    }
+
     @Override
     public void updateJobData(final UUID jobId, final JsonObject jobData) {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
         try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_JOB_DATA_SQL)) {
-            ps.setString(1, jobData.toString());
-            ps.setObject(2, jobId);
+            setJobData(ps, 1, jobData);
+            ps.setObject(4, jobId);
             ps.executeUpdate();
         } catch (final SQLException e) {
             logger.error("Error updating task data for the job", e);
@@ -98,8 +236,10 @@ public class JobJdbcRepository implements JobRepository {
         try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_DETAILS_SQL)) {
             ps.setObject(1, nextTask);
             ps.setTimestamp(2, nextTaskStartTime);
-            ps.setObject(3, retryAttemptsRemaining);
-            ps.setObject(4, jobId);
+            ps.setTimestamp(3, nextTaskStartTime);
+            ps.setLong(4, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(5, retryAttemptsRemaining);
+            ps.setObject(6, jobId);
             ps.executeUpdate();
         } catch (final SQLException e) {
             logger.error("Error updating next task details to the job", e);
@@ -112,8 +252,10 @@ public class JobJdbcRepository implements JobRepository {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
         try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_RETRY_DETAILS_SQL)) {
             ps.setTimestamp(1, nextTaskStartTime);
-            ps.setObject(2, retryAttemptsRemaining);
-            ps.setObject(3, jobId);
+            ps.setTimestamp(2, nextTaskStartTime);
+            ps.setLong(3, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(4, retryAttemptsRemaining);
+            ps.setObject(5, jobId);
             ps.executeUpdate();
         } catch (final SQLException e) {
             logger.error("Error updating next task retry details to the job", e);
@@ -122,25 +264,248 @@ public class JobJdbcRepository implements JobRepository {
     }
 
     @Override
-    public int lockJobsFor(final UUID workerId, final Priority priority, final int jobCountToLock) {
+    public void updateNextTaskAndReleaseJob(final UUID jobId, final JsonObject jobData, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_AND_RELEASE_JOB_SQL)) {
+            setJobData(ps, 1, jobData);
+            ps.setObject(4, jobId);
+            ps.setObject(5, nextTask);
+            ps.setTimestamp(6, nextTaskStartTime);
+            ps.setTimestamp(7, nextTaskStartTime);
+            ps.setLong(8, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(9, retryAttemptsRemaining);
+            ps.setObject(10, jobId);
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error updating next task and releasing the job", e);
+            throw new JdbcRepositoryException(format("Exception while storing next task and releasing job with job id %s", jobId), e);
+        }
+    }
+
+    @Override
+    public void updateNextTaskPatchingJobDataAndReleaseJob(final UUID jobId, final JobDataPatch jobDataPatch, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining) {
+        if (jobDataPatch.isEmpty()) {
+            updateNextTaskKeepingJobDataAndReleaseJob(jobId, nextTask, nextTaskStartTime, retryAttemptsRemaining);
+            return;
+        }
+
+        if (jobDataCodecFor(jobDataPatch.getUpdatedJobData().toString()).isPresent() || !patchJobDataUpdateNextTaskAndReleaseJob(jobId, jobDataPatch, nextTask, nextTaskStartTime, retryAttemptsRemaining)) {
+            updateNextTaskAndReleaseJob(jobId, jobDataPatch.getUpdatedJobData(), nextTask, nextTaskStartTime, retryAttemptsRemaining);
+        }
+    }
+
+    private boolean patchJobDataUpdateNextTaskAndReleaseJob(final UUID jobId, final JobDataPatch jobDataPatch, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_PATCHING_JOB_DATA_AND_RELEASE_JOB_SQL)) {
+            ps.setObject(1, jobDataPatch.getRemovedFields().toArray(new String[0]));
+            ps.setString(2, jobDataPatch.getChangedFields().toString());
+            ps.setObject(3, jobId);
+            ps.setObject(4, nextTask);
+            ps.setTimestamp(5, nextTaskStartTime);
+            ps.setTimestamp(6, nextTaskStartTime);
+            ps.setLong(7, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(8, retryAttemptsRemaining);
+            ps.setObject(9, jobId);
+            return ps.executeUpdate() > 0;
+        } catch (final SQLException e) {
+            logger.error("Error patching job data, updating next task and releasing the job", e);
+            throw new JdbcRepositoryException(format("Exception while patching job data and storing next task of job with job id %s", jobId), e);
+        }
+    }
+
+    private void updateNextTaskKeepingJobDataAndReleaseJob(final UUID jobId, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_KEEPING_JOB_DATA_AND_RELEASE_JOB_SQL)) {
+            ps.setObject(1, nextTask);
+            ps.setTimestamp(2, nextTaskStartTime);
+            ps.setTimestamp(3, nextTaskStartTime);
+            ps.setLong(4, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(5, retryAttemptsRemaining);
+            ps.setObject(6, jobId);
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error updating next task and releasing the job", e);
+            throw new JdbcRepositoryException(format("Exception while storing next task and releasing job with job id %s", jobId), e);
+        }
+    }
+
+    @Override
+    public void updateNextTaskRetryDetailsAndReleaseJob(final UUID jobId, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining) {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, UPDATE_NEXT_TASK_RETRY_DETAILS_AND_RELEASE_JOB_SQL)) {
+            ps.setTimestamp(1, nextTaskStartTime);
+            ps.setTimestamp(2, nextTaskStartTime);
+            ps.setLong(3, jobStoreConfiguration.getPriorityAgingSecondsPerPoint());
+            ps.setObject(4, retryAttemptsRemaining);
+            ps.setObject(5, jobId);
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error updating next task retry details and releasing the job", e);
+            throw new JdbcRepositoryException(format("Exception while storing next task retry details and releasing job with job id %s", jobId), e);
+        }
+    }
+
+    @Override
+    public int lockJobsFor(final UUID workerId, final Priority priority, final int jobCountToLock) {
         logger.debug("Locking jobs for worker: {}", workerId);
 
+        try (final Stream<Job> lockedJobs = claimJobsFor(workerId, List.of(priority), jobCountToLock, List.of())) {
+            return (int) lockedJobs.count();
+        }
+    }
+
+    @Override
+    public Stream<Job> claimJobsFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final List<String> excludedTaskNames) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        logger.debug("Claiming jobs for worker: {}", workerId);
+
+        final ZonedDateTime now = now();
+        final Timestamp leaseExpiredBefore = leaseExpiredBefore(now);
+        final Timestamp startTimeBefore = toSqlTimestamp(now.plusSeconds(jobStoreConfiguration.getLookaheadSeconds()));
+
+        try {
+            final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, (lazyJobData() ? CLAIM_JOB_HANDLES_SQL : CLAIM_JOBS_SQL)[orderedPriorities.size() - 1]);
+
+            int parameterIndex = 1;
+            for (final Priority priority : orderedPriorities) {
+                ps.setTimestamp(parameterIndex++, leaseExpiredBefore);
+                ps.setString(parameterIndex++, priority.name());
+                ps.setTimestamp(parameterIndex++, startTimeBefore);
+                ps.setObject(parameterIndex++, excludedTaskNames.toArray(new String[0]));
+                ps.setLong(parameterIndex++, valueOf(jobCountToClaim));
+                ps.setString(parameterIndex++, priority.name());
+                ps.setTimestamp(parameterIndex++, startTimeBefore);
+                ps.setObject(parameterIndex++, excludedTaskNames.toArray(new String[0]));
+                ps.setLong(parameterIndex++, valueOf(jobCountToClaim));
+            }
+            ps.setObject(parameterIndex++, workerId);
+            ps.setTimestamp(parameterIndex++, toSqlTimestamp(now));
+            ps.setTimestamp(parameterIndex++, leaseExpiredBefore);
+            ps.setObject(parameterIndex, namesOf(orderedPriorities));
+
+            return jdbcResultSetStreamer.streamOf(ps, mapClaimedJobFromResultSet());
+        } catch (final SQLException e) {
+            logger.error("Error claiming jobs", e);
+            throw new JdbcRepositoryException(format("Exception while claiming jobs for worker id %s", workerId), e);
+        }
+    }
+
+    @Override
+    public Stream<Job> claimJobsByEffectivePriorityFor(final UUID workerId, final int jobCountToClaim, final List<String> excludedTaskNames) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        logger.debug("Claiming jobs by effective priority for worker: {}", workerId);
+
+        final ZonedDateTime now = now();
+        final Timestamp leaseExpiredBefore = leaseExpiredBefore(now);
+        final Timestamp startTimeBefore = toSqlTimestamp(now.plusSeconds(jobStoreConfiguration.getLookaheadSeconds()));
+
+        try {
+            final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, lazyJobData() ? CLAIM_JOB_HANDLES_BY_EFFECTIVE_PRIORITY_SQL : CLAIM_JOBS_BY_EFFECTIVE_PRIORITY_SQL);
+            ps.setTimestamp(1, leaseExpiredBefore);
+            ps.setTimestamp(2, startTimeBefore);
+            ps.setTimestamp(3, startTimeBefore);
+            ps.setObject(4, excludedTaskNames.toArray(new String[0]));
+            ps.setLong(5, valueOf(jobCountToClaim));
+            ps.setObject(6, workerId);
+            ps.setTimestamp(7, toSqlTimestamp(now));
+            ps.setTimestamp(8, leaseExpiredBefore);
+
+            return jdbcResultSetStreamer.streamOf(ps, mapClaimedJobFromResultSet());
+        } catch (final SQLException e) {
+            logger.error("Error claiming jobs by effective priority", e);
+            throw new JdbcRepositoryException(format("Exception while claiming jobs by effective priority for worker id %s", workerId), e);
+        }
+    }
+
+    @Override
+    public Stream<Job> claimJobsFairlyFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final Map<String, Integer> weightByTaskName) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        logger.debug("Claiming jobs fairly across tasks for worker: {}", workerId);
+
+        final ZonedDateTime now = now();
+        final Timestamp leaseExpiredBefore = leaseExpiredBefore(now);
+        final Timestamp startTimeBefore = toSqlTimestamp(now.plusSeconds(jobStoreConfiguration.getLookaheadSeconds()));
+        final List<String> taskNames = weightByTaskName.keySet().stream().sorted().toList();
+        final Integer[] weights = taskNames.stream().map(weightByTaskName::get).toArray(Integer[]::new);
+
+        try {
+            final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, (lazyJobData() ? CLAIM_JOB_HANDLES_FAIRLY_SQL : CLAIM_JOBS_FAIRLY_SQL)[orderedPriorities.size() - 1]);
+
+            int parameterIndex = 1;
+            for (final Priority priority : orderedPriorities) {
+                ps.setObject(parameterIndex++, taskNames.toArray(new String[0]));
+                ps.setObject(parameterIndex++, weights);
+                parameterIndex = setClaimableJobsParameters(ps, parameterIndex, leaseExpiredBefore, priority, startTimeBefore);
+                ps.setLong(parameterIndex++, valueOf(jobCountToClaim));
+                parameterIndex = setClaimableJobsParameters(ps, parameterIndex, leaseExpiredBefore, priority, startTimeBefore);
+            }
+            ps.setObject(parameterIndex++, workerId);
+            ps.setTimestamp(parameterIndex++, toSqlTimestamp(now));
+            ps.setTimestamp(parameterIndex++, leaseExpiredBefore);
+            ps.setObject(parameterIndex, namesOf(orderedPriorities));
+
+            return jdbcResultSetStreamer.streamOf(ps, mapClaimedJobFromResultSet());
+        } catch (final SQLException e) {
+            logger.error("Error claiming jobs fairly across tasks", e);
+            throw new JdbcRepositoryException(format("Exception while claiming jobs fairly across tasks for worker id %s", workerId), e);
+        }
+    }
+
+    @Override
+    public List<PriorityBacklog> findPriorityBacklogs(final int depthLimit) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
         final ZonedDateTime now = now();
-        final Timestamp oneHourAgo = toSqlTimestamp((now.minusHours(1)));
+        final Timestamp leaseExpiredBefore = leaseExpiredBefore(now);
+        final Timestamp startTimeBefore = toSqlTimestamp(now.plusSeconds(jobStoreConfiguration.getLookaheadSeconds()));
+        final String[] priorities = Stream.of(Priority.values()).map(Priority::name).toArray(String[]::new);
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, PRIORITY_BACKLOGS_SQL)) {
+            ps.setTimestamp(1, startTimeBefore);
+            ps.setLong(2, valueOf(depthLimit));
+            ps.setTimestamp(3, leaseExpiredBefore);
+            ps.setTimestamp(4, startTimeBefore);
+            ps.setLong(5, valueOf(depthLimit));
+            ps.setTimestamp(6, startTimeBefore);
+            ps.setTimestamp(7, leaseExpiredBefore);
+            ps.setTimestamp(8, startTimeBefore);
+            ps.setObject(9, priorities);
 
-        try (final PreparedStatementWrapper preparedStatementWrapper = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, LOCK_JOBS_SQL)) {
-            preparedStatementWrapper.setObject(1, workerId);
-            preparedStatementWrapper.setTimestamp(2, toSqlTimestamp(now));
-            preparedStatementWrapper.setTimestamp(3, oneHourAgo);
-            preparedStatementWrapper.setString(4, priority.toString());
-            preparedStatementWrapper.setTimestamp(5, toSqlTimestamp(now));
-            preparedStatementWrapper.setLong(6, valueOf(jobCountToLock));
-            preparedStatementWrapper.setTimestamp(7, oneHourAgo);
-            return preparedStatementWrapper.executeUpdate();
+            final List<PriorityBacklog> priorityBacklogs = new ArrayList<>();
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    priorityBacklogs.add(new PriorityBacklog(
+                            Priority.valueOf(resultSet.getString("priority")),
+                            resultSet.getInt("depth"),
+                            Optional.ofNullable(getZoneDateTime(resultSet, "oldest_start_time"))));
+                }
+            }
+            return priorityBacklogs;
         } catch (final SQLException e) {
-            logger.error("Error locking jobs", e);
-            throw new JdbcRepositoryException(format("Exception while locking jobs for with worker id %s", workerId), e);
+            logger.error("Error finding priority backlogs", e);
+            throw new JdbcRepositoryException("Exception while finding the backlog of each priority", e);
+        }
+    }
+
+    @Override
+    public int renewJobLeases(final Map<UUID, UUID> workerIdsByJobId) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        final String[] jobIds = new String[workerIdsByJobId.size()];
+        final String[] workerIds = new String[workerIdsByJobId.size()];
+
+        int index = 0;
+        for (final Map.Entry<UUID, UUID> lease : workerIdsByJobId.entrySet()) {
+            jobIds[index] = lease.getKey().toString();
+            workerIds[index++] = lease.getValue().toString();
+        }
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, RENEW_JOB_LEASES_SQL)) {
+            ps.setTimestamp(1, toSqlTimestamp(now()));
+            ps.setObject(2, jobIds);
+            ps.setObject(3, workerIds);
+            return ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error renewing job leases", e);
+            throw new JdbcRepositoryException(format("Exception while renewing leases of %d job(s)", workerIdsByJobId.size()), e);
         }
     }
 
@@ -149,15 +514,35 @@ public class JobJdbcRepository implements JobRepository {
 
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
         try {
-            final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, JOBS_LOCKED_TO_SQL);
+            final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, lazyJobData() ? JOB_HANDLES_LOCKED_TO_SQL : JOBS_LOCKED_TO_SQL);
             ps.setObject(1, workerId);
-            return jdbcResultSetStreamer.streamOf(ps, mapAssignedJobFromResultSet());
+            return jdbcResultSetStreamer.streamOf(ps, mapClaimedJobFromResultSet());
         } catch (SQLException e) {
             logger.error("Error retrieving locked jobs for workerId " + workerId, e);
             throw new JdbcRepositoryException(format("Exception while retrieving jobs locked to worker id %s", workerId), e);
         }
     }
 
+    @Override
+    public JsonObject findJobData(final UUID jobId) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, JOB_DATA_SQL)) {
+            ps.setObject(1, jobId);
+
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new JdbcRepositoryException(format("No job data found for job id %s", jobId));
+                }
+
+                return jobDataOf(resultSet);
+            }
+        } catch (final SQLException e) {
+            logger.error("Error retrieving job data for job id " + jobId, e);
+            throw new JdbcRepositoryException(format("Exception while retrieving job data for job id %s", jobId), e);
+        }
+    }
+
     @Override
     public void deleteJob(final UUID jobId) {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
@@ -170,6 +555,28 @@ public class JobJdbcRepository implements JobRepository {
         }
     }
 
+    @Override
+    public int deleteJobs(final Map<UUID, UUID> workerIdsByJobId) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        final String[] jobIds = new String[workerIdsByJobId.size()];
+        final String[] workerIds = new String[workerIdsByJobId.size()];
+
+        int index = 0;
+        for (final Map.Entry<UUID, UUID> completedJob : workerIdsByJobId.entrySet()) {
+            jobIds[index] = completedJob.getKey().toString();
+            workerIds[index++] = completedJob.getValue().toString();
+        }
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, DELETE_JOBS_SQL)) {
+            ps.setObject(1, jobIds);
+            ps.setObject(2, workerIds);
+            return ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error deleting jobs", e);
+            throw new JdbcRepositoryException(format("Exception while deleting %d completed job(s)", workerIdsByJobId.size()), e);
+        }
+    }
+
     @Override
     public void releaseJob(final UUID jobId) {
         final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
@@ -182,24 +589,202 @@ public class JobJdbcRepository implements JobRepository {
         }
     }
 
+    /**
+     * Builds a statement that claims up to the requested number of jobs from the first priority
+     * and tops the batch up from each following priority in turn, returning the claimed jobs.
+     *
+     * Each priority has two SKIP LOCKED sub-selects, each taking the jobs with the earliest start
+     * time first: one for jobs whose lease has expired, then one for unlocked jobs that reads the
+     * partial index on unlocked rows in order. The limit of each is the requested job count less
+     * the jobs already claimed by the sub-selects before it, so no more than the requested number
+     * of rows are ever locked. Jobs whose lease has expired are taken first as they are few and
+     * would otherwise wait behind a backlog of unlocked jobs.
+     *
+     * The claimed job ids are gathered into an array for the update to look up by primary key:
+     * the planner cannot estimate the computed limits, and joining on the sub-selects instead
+     * would have it scan the whole table. The data of each claimed job is joined from its payload
+     * row unless only job handles are claimed; see {@link #lockClaimedJobsSql}.
+     *
+     * Every sub-select, and the update, is bounded by the priorities claimed from, so that when the
+     * job table is partitioned by priority only the partitions of those priorities are read.
+     */
+    static String claimJobsSql(final int priorityCount, final boolean withJobData) {
+        final StringJoiner claims = new StringJoiner(", ", "WITH ", " ");
+        final List<String> claimNames = new ArrayList<>();
+
+        for (int priorityIndex = 1; priorityIndex <= priorityCount; priorityIndex++) {
+            claims.add(orderedClaimSql("reclaim_" + priorityIndex, LEASE_EXPIRED_JOBS_CONDITION, claimNames));
+            claimNames.add("reclaim_" + priorityIndex);
+            claims.add(orderedClaimSql("claim_" + priorityIndex, UNLOCKED_JOBS_CONDITION, claimNames));
+            claimNames.add("claim_" + priorityIndex);
+        }
+
+        return claims + lockClaimedJobsSql("job.job_id = ANY(ARRAY(" +
+                claimNames.stream().map(claimName -> "SELECT job_id FROM " + claimName).collect(joining(" UNION ALL ")) + ")) " +
+                "AND (worker_id IS NULL OR worker_lock_time < ?) AND priority = ANY(?)", withJobData);
+    }
+
+    /**
+     * Builds the update that locks the claimed jobs to the worker and returns them, joining the
+     * data of each from its payload row, which the update leaves untouched, if asked for.
+     * Without it only the job table is read, and the data is loaded when each job runs.
+     */
+    private static String lockClaimedJobsSql(final String claimedJobsCondition, final boolean withJobData) {
+        if (withJobData) {
+            return "UPDATE job SET worker_id= ?, worker_lock_time= ? FROM job_payload WHERE " + claimedJobsCondition + " AND " + CLAIMED_JOB_PAYLOAD_CONDITION + " " +
+                    "RETURNING " + JOB_COLUMNS;
+        }
+
+        return "UPDATE job SET worker_id= ?, worker_lock_time= ? WHERE " + claimedJobsCondition + " " +
+                "RETURNING " + JOB_HANDLE_COLUMNS;
+    }
+
+    private static String[] namesOf(final List<Priority> priorities) {
+        return priorities.stream().map(Priority::name).toArray(String[]::new);
+    }
+
+    private static String orderedClaimSql(final String claimName, final String lockCondition, final List<String> earlierClaimNames) {
+        final String alreadyClaimed = earlierClaimNames.stream()
+                .map(earlierClaimName -> " - (SELECT count(*) FROM " + earlierClaimName + ")")
+                .collect(joining());
+
+        return claimName + " AS (SELECT job_id FROM job WHERE " + lockCondition + " AND " + DUE_JOBS_CONDITION +
+                " ORDER BY next_task_start_time LIMIT GREATEST(?" + alreadyClaimed + ", 0) FOR UPDATE SKIP LOCKED)";
+    }
+
+    /**
+     * Sets the parameters of {@link #CLAIMABLE_JOBS_CONDITION}
+     *
+     * @return the index of the next parameter
+     */
+    private static int setClaimableJobsParameters(final PreparedStatementWrapper ps, final int parameterIndex, final Timestamp leaseExpiredBefore, final Priority priority, final Timestamp startTimeBefore) throws SQLException {
+        ps.setTimestamp(parameterIndex, leaseExpiredBefore);
+        ps.setString(parameterIndex + 1, priority.name());
+        ps.setTimestamp(parameterIndex + 2, startTimeBefore);
+        return parameterIndex + 3;
+    }
+
+    /**
+     * Builds a statement like {@link #claimJobsSql(int, boolean)} that shares the jobs claimed from each
+     * priority between the given tasks in proportion to their weights.
+     *
+     * Within a priority each task with jobs waiting has its own SKIP LOCKED sub-select, oldest job
+     * first, and the candidates are ranked within their task. Ordering the candidates by rank over
+     * weight, the virtual finish time of weighted fair queueing, interleaves the tasks so that a task
+     * with a deep backlog takes no more than its share of the batch while the others have jobs
+     * waiting, and the share of a task with nothing waiting goes to the rest.
+     *
+     * Each task locks no more candidates than its share of the jobs left to claim among the tasks
+     * with jobs waiting, plus {@link #FAIR_CLAIM_CANDIDATE_SLACK} to make up for the jobs of other
+     * tasks locked by concurrent claims, so a claim locks about the batch size rather than the batch
+     * size for every task. Candidates left out of the batch are only locked until the claim commits.
+     *
+     * Jobs of tasks not given are not claimed. Finding them would mean reading every claimable job
+     * of the priority, as the task index can only be searched for the tasks given.
+     */
+    private static String claimJobsFairlySql(final int priorityCount, final boolean withJobData) {
+        final StringJoiner claims = new StringJoiner(", ", "WITH ", " ");
+        final StringJoiner claimedJobIds = new StringJoiner(" UNION ALL ");
+        final StringBuilder alreadyClaimed = new StringBuilder();
+
+        for (int priorityIndex = 1; priorityIndex <= priorityCount; priorityIndex++) {
+            final String waitingTask = "waiting_task_" + priorityIndex;
+            final String jobCountLeft = "job_count_left_" + priorityIndex;
+            final String claim = "claim_" + priorityIndex;
+            final String jobCountLeftValue = "(SELECT job_count FROM " + jobCountLeft + ")";
+            final String waitingWeight = "(SELECT sum(weight) FROM " + waitingTask + ")";
+
+            claims.add(waitingTask + " AS (" +
+                    "SELECT name, weight FROM unnest(?::text[], ?::int[]) AS task(name, weight) " +
+                    "WHERE EXISTS (SELECT 1 FROM job WHERE " + CLAIMABLE_JOBS_CONDITION + " AND next_task = task.name))");
+            claims.add(jobCountLeft + " AS (SELECT GREATEST(?" + alreadyClaimed + ", 0) AS job_count)");
+            claims.add(claim + " AS (SELECT job_id FROM (" +
+                    "SELECT candidate.job_id, task.weight, row_number() OVER (PARTITION BY task.name ORDER BY candidate.next_task_start_time) AS task_rank " +
+                    "FROM " + waitingTask + " AS task CROSS JOIN LATERAL (" +
+                    "SELECT job_id, next_task_start_time FROM job WHERE " + CLAIMABLE_JOBS_CONDITION + " AND next_task = task.name " +
+                    "ORDER BY next_task_start_time LIMIT " + candidateLimitSql(jobCountLeftValue, waitingWeight) + " FOR UPDATE SKIP LOCKED) AS candidate" +
+                    ") AS ranked ORDER BY (task_rank - 1)::float8 / weight, task_rank LIMIT " + jobCountLeftValue + ")");
+            claimedJobIds.add("SELECT job_id FROM " + claim);
+            alreadyClaimed.append(" - (SELECT count(*) FROM ").append(claim).append(")");
+        }
+
+        return claims + lockClaimedJobsSql("job.job_id = ANY(ARRAY(" + claimedJobIds + ")) " +
+                "AND (worker_id IS NULL OR worker_lock_time < ?) AND priority = ANY(?)", withJobData);
+    }
+
+    private static String candidateLimitSql(final String jobCountLeft, final String waitingWeight) {
+        return "LEAST(" + jobCountLeft + ", CEIL(" + jobCountLeft + " * task.weight::float8 / " + waitingWeight + ")::int + " + FAIR_CLAIM_CANDIDATE_SLACK + ")";
+    }
+
+    /**
+     * @return the start time of the job brought forward by the aging seconds for each point of its
+     * priority
+     */
+    private ZonedDateTime effectiveStartTimeOf(final Job job) {
+        final long agingSeconds = job.getPriorityValue() * jobStoreConfiguration.getPriorityAgingSecondsPerPoint();
+        return job.getNextTaskStartTime().minusSeconds(agingSeconds);
+    }
+
+    private static String timestampLiteralOf(final ZonedDateTime zonedDateTime) {
+        return zonedDateTime == null ? null : ISO_OFFSET_DATE_TIME.format(zonedDateTime);
+    }
+
+    private Timestamp leaseExpiredBefore(final ZonedDateTime now) {
+        return toSqlTimestamp(now.minusSeconds(jobStoreConfiguration.getJobLeaseSeconds()));
+    }
+
+    /**
+     * @return the mapper of claimed jobs: job handles whose data is loaded on first access if
+     * lazy job data is enabled, otherwise jobs with their data
+     */
+    private Function<ResultSet, Job> mapClaimedJobFromResultSet() {
+        return lazyJobData() ? mapAssignedJobHandleFromResultSet() : mapAssignedJobFromResultSet();
+    }
+
     protected Function<ResultSet, Job> mapAssignedJobFromResultSet() {
         return resultSet -> {
             try {
                 return new Job(
                         fromString(resultSet.getString("job_id")),
-                        toJsonObject(resultSet.getString("job_data")),
+                        jobDataOf(resultSet),
+                        resultSet.getString("next_task"),
+                        getZoneDateTime(resultSet, "next_task_start_time"),
+                        of(getUUID(resultSet, "worker_id")),
+                        of(getZoneDateTime(resultSet, "worker_lock_time")),
+                        resultSet.getInt("retry_attempts_remaining"),
+                        Priority.valueOf(resultSet.getString("priority")),
+                        resultSet.getInt("priority_value"));
+            } catch (final SQLException e) {
+                throw new JdbcRepositoryException("Unexpected SQLException mapping ResultSet to Job instance", e);
+            }
+        };
+    }
+
+    protected Function<ResultSet, Job> mapAssignedJobHandleFromResultSet() {
+        return resultSet -> {
+            try {
+                final UUID jobId = fromString(resultSet.getString("job_id"));
+
+                return new Job(
+                        jobId,
+                        () -> findJobData(jobId),
                         resultSet.getString("next_task"),
                         getZoneDateTime(resultSet, "next_task_start_time"),
                         of(getUUID(resultSet, "worker_id")),
                         of(getZoneDateTime(resultSet, "worker_lock_time")),
                         resultSet.getInt("retry_attempts_remaining"),
-                        Priority.valueOf(resultSet.getString("priority")));
+                        Priority.valueOf(resultSet.getString("priority")),
+                        resultSet.getInt("priority_value"));
             } catch (final SQLException e) {
                 throw new JdbcRepositoryException("Unexpected SQLException mapping ResultSet to Job instance", e);
             }
         };
     }
 
+    private boolean lazyJobData() {
+        return jobStoreConfiguration.isLazyJobDataEnabled();
+    }
+
     protected ZonedDateTime getZoneDateTime(final ResultSet resultSet, final String column) throws SQLException {
         final Timestamp timestamp = resultSet.getTimestamp(column);
         return timestamp == null ? null : fromSqlTimestamp(timestamp);
@@ -220,6 +805,68 @@ public class JobJdbcRepository implements JobRepository {
         return ZonedDateTimes.toSqlTimestamp(date);
     }
 
+    /**
+     * Binds the three job data parameters starting at the given index: the data as jsonb, the
+     * encoded data and the name of its codec, leaving null whichever form is not stored
+     */
+    private void setJobData(final PreparedStatementWrapper ps, final int parameterIndex, final JsonObject jobData) throws SQLException {
+        final String jobDataJson = jobData.toString();
+        final Optional<JobDataCodec> jobDataCodec = jobDataCodecFor(jobDataJson);
+
+        ps.setString(parameterIndex, jobDataCodec.isPresent() ? null : jobDataJson);
+        ps.setObject(parameterIndex + 1, jobDataCodec.map(codec -> codec.encode(jobData)).orElse(null));
+        ps.setString(parameterIndex + 2, jobDataCodec.map(JobDataCodec::getName).orElse(null));
+    }
+
+    /**
+     * Binds the job ids and the three job data arrays of a batch of jobs starting at the given index
+     */
+    private void setJobData(final PreparedStatementWrapper ps, final int parameterIndex, final String[] jobIds, final List<Job> batch) throws SQLException {
+        final String[] jobData = new String[batch.size()];
+        final byte[][] encodedJobData = new byte[batch.size()][];
+        final String[] jobDataCodecNames = new String[batch.size()];
+
+        for (int index = 0; index < batch.size(); index++) {
+            final String jobDataJson = batch.get(index).getJobData().toString();
+            final Optional<JobDataCodec> jobDataCodec = jobDataCodecFor(jobDataJson);
+
+            if (jobDataCodec.isPresent()) {
+                encodedJobData[index] = jobDataCodec.get().encode(batch.get(index).getJobData());
+                jobDataCodecNames[index] = jobDataCodec.get().getName();
+            } else {
+                jobData[index] = jobDataJson;
+            }
+        }
+
+        ps.setObject(parameterIndex, jobIds);
+        ps.setObject(parameterIndex + 1, jobData);
+        ps.setObject(parameterIndex + 2, encodedJobData);
+        ps.setObject(parameterIndex + 3, jobDataCodecNames);
+    }
+
+    /**
+     * @return the codec to encode the given job data with, empty if it is to be stored as jsonb
+     */
+    private Optional<JobDataCodec> jobDataCodecFor(final String jobDataJson) {
+        final String jobDataCodecName = jobStoreConfiguration.getJobDataCodec();
+
+        if (JSONB.equals(jobDataCodecName) || jobDataJson.length() < jobStoreConfiguration.getJobDataCodecMinLength()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(jobDataCodecs.codecNamed(jobDataCodecName));
+    }
+
+    private JsonObject jobDataOf(final ResultSet resultSet) throws SQLException {
+        final byte[] encodedJobData = resultSet.getBytes("job_data_encoded");
+
+        if (encodedJobData != null) {
+            return jobDataCodecs.codecNamed(resultSet.getString("job_data_codec")).decode(encodedJobData);
+        }
+
+        return toJsonObject(resultSet.getString("job_data"));
+    }
+
     private JsonObject toJsonObject(final String json) {
         try (final JsonReader reader = jsonReaderFactory.createReader(new StringReader(json))) {
             return reader.readObject();
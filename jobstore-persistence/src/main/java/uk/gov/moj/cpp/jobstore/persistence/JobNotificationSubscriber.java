@@ -0,0 +1,70 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+
+/**
+ * Subscribes to the notifications raised by the job table trigger whenever a new unlocked job is
+ * inserted into the jobstore
+ */
+@ApplicationScoped
+public class JobNotificationSubscriber {
+
+    public static final String JOB_INSERTED_CHANNEL = "jobstore_job_inserted";
+
+    private static final String LISTEN_SQL = "LISTEN " + JOB_INSERTED_CHANNEL;
+
+    @Inject
+    protected Logger logger;
+
+    @Inject
+    protected JobStoreDataSourceProvider jobStoreDataSourceProvider;
+
+    /**
+     * Opens a dedicated connection to the jobstore and starts listening for inserted jobs. The
+     * connection is held until the returned subscription is closed.
+     *
+     * @return a subscription to wait for job inserted notifications on
+     */
+    public JobNotificationSubscription subscribe() {
+        Connection connection = null;
+        try {
+            connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+            final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute(LISTEN_SQL);
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+
+            logger.info("Listening for jobstore notifications on channel '{}'", JOB_INSERTED_CHANNEL);
+
+            return new JobNotificationSubscription(connection, pgConnection);
+        } catch (final SQLException e) {
+            closeQuietly(connection, e);
+            throw new JdbcRepositoryException("Exception while subscribing to jobstore notifications", e);
+        }
+    }
+
+    private void closeQuietly(final Connection connection, final SQLException cause) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.util.Collections.emptySet;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * A live subscription to the jobstore job inserted notifications. Holds a dedicated database
+ * connection, so must be closed when no longer required.
+ */
+public class JobNotificationSubscription implements AutoCloseable {
+
+    private static final String UNLISTEN_SQL = "UNLISTEN *";
+
+    private final Connection connection;
+    private final PGConnection pgConnection;
+
+    public JobNotificationSubscription(final Connection connection, final PGConnection pgConnection) {
+        this.connection = connection;
+        this.pgConnection = pgConnection;
+    }
+
+    /**
+     * Blocks until at least one job inserted notification arrives or the timeout expires.
+     *
+     * @param timeoutMilliseconds the maximum time to wait, must be greater than zero
+     * @return the priorities of the jobs inserted since the last call, empty if the timeout expired
+     */
+    public Set<Priority> awaitNotifications(final int timeoutMilliseconds) {
+        try {
+            final PGNotification[] notifications = pgConnection.getNotifications(timeoutMilliseconds);
+
+            if (notifications == null || notifications.length == 0) {
+                return emptySet();
+            }
+
+            final Set<Priority> priorities = EnumSet.noneOf(Priority.class);
+            for (final PGNotification notification : notifications) {
+                priorities.add(Priority.valueOf(notification.getParameter()));
+            }
+
+            return priorities;
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException("Exception while waiting for jobstore notifications", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try (final Connection pooledConnection = connection;
+             final Statement statement = pooledConnection.createStatement()) {
+            statement.execute(UNLISTEN_SQL);
+        } catch (final SQLException e) {
+            throw new JdbcRepositoryException("Exception while closing jobstore notification connection", e);
+        }
+    }
+}
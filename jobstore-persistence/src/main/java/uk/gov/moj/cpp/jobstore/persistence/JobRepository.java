@@ -1,6 +1,8 @@
 package uk.gov.moj.cpp.jobstore.persistence;
 
 import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -9,17 +11,116 @@ import javax.json.JsonObject;
 public interface JobRepository {
     void insertJob(final Job notificationJob);
 
+    /**
+     * Inserts the jobs in batches, each batch in a single statement
+     *
+     * @param jobs the jobs to insert
+     */
+    void insertJobs(final List<Job> jobs);
+
     void updateJobData(final UUID id, final JsonObject taskData);
 
     void updateNextTaskDetails(final UUID id, final String nextTask, final Timestamp nextTaskDate, final Integer retryAttemptsRemaining);
 
     void updateNextTaskRetryDetails(final UUID id, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining);
 
+    /**
+     * Stores the outcome of a task that has more to do, the new job data and the details of the
+     * next task, and releases the job, in a single statement
+     */
+    void updateNextTaskAndReleaseJob(final UUID id, final JsonObject jobData, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining);
+
+    /**
+     * Stores the outcome of a task that has more to do, as {@link #updateNextTaskAndReleaseJob}
+     * does, sending only the job data fields the task added, changed or removed, which are merged
+     * into the stored job data. The job data is not written at all if the task left it unchanged.
+     */
+    void updateNextTaskPatchingJobDataAndReleaseJob(final UUID id, final JobDataPatch jobDataPatch, final String nextTask, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining);
+
+    /**
+     * Schedules the retry of a task and releases the job, in a single statement
+     */
+    void updateNextTaskRetryDetailsAndReleaseJob(final UUID id, final Timestamp nextTaskStartTime, final Integer retryAttemptsRemaining);
+
     int lockJobsFor(final UUID workerId, final Priority priority, final int jobCountToLock);
 
+    /**
+     * Locks up to the requested number of unassigned jobs to the worker and returns them, in a
+     * single statement. Jobs are taken from the first priority, then the batch is topped up from
+     * each following priority in turn. Jobs due to start within the configured lookahead are
+     * claimed along with those already due.
+     *
+     * @param workerId the id of the worker to lock the jobs to
+     * @param orderedPriorities the priorities to claim jobs from, in order of preference
+     * @param jobCountToClaim the maximum number of jobs to claim
+     * @param excludedTaskNames the next tasks of jobs that must not be claimed
+     * @return the claimed jobs. The stream must be closed to release the database connection
+     */
+    Stream<Job> claimJobsFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final List<String> excludedTaskNames);
+
+    /**
+     * Locks up to the requested number of unassigned jobs to the worker and returns them, in a
+     * single statement, taking the jobs with the highest priority once aged by the time they have
+     * waited past their start time
+     *
+     * @param workerId the id of the worker to lock the jobs to
+     * @param jobCountToClaim the maximum number of jobs to claim
+     * @param excludedTaskNames the next tasks of jobs that must not be claimed
+     * @return the claimed jobs. The stream must be closed to release the database connection
+     */
+    Stream<Job> claimJobsByEffectivePriorityFor(final UUID workerId, final int jobCountToClaim, final List<String> excludedTaskNames);
+
+    /**
+     * Locks up to the requested number of unassigned jobs to the worker and returns them, in a
+     * single statement, as {@link #claimJobsFor} does but sharing the jobs claimed from each
+     * priority between the given tasks in proportion to their weights. Jobs of tasks not given
+     * are not claimed.
+     *
+     * @param workerId the id of the worker to lock the jobs to
+     * @param orderedPriorities the priorities to claim from, most preferred first
+     * @param jobCountToClaim the maximum number of jobs to claim
+     * @param weightByTaskName the weight of each task whose jobs may be claimed, keyed by task name
+     * @return the claimed jobs. The stream must be closed to release the database connection
+     */
+    Stream<Job> claimJobsFairlyFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final Map<String, Integer> weightByTaskName);
+
+    /**
+     * Finds the due jobs waiting to be claimed in each priority, including jobs due within the lookahead
+     *
+     * @param depthLimit the number of waiting jobs above which a priority's jobs are not counted
+     * @return the backlog of every priority, including those with no jobs waiting
+     */
+    List<PriorityBacklog> findPriorityBacklogs(final int depthLimit);
+
+    /**
+     * Renews the lease on jobs still running on this node by resetting their lock time to now,
+     * in a single statement. Jobs that are no longer locked to the given worker are left alone.
+     *
+     * @param workerIdsByJobId the id of the worker each job was locked to, keyed by job id
+     * @return the number of job leases renewed
+     */
+    int renewJobLeases(final Map<UUID, UUID> workerIdsByJobId);
+
     Stream<Job> findJobsLockedTo(final UUID workerId);
 
+    /**
+     * Reads the data of a job, for jobs claimed as handles without it
+     *
+     * @param jobId the id of the job
+     * @return the job data
+     */
+    JsonObject findJobData(final UUID jobId);
+
     void deleteJob(final UUID jobId);
 
+    /**
+     * Deletes completed jobs in a single statement. Jobs that are no longer locked to the given
+     * worker, having been claimed again after their lease expired, are left alone.
+     *
+     * @param workerIdsByJobId the id of the worker each job was locked to, keyed by job id
+     * @return the number of jobs deleted
+     */
+    int deleteJobs(final Map<UUID, UUID> workerIdsByJobId);
+
     void releaseJob(final UUID jobId);
 }
@@ -1,5 +1,6 @@
 package uk.gov.moj.cpp.jobstore.persistence;
 
+import static java.lang.Boolean.parseBoolean;
 import static java.lang.Integer.parseInt;
 import static java.lang.Long.parseLong;
 
@@ -30,6 +31,134 @@ public class JobStoreConfiguration {
     @Value(key = "worker.job.count", defaultValue = "10")
     private String workerJobCount;
 
+    @Inject
+    @Value(key = "worker.max.in.flight.job.count", defaultValue = "20")
+    private String workerMaxInFlightJobCount;
+
+    @Inject
+    @Value(key = "jobstore.notification.enabled", defaultValue = "false")
+    private String notificationEnabled;
+
+    @Inject
+    @Value(key = "jobstore.notification.poll.milliseconds", defaultValue = "500")
+    private String notificationPollMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.dispatcher.enabled", defaultValue = "false")
+    private String dispatcherEnabled;
+
+    @Inject
+    @Value(key = "jobstore.dispatcher.backoff.min.milliseconds", defaultValue = "100")
+    private String dispatcherMinBackOffMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.dispatcher.backoff.max.milliseconds", defaultValue = "5000")
+    private String dispatcherMaxBackOffMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.executor.virtual.threads.enabled", defaultValue = "false")
+    private String virtualThreadsEnabled;
+
+    @Inject
+    @Value(key = "jobstore.executor.virtual.threads.max.concurrency", defaultValue = "200")
+    private String virtualThreadMaxConcurrency;
+
+    @Inject
+    @Value(key = "jobstore.job.lease.seconds", defaultValue = "3600")
+    private String jobLeaseSeconds;
+
+    @Inject
+    @Value(key = "jobstore.job.lease.renewal.milliseconds", defaultValue = "60000")
+    private String jobLeaseRenewalMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.worker.node.expiry.seconds", defaultValue = "180")
+    private String workerNodeExpirySeconds;
+
+    @Inject
+    @Value(key = "jobstore.ready.queue.enabled", defaultValue = "false")
+    private String readyQueueEnabled;
+
+    @Inject
+    @Value(key = "jobstore.ready.queue.low.water.mark", defaultValue = "5")
+    private String readyQueueLowWaterMark;
+
+    @Inject
+    @Value(key = "jobstore.ready.queue.high.water.mark", defaultValue = "20")
+    private String readyQueueHighWaterMark;
+
+    @Inject
+    @Value(key = "jobstore.lookahead.seconds", defaultValue = "0")
+    private String lookaheadSeconds;
+
+    @Inject
+    @Value(key = "jobstore.timing.wheel.tick.milliseconds", defaultValue = "100")
+    private String timingWheelTickMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.priority.aging.enabled", defaultValue = "false")
+    private String priorityAgingEnabled;
+
+    @Inject
+    @Value(key = "jobstore.priority.aging.seconds.per.point", defaultValue = "3")
+    private String priorityAgingSecondsPerPoint;
+
+    @Inject
+    @Value(key = "jobstore.priority.backlog.refresh.milliseconds", defaultValue = "1000")
+    private String priorityBacklogRefreshMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.priority.backlog.depth.limit", defaultValue = "10000")
+    private String priorityBacklogDepthLimit;
+
+    @Inject
+    @Value(key = "jobstore.priority.backlog.max.wait.seconds", defaultValue = "300")
+    private String priorityBacklogMaxWaitSeconds;
+
+    @Inject
+    @Value(key = "jobstore.fair.task.claiming.enabled", defaultValue = "false")
+    private String fairTaskClaimingEnabled;
+
+    @Inject
+    @Value(key = "jobstore.async.enqueue.enabled", defaultValue = "false")
+    private String asyncEnqueueEnabled;
+
+    @Inject
+    @Value(key = "jobstore.async.enqueue.buffer.capacity", defaultValue = "10000")
+    private String asyncEnqueueBufferCapacity;
+
+    @Inject
+    @Value(key = "jobstore.async.enqueue.batch.size", defaultValue = "500")
+    private String asyncEnqueueBatchSize;
+
+    @Inject
+    @Value(key = "jobstore.async.enqueue.flush.milliseconds", defaultValue = "5")
+    private String asyncEnqueueFlushMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.batched.completion.enabled", defaultValue = "false")
+    private String batchedCompletionEnabled;
+
+    @Inject
+    @Value(key = "jobstore.batched.completion.batch.size", defaultValue = "500")
+    private String batchedCompletionBatchSize;
+
+    @Inject
+    @Value(key = "jobstore.batched.completion.flush.milliseconds", defaultValue = "1000")
+    private String batchedCompletionFlushMilliseconds;
+
+    @Inject
+    @Value(key = "jobstore.job.data.codec", defaultValue = "jsonb")
+    private String jobDataCodec;
+
+    @Inject
+    @Value(key = "jobstore.job.data.codec.min.length", defaultValue = "2048")
+    private String jobDataCodecMinLength;
+
+    @Inject
+    @Value(key = "jobstore.lazy.job.data.enabled", defaultValue = "false")
+    private String lazyJobDataEnabled;
+
     @Resource(lookup = "java:module/ModuleName")
     private String moduleName;
 
@@ -53,6 +182,153 @@ public class JobStoreConfiguration {
         return parseInt(workerJobCount);
     }
 
+    public int getWorkerMaxInFlightJobCount() {
+        return parseInt(workerMaxInFlightJobCount);
+    }
+
+    public boolean isNotificationEnabled() {
+        return parseBoolean(notificationEnabled);
+    }
+
+    public int getNotificationPollMilliseconds() {
+        return parseInt(notificationPollMilliseconds);
+    }
+
+    public boolean isDispatcherEnabled() {
+        return parseBoolean(dispatcherEnabled);
+    }
+
+    public long getDispatcherMinBackOffMilliseconds() {
+        return parseLong(dispatcherMinBackOffMilliseconds);
+    }
+
+    public long getDispatcherMaxBackOffMilliseconds() {
+        return parseLong(dispatcherMaxBackOffMilliseconds);
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return parseBoolean(virtualThreadsEnabled);
+    }
+
+    public int getVirtualThreadMaxConcurrency() {
+        return parseInt(virtualThreadMaxConcurrency);
+    }
+
+    public long getJobLeaseSeconds() {
+        return parseLong(jobLeaseSeconds);
+    }
+
+    public long getJobLeaseRenewalMilliseconds() {
+        return parseLong(jobLeaseRenewalMilliseconds);
+    }
+
+    public long getWorkerNodeExpirySeconds() {
+        return parseLong(workerNodeExpirySeconds);
+    }
+
+    public boolean isReadyQueueEnabled() {
+        return parseBoolean(readyQueueEnabled);
+    }
+
+    public int getReadyQueueLowWaterMark() {
+        return parseInt(readyQueueLowWaterMark);
+    }
+
+    public int getReadyQueueHighWaterMark() {
+        return parseInt(readyQueueHighWaterMark);
+    }
+
+    public long getLookaheadSeconds() {
+        return parseLong(lookaheadSeconds);
+    }
+
+    public long getTimingWheelTickMilliseconds() {
+        return parseLong(timingWheelTickMilliseconds);
+    }
+
+    public boolean isPriorityAgingEnabled() {
+        return parseBoolean(priorityAgingEnabled);
+    }
+
+    /**
+     * @return the seconds a job's start time is brought forward for each point of its numeric
+     * priority. The effective start time of a job is stored when the job is inserted or
+     * rescheduled, so a change to the rate only applies to jobs written after it
+     */
+    public long getPriorityAgingSecondsPerPoint() {
+        return parseLong(priorityAgingSecondsPerPoint);
+    }
+
+    public long getPriorityBacklogRefreshMilliseconds() {
+        return parseLong(priorityBacklogRefreshMilliseconds);
+    }
+
+    public int getPriorityBacklogDepthLimit() {
+        return parseInt(priorityBacklogDepthLimit);
+    }
+
+    public long getPriorityBacklogMaxWaitSeconds() {
+        return parseLong(priorityBacklogMaxWaitSeconds);
+    }
+
+    /**
+     * @return true if each claimed batch is shared between tasks by weight. Fair claiming takes
+     * priorities in the selected order and so takes precedence over priority aging
+     */
+    public boolean isFairTaskClaimingEnabled() {
+        return parseBoolean(fairTaskClaimingEnabled);
+    }
+
+    public boolean isAsyncEnqueueEnabled() {
+        return parseBoolean(asyncEnqueueEnabled);
+    }
+
+    public int getAsyncEnqueueBufferCapacity() {
+        return parseInt(asyncEnqueueBufferCapacity);
+    }
+
+    public int getAsyncEnqueueBatchSize() {
+        return parseInt(asyncEnqueueBatchSize);
+    }
+
+    public long getAsyncEnqueueFlushMilliseconds() {
+        return parseLong(asyncEnqueueFlushMilliseconds);
+    }
+
+    public boolean isBatchedCompletionEnabled() {
+        return parseBoolean(batchedCompletionEnabled);
+    }
+
+    public int getBatchedCompletionBatchSize() {
+        return parseInt(batchedCompletionBatchSize);
+    }
+
+    public long getBatchedCompletionFlushMilliseconds() {
+        return parseLong(batchedCompletionFlushMilliseconds);
+    }
+
+    /**
+     * @return the name of the {@link JobDataCodec} to store job data with, or 'jsonb' to store it
+     * unencoded
+     */
+    public String getJobDataCodec() {
+        return jobDataCodec;
+    }
+
+    /**
+     * @return the length of JSON text below which job data is stored as jsonb whatever the codec
+     */
+    public int getJobDataCodecMinLength() {
+        return parseInt(jobDataCodecMinLength);
+    }
+
+    /**
+     * @return true if jobs are claimed without their data, which is loaded when the job runs
+     */
+    public boolean isLazyJobDataEnabled() {
+        return parseBoolean(lazyJobDataEnabled);
+    }
+
     public String getModuleName() {
         return moduleName;
     }
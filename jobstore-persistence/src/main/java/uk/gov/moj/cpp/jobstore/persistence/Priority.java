@@ -1,7 +1,38 @@
 package uk.gov.moj.cpp.jobstore.persistence;
 
 public enum Priority {
-    HIGH,
-    MEDIUM,
-    LOW;
+    HIGH(300),
+    MEDIUM(200),
+    LOW(100);
+
+    private final int value;
+
+    Priority(final int value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the priority on the numeric scale jobs are ordered by when priority aging is enabled,
+     * where a higher value is more urgent
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * @return the priority whose value is closest to the given numeric priority, the more urgent
+     * of the two if it is halfway between them. Jobs given a numeric priority are claimed with the
+     * jobs of this priority and ordered by their own value when priority aging is enabled.
+     */
+    public static Priority closestTo(final int value) {
+        Priority closest = HIGH;
+
+        for (final Priority priority : values()) {
+            if (Math.abs(value - priority.value) < Math.abs(value - closest.value)) {
+                closest = priority;
+            }
+        }
+
+        return closest;
+    }
 }
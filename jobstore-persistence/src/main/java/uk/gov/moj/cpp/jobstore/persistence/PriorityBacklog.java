@@ -0,0 +1,67 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The jobs of one priority that are due and waiting to be claimed
+ */
+public class PriorityBacklog {
+
+    private final Priority priority;
+    private final int depth;
+    private final Optional<ZonedDateTime> oldestStartTime;
+
+    public PriorityBacklog(final Priority priority, final int depth, final Optional<ZonedDateTime> oldestStartTime) {
+        this.priority = priority;
+        this.depth = depth;
+        this.oldestStartTime = oldestStartTime;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the number of jobs waiting, counted up to the configured depth limit
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the start time of the job that has been waiting longest, if any are waiting
+     */
+    public Optional<ZonedDateTime> getOldestStartTime() {
+        return oldestStartTime;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PriorityBacklog that = (PriorityBacklog) o;
+        return depth == that.depth &&
+                priority == that.priority &&
+                Objects.equals(oldestStartTime, that.oldestStartTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(priority, depth, oldestStartTime);
+    }
+
+    @Override
+    public String toString() {
+        return "PriorityBacklog [" +
+                "priority=" + priority +
+                ", depth=" + depth +
+                ", oldestStartTime=" + oldestStartTime.orElse(null) +
+                "]";
+    }
+}
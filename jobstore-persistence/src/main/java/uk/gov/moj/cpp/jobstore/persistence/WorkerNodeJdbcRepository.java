@@ -0,0 +1,65 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.lang.String.format;
+import static java.time.ZonedDateTime.now;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+
+import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+
+@ApplicationScoped
+public class WorkerNodeJdbcRepository implements WorkerNodeRepository {
+
+    private static final String HEARTBEAT_SQL = "INSERT INTO worker_node(node_id, node_name, started_at, heartbeat_time) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (node_id) DO UPDATE SET heartbeat_time = EXCLUDED.heartbeat_time";
+    private static final String RELEASE_JOBS_OF_DEAD_NODES_SQL = "WITH dead_node AS (DELETE FROM worker_node WHERE heartbeat_time < ? RETURNING node_id) " +
+            "UPDATE job SET worker_id= null, worker_lock_time= null WHERE worker_id IN (SELECT node_id FROM dead_node)";
+
+    @Inject
+    protected PreparedStatementWrapperFactory preparedStatementWrapperFactory;
+
+    @Inject
+    protected Logger logger;
+
+    @Inject
+    protected JobStoreDataSourceProvider jobStoreDataSourceProvider;
+
+    @Override
+    public void heartbeat(final UUID nodeId, final String nodeName) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+        final Timestamp now = toSqlTimestamp(now());
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, HEARTBEAT_SQL)) {
+            ps.setObject(1, nodeId);
+            ps.setString(2, nodeName);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+            ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error recording worker node heartbeat", e);
+            throw new JdbcRepositoryException(format("Exception while recording heartbeat of worker node %s", nodeId), e);
+        }
+    }
+
+    @Override
+    public int releaseJobsOfDeadNodes(final Timestamp heartbeatExpiredBefore) {
+        final DataSource jobStoreDataSource = jobStoreDataSourceProvider.getJobStoreDataSource();
+
+        try (final PreparedStatementWrapper ps = preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSource, RELEASE_JOBS_OF_DEAD_NODES_SQL)) {
+            ps.setTimestamp(1, heartbeatExpiredBefore);
+            return ps.executeUpdate();
+        } catch (final SQLException e) {
+            logger.error("Error releasing jobs of dead worker nodes", e);
+            throw new JdbcRepositoryException("Exception while releasing jobs of dead worker nodes", e);
+        }
+    }
+}
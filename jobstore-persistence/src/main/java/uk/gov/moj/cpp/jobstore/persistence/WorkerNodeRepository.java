@@ -0,0 +1,24 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+public interface WorkerNodeRepository {
+
+    /**
+     * Registers the node if it is not yet registered, or records that it is still alive
+     *
+     * @param nodeId the stable id of the node, which its jobs are locked to
+     * @param nodeName a human readable name for the node, e.g. its host name
+     */
+    void heartbeat(final UUID nodeId, final String nodeName);
+
+    /**
+     * Removes every node whose last heartbeat is older than the given time and releases all jobs
+     * locked to those nodes, in a single statement
+     *
+     * @param heartbeatExpiredBefore nodes that last heartbeat before this time are dead
+     * @return the number of jobs released
+     */
+    int releaseJobsOfDeadNodes(final Timestamp heartbeatExpiredBefore);
+}
@@ -5,12 +5,16 @@ import static java.util.stream.Stream.empty;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
 
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataPatch;
 import uk.gov.moj.cpp.jobstore.persistence.JobRepository;
 import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.persistence.Priority;
+import uk.gov.moj.cpp.jobstore.persistence.PriorityBacklog;
+import uk.gov.moj.cpp.jobstore.persistence.WorkerNodeRepository;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -27,31 +31,56 @@ public class JobService {
     @Inject
     private JobStoreConfiguration jobStoreConfiguration;
 
+    @Inject
+    private WorkerNodeRepository workerNodeRepository;
+
     public Stream<Job> getUnassignedJobsFor(final UUID workerId, final List<Priority> orderedPriorities) {
 
-        final int workerJobCount = jobStoreConfiguration.getWorkerJobCount();
-        final Priority firstPriority = orderedPriorities.get(0);
-
-        int rowsAffected = jobRepository.lockJobsFor(workerId, firstPriority, workerJobCount);
-        if (rowsAffected == 0) {
-            final Priority secondPriority = orderedPriorities.get(1);
-            rowsAffected = jobRepository.lockJobsFor(workerId, secondPriority, workerJobCount);
-            if (rowsAffected == 0) {
-                final Priority thirdPriority = orderedPriorities.get(2);
-                rowsAffected = jobRepository.lockJobsFor(workerId, thirdPriority, workerJobCount);
-            }
+        return getUnassignedJobsFor(workerId, orderedPriorities, jobStoreConfiguration.getWorkerJobCount(), List.of());
+    }
+
+    /**
+     * Claims up to the requested number of due jobs for the worker, taking them in the given
+     * priority order or, when priority aging is enabled, by aged priority regardless of that order
+     */
+    public Stream<Job> getUnassignedJobsFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final List<String> excludedTaskNames) {
+        if (orderedPriorities.isEmpty() || jobCountToClaim <= 0) {
+            return empty();
         }
-        if (rowsAffected == 0) {
+
+        if (jobStoreConfiguration.isPriorityAgingEnabled()) {
+            return jobRepository.claimJobsByEffectivePriorityFor(workerId, jobCountToClaim, excludedTaskNames);
+        }
+
+        return jobRepository.claimJobsFor(workerId, orderedPriorities, jobCountToClaim, excludedTaskNames);
+    }
+
+    /**
+     * Claims up to the requested number of due jobs for the worker, taking them in the given
+     * priority order and sharing the jobs of each priority between the given tasks by weight
+     */
+    public Stream<Job> getUnassignedJobsFairlyFor(final UUID workerId, final List<Priority> orderedPriorities, final int jobCountToClaim, final Map<String, Integer> weightByTaskName) {
+        if (orderedPriorities.isEmpty() || jobCountToClaim <= 0 || weightByTaskName.isEmpty()) {
             return empty();
         }
 
-        return jobRepository.findJobsLockedTo(workerId);
+        return jobRepository.claimJobsFairlyFor(workerId, orderedPriorities, jobCountToClaim, weightByTaskName);
+    }
+
+    public List<PriorityBacklog> getPriorityBacklogs() {
+        return jobRepository.findPriorityBacklogs(jobStoreConfiguration.getPriorityBacklogDepthLimit());
     }
 
     public void insertJob(final Job job) {
         jobRepository.insertJob(job);
     }
 
+    public void insertJobs(final List<Job> jobs) {
+        if (!jobs.isEmpty()) {
+            jobRepository.insertJobs(jobs);
+        }
+    }
+
     public void updateJobTaskData(final UUID jobId, final JsonObject data) {
         jobRepository.updateJobData(jobId, data);
     }
@@ -60,10 +89,26 @@ public class JobService {
         jobRepository.updateNextTaskDetails(jobId, nextTask, toSqlTimestamp(startTime), retryAttemptsRemaining);
     }
 
+    public void updateNextTaskAndReleaseJob(final UUID jobId, final JsonObject data, final String nextTask, final ZonedDateTime startTime, final Integer retryAttemptsRemaining) {
+        jobRepository.updateNextTaskAndReleaseJob(jobId, data, nextTask, toSqlTimestamp(startTime), retryAttemptsRemaining);
+    }
+
+    public void updateNextTaskPatchingJobDataAndReleaseJob(final UUID jobId, final JobDataPatch jobDataPatch, final String nextTask, final ZonedDateTime startTime, final Integer retryAttemptsRemaining) {
+        jobRepository.updateNextTaskPatchingJobDataAndReleaseJob(jobId, jobDataPatch, nextTask, toSqlTimestamp(startTime), retryAttemptsRemaining);
+    }
+
     public void deleteJob(final UUID jobId) {
         jobRepository.deleteJob(jobId);
     }
 
+    public int deleteJobs(final Map<UUID, UUID> workerIdsByJobId) {
+        if (workerIdsByJobId.isEmpty()) {
+            return 0;
+        }
+
+        return jobRepository.deleteJobs(workerIdsByJobId);
+    }
+
     public void releaseJob(final UUID jobId) {
         jobRepository.releaseJob(jobId);
     }
@@ -71,4 +116,24 @@ public class JobService {
     public void updateNextTaskRetryDetails(final UUID jobId, final ZonedDateTime startTime, final Integer retryAttemptsRemaining) {
         jobRepository.updateNextTaskRetryDetails(jobId, toSqlTimestamp(startTime), retryAttemptsRemaining);
     }
+
+    public void updateNextTaskRetryDetailsAndReleaseJob(final UUID jobId, final ZonedDateTime startTime, final Integer retryAttemptsRemaining) {
+        jobRepository.updateNextTaskRetryDetailsAndReleaseJob(jobId, toSqlTimestamp(startTime), retryAttemptsRemaining);
+    }
+
+    public int renewJobLeases(final Map<UUID, UUID> workerIdsByJobId) {
+        if (workerIdsByJobId.isEmpty()) {
+            return 0;
+        }
+
+        return jobRepository.renewJobLeases(workerIdsByJobId);
+    }
+
+    public void heartbeatWorkerNode(final UUID nodeId, final String nodeName) {
+        workerNodeRepository.heartbeat(nodeId, nodeName);
+    }
+
+    public int releaseJobsOfDeadWorkerNodes(final ZonedDateTime heartbeatExpiredBefore) {
+        return workerNodeRepository.releaseJobsOfDeadNodes(toSqlTimestamp(heartbeatExpiredBefore));
+    }
 }
@@ -1,6 +1,7 @@
 package uk.gov.justice.services.test.utils.core.jdbc;
 
 import java.sql.Connection;
+import java.util.Map;
 
 import liquibase.Liquibase;
 import liquibase.database.jvm.JdbcConnection;
@@ -38,10 +39,25 @@ public class LiquibaseDatabaseBootstrapper {
      * @throws LiquibaseException if an error occurs.
      */
     public void bootstrap(final String liquibaseDbChangelogPath, final Connection connection) throws LiquibaseException {
+        bootstrap(liquibaseDbChangelogPath, connection, Map.of());
+    }
+
+    /**
+     * Bootstraps your database using the liquibase scripts on the classpath, with the given
+     * changelog parameters set
+     *
+     * @param liquibaseDbChangelogPath the path to the liquibase change log. This should be on the classpath
+     * @param connection An Sql {@link Connection} to the database
+     * @param changeLogParameters the changelog parameters, by name
+     *
+     * @throws LiquibaseException if an error occurs.
+     */
+    public void bootstrap(final String liquibaseDbChangelogPath, final Connection connection, final Map<String, String> changeLogParameters) throws LiquibaseException {
         final Liquibase liquibase = new Liquibase(
                 liquibaseDbChangelogPath,
                 new ClassLoaderResourceAccessor(),
                 new JdbcConnection(connection));
+        changeLogParameters.forEach(liquibase::setChangeLogParameter);
         liquibase.dropAll();
         liquibase.update(NO_CONTEXT);
     }
@@ -0,0 +1,43 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+public class DeflateJobDataCodecTest {
+
+    private final DeflateJobDataCodec deflateJobDataCodec = new DeflateJobDataCodec();
+
+    @Test
+    public void shouldDecodeTheJobDataItEncoded() {
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder()
+                .add("text", "café ☕")
+                .add("number", 1.5)
+                .add("nested", jsonBuilderFactory.createObjectBuilder().add("flag", true))
+                .build();
+
+        assertThat(deflateJobDataCodec.decode(deflateJobDataCodec.encode(jobData)), is(jobData));
+    }
+
+    @Test
+    public void shouldEncodeLargeJobDataSmallerThanItsJsonText() {
+        final JsonArrayBuilder events = jsonBuilderFactory.createArrayBuilder();
+        for (int i = 0; i < 100; i++) {
+            events.add(jsonBuilderFactory.createObjectBuilder().add("eventName", "some.event.raised").add("sequence", i));
+        }
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("events", events).build();
+
+        assertThat(deflateJobDataCodec.encode(jobData).length, is(lessThan(jobData.toString().length() / 4)));
+    }
+
+    @Test
+    public void shouldBeNamedDeflate() {
+        assertThat(deflateJobDataCodec.getName(), is("deflate"));
+    }
+}
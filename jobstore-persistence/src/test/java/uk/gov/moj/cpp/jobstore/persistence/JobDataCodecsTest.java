@@ -0,0 +1,45 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.enterprise.inject.Instance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JobDataCodecsTest {
+
+    @Mock
+    private Instance<JobDataCodec> jobDataCodecBeans;
+
+    @InjectMocks
+    private JobDataCodecs jobDataCodecs;
+
+    @Test
+    public void shouldFindTheDeployedCodecOfTheGivenName() {
+        final DeflateJobDataCodec deflateJobDataCodec = new DeflateJobDataCodec();
+        when(jobDataCodecBeans.iterator()).thenReturn(List.<JobDataCodec>of(deflateJobDataCodec).iterator());
+
+        assertThat(jobDataCodecs.codecNamed("deflate"), is(sameInstance(deflateJobDataCodec)));
+        assertThat(jobDataCodecs.codecNamed("deflate"), is(sameInstance(deflateJobDataCodec)));
+    }
+
+    @Test
+    public void shouldThrowIfNoCodecOfTheGivenNameIsDeployed() {
+        when(jobDataCodecBeans.iterator()).thenReturn(List.<JobDataCodec>of(new DeflateJobDataCodec()).iterator());
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> jobDataCodecs.codecNamed("cbor"));
+
+        assertThat(exception.getMessage(), is("No job data codec named 'cbor' is deployed"));
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.Test;
+
+public class JobDataPatchTest {
+
+    @Test
+    public void shouldHoldOnlyTheAddedAndChangedFieldsAndTheNamesOfTheRemovedFields() {
+        final JsonObject originalJobData = jsonBuilderFactory.createObjectBuilder()
+                .add("unchanged", jsonBuilderFactory.createObjectBuilder().add("nested", "value"))
+                .add("changed", jsonBuilderFactory.createArrayBuilder().add(1))
+                .add("removed", true)
+                .build();
+        final JsonObject updatedJobData = jsonBuilderFactory.createObjectBuilder()
+                .add("unchanged", jsonBuilderFactory.createObjectBuilder().add("nested", "value"))
+                .add("changed", jsonBuilderFactory.createArrayBuilder().add(1).add(2))
+                .add("added", "new")
+                .build();
+
+        final JobDataPatch jobDataPatch = JobDataPatch.between(originalJobData, updatedJobData);
+
+        assertThat(jobDataPatch.getChangedFields(), is(jsonBuilderFactory.createObjectBuilder()
+                .add("changed", jsonBuilderFactory.createArrayBuilder().add(1).add(2))
+                .add("added", "new")
+                .build()));
+        assertThat(jobDataPatch.getRemovedFields(), is(List.of("removed")));
+        assertThat(jobDataPatch.getUpdatedJobData(), is(updatedJobData));
+        assertThat(jobDataPatch.isEmpty(), is(false));
+    }
+
+    @Test
+    public void shouldBeEmptyIfTheJobDataIsUnchanged() {
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("some", "json").build();
+        final JsonObject sameJobData = jsonBuilderFactory.createObjectBuilder().add("some", "json").build();
+
+        assertThat(JobDataPatch.between(jobData, sameJobData).isEmpty(), is(true));
+    }
+}
@@ -5,17 +5,26 @@ import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
 import static uk.gov.justice.services.messaging.JsonObjects.jsonReaderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs.JSONB;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
@@ -28,14 +37,20 @@ import uk.gov.justice.services.test.utils.core.messaging.Poller;
 
 import java.io.StringReader;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
+import javax.enterprise.inject.Instance;
 import javax.json.JsonObject;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -46,10 +61,14 @@ public class JobJdbcRepositoryTest {
 
     private static final String LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML = "liquibase/jobstore-db-changelog.xml";
     private static final String JOBS_COUNT = "SELECT COUNT(*) FROM job";
+    private static final String JOB_PAYLOADS_COUNT = "SELECT COUNT(*) FROM job_payload";
     private static final String JOB_DATA_JSON = "{\"some\": \"json\"}";
+    private static final long JOB_LEASE_SECONDS = 30L;
+    private static final String JOB_DATA_QUERY = "SELECT job_data, job_data_encoded, job_data_codec FROM job_payload";
 
     private final JobStoreDataSourceProvider jobStoreDataSourceProvider = new TestJobStoreDataSourceProvider();
     private final JobJdbcRepository jdbcRepository = new JobJdbcRepository();
+    private final JobStoreConfiguration jobStoreConfiguration = mock(JobStoreConfiguration.class);
 
     @BeforeEach
     public void createJdbcRepository() throws Exception {
@@ -61,6 +80,9 @@ public class JobJdbcRepositoryTest {
         jdbcRepository.logger = mock(Logger.class);
         jdbcRepository.preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
         jdbcRepository.jdbcResultSetStreamer = new JdbcResultSetStreamer();
+        jdbcRepository.jobStoreConfiguration = jobStoreConfiguration;
+        when(jobStoreConfiguration.getJobLeaseSeconds()).thenReturn(JOB_LEASE_SECONDS);
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(JSONB);
         checkIfReady();
     }
 
@@ -116,6 +138,33 @@ public class JobJdbcRepositoryTest {
         assertThat(insertedJob.getPriority(), is(job.getPriority()));
     }
 
+    @Test
+    public void shouldInsertJobsInBatches() throws Exception {
+        final Job lockedJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(now()), 1, MEDIUM);
+        final List<Job> jobs = new ArrayList<>();
+        jobs.add(lockedJob);
+        for (int i = 0; i < 5000; i++) {
+            jobs.add(new Job(randomUUID(), jobData("{\"index\": " + i + "}"), "anotherTask", now(), empty(), empty(), 0, LOW));
+        }
+
+        jdbcRepository.insertJobs(jobs);
+
+        assertThat(jobsCount(), is(5001));
+        assertThat(countOf(JOB_PAYLOADS_COUNT), is(5001));
+
+        final Job insertedJob = getJobById(lockedJob.getJobId());
+        assertThat(insertedJob.getJobData(), is(lockedJob.getJobData()));
+        assertThat(insertedJob.getNextTask(), is(lockedJob.getNextTask()));
+        assertTrue(insertedJob.getNextTaskStartTime().truncatedTo(MILLIS).isEqual(lockedJob.getNextTaskStartTime().truncatedTo(MILLIS)));
+        assertThat(insertedJob.getWorkerId(), is(lockedJob.getWorkerId()));
+        assertTrue(insertedJob.getWorkerLockTime().get().truncatedTo(MILLIS).isEqual(lockedJob.getWorkerLockTime().get().truncatedTo(MILLIS)));
+        assertThat(insertedJob.getRetryAttemptsRemaining(), is(1));
+        assertThat(insertedJob.getPriority(), is(MEDIUM));
+
+        assertThat(countOf("SELECT COUNT(*) FROM job WHERE worker_id IS NULL AND worker_lock_time IS NULL AND next_task = 'anotherTask'"), is(5000));
+        assertThat(countOf("SELECT COUNT(*) FROM job_payload WHERE job_id = '" + jobs.get(5000).getJobId() + "' AND job_data = '{\"index\": 4999}'"), is(1));
+    }
+
     @Test
     public void shouldAddEmailNotificationWithMandatoryAndOptionalData() {
         final UUID jobId1 = randomUUID();
@@ -197,6 +246,130 @@ public class JobJdbcRepositoryTest {
         assertThat(jobs.get(0).getRetryAttemptsRemaining(), is(retryAttemptsRemaining));
     }
 
+    @Test
+    public void shouldUpdateNextTaskAndReleaseJobInOneStatement() {
+        final UUID jobId = randomUUID();
+        final ZonedDateTime nextTaskStartTimeAfterUpdate = new UtcClock().now().minusSeconds(1).truncatedTo(MILLIS);
+        jdbcRepository.insertJob(new Job(jobId, jobData(JOB_DATA_JSON), "Next Task Before Update", now().minusHours(2), of(randomUUID()), of(now()), 0, HIGH));
+
+        jdbcRepository.updateNextTaskAndReleaseJob(jobId, jobData("{\"some\": \"other json\"}"), "Next Task After Update", toSqlTimestamp(nextTaskStartTimeAfterUpdate), 2);
+
+        final List<Job> jobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        assertThat(jobs.size(), is(1));
+        assertThat(jobs.get(0).getJobData(), is(jobData("{\"some\": \"other json\"}")));
+        assertThat(jobs.get(0).getNextTask(), is("Next Task After Update"));
+        assertThat(jobs.get(0).getNextTaskStartTime(), is(nextTaskStartTimeAfterUpdate));
+        assertThat(jobs.get(0).getRetryAttemptsRemaining(), is(2));
+    }
+
+    @Test
+    public void shouldMergeOnlyTheChangedJobDataFieldsWhenUpdatingNextTaskAndReleasingJob() {
+        final UUID jobId = randomUUID();
+        final ZonedDateTime nextTaskStartTimeAfterUpdate = new UtcClock().now().minusSeconds(1).truncatedTo(MILLIS);
+        jdbcRepository.insertJob(new Job(jobId, jobData("{\"unchanged\": \"value\", \"changed\": 1, \"removed\": true}"), "Next Task Before Update", now().minusHours(2), of(randomUUID()), of(now()), 0, HIGH));
+
+        final JobDataPatch jobDataPatch = new JobDataPatch(
+                jobData("{\"unchanged\": \"value\", \"changed\": {\"nested\": 2}, \"added\": \"new\"}"),
+                jobData("{\"changed\": {\"nested\": 2}, \"added\": \"new\"}"),
+                List.of("removed"));
+        jdbcRepository.updateNextTaskPatchingJobDataAndReleaseJob(jobId, jobDataPatch, "Next Task After Update", toSqlTimestamp(nextTaskStartTimeAfterUpdate), 2);
+
+        final List<Job> jobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        assertThat(jobs.size(), is(1));
+        assertThat(jobs.get(0).getJobData(), is(jobData("{\"unchanged\": \"value\", \"changed\": {\"nested\": 2}, \"added\": \"new\"}")));
+        assertThat(jobs.get(0).getNextTask(), is("Next Task After Update"));
+        assertThat(jobs.get(0).getNextTaskStartTime(), is(nextTaskStartTimeAfterUpdate));
+        assertThat(jobs.get(0).getRetryAttemptsRemaining(), is(2));
+    }
+
+    @Test
+    public void shouldNotRewriteTheJobDataWhenThePatchIsEmpty() throws Exception {
+        final UUID jobId = randomUUID();
+        jdbcRepository.insertJob(new Job(jobId, jobData(JOB_DATA_JSON), "Next Task Before Update", now().minusHours(2), of(randomUUID()), of(now()), 0, HIGH));
+        final String payloadVersion = payloadVersionOf(jobId);
+
+        jdbcRepository.updateNextTaskPatchingJobDataAndReleaseJob(jobId, JobDataPatch.between(jobData(JOB_DATA_JSON), jobData(JOB_DATA_JSON)), "Next Task After Update", toSqlTimestamp(now().minusSeconds(1)), 2);
+
+        final List<Job> jobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        assertThat(jobs.size(), is(1));
+        assertThat(jobs.get(0).getJobData(), is(jobData(JOB_DATA_JSON)));
+        assertThat(jobs.get(0).getNextTask(), is("Next Task After Update"));
+        assertThat(payloadVersionOf(jobId), is(payloadVersion));
+    }
+
+    @Test
+    public void shouldStoreJobDataAtOrAboveTheMinimumLengthEncodedWithTheConfiguredCodec() {
+        useDeflateJobDataCodecFrom(jobData(JOB_DATA_JSON).toString().length());
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+        final Job smallJob = new Job(randomUUID(), jobData("{}"), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+        final Job batchedJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+        final Job smallBatchedJob = new Job(randomUUID(), jobData("{}"), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+
+        jdbcRepository.insertJob(job);
+        jdbcRepository.insertJob(smallJob);
+        jdbcRepository.insertJobs(List.of(batchedJob, smallBatchedJob));
+
+        assertThat(countOf("SELECT COUNT(*) FROM job_payload WHERE job_data IS NULL AND job_data_codec = 'deflate' AND job_id IN ('" + job.getJobId() + "', '" + batchedJob.getJobId() + "')"), is(2));
+        assertThat(countOf("SELECT COUNT(*) FROM job_payload WHERE job_data_encoded IS NULL AND job_data = '{}' AND job_id IN ('" + smallJob.getJobId() + "', '" + smallBatchedJob.getJobId() + "')"), is(2));
+
+        final Map<UUID, JsonObject> claimedJobData = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 10, List.of())
+                .collect(toMap(Job::getJobId, Job::getJobData));
+        assertThat(claimedJobData, is(Map.of(
+                job.getJobId(), jobData(JOB_DATA_JSON),
+                smallJob.getJobId(), jobData("{}"),
+                batchedJob.getJobId(), jobData(JOB_DATA_JSON),
+                smallBatchedJob.getJobId(), jobData("{}"))));
+    }
+
+    @Test
+    public void shouldStoreJobDataEncodedWithACodecOfAnyName() {
+        useJobDataCodecFrom(0, new DeflateJobDataCodec() {
+            @Override
+            public String getName() {
+                return "some-new-codec";
+            }
+        });
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+
+        jdbcRepository.insertJob(job);
+
+        assertThat(countOf("SELECT COUNT(*) FROM job_payload WHERE job_data_codec = 'some-new-codec'"), is(1));
+        assertThat(jdbcRepository.findJobData(job.getJobId()), is(jobData(JOB_DATA_JSON)));
+    }
+
+    @Test
+    public void shouldConvertEncodedJobDataToTheConfiguredFormWhenItIsNextWritten() {
+        final UUID jobId = randomUUID();
+        useDeflateJobDataCodecFrom(0);
+        jdbcRepository.insertJob(new Job(jobId, jobData("{\"changed\": 1, \"unchanged\": true}"), "Next Task Before Update", now().minusHours(2), of(randomUUID()), of(now()), 0, HIGH));
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(JSONB);
+
+        final JsonObject updatedJobData = jobData("{\"changed\": 2, \"unchanged\": true}");
+        jdbcRepository.updateNextTaskPatchingJobDataAndReleaseJob(jobId, JobDataPatch.between(jobData("{\"changed\": 1, \"unchanged\": true}"), updatedJobData), "Next Task After Update", toSqlTimestamp(now().minusSeconds(1)), 2);
+
+        assertThat(countOf("SELECT COUNT(*) FROM job_payload WHERE job_data_encoded IS NULL AND job_data_codec IS NULL AND job_id = '" + jobId + "'"), is(1));
+        final List<Job> jobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        assertThat(jobs.size(), is(1));
+        assertThat(jobs.get(0).getJobData(), is(updatedJobData));
+        assertThat(jobs.get(0).getNextTask(), is("Next Task After Update"));
+    }
+
+    @Test
+    public void shouldUpdateNextTaskRetryDetailsAndReleaseJobInOneStatement() {
+        final UUID jobId = randomUUID();
+        final ZonedDateTime nextTaskStartTimeAfterUpdate = new UtcClock().now().minusSeconds(1).truncatedTo(MILLIS);
+        jdbcRepository.insertJob(new Job(jobId, jobData(JOB_DATA_JSON), "nextTask", now().minusHours(2), of(randomUUID()), of(now()), 2, HIGH));
+
+        jdbcRepository.updateNextTaskRetryDetailsAndReleaseJob(jobId, toSqlTimestamp(nextTaskStartTimeAfterUpdate), 1);
+
+        final List<Job> jobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        assertThat(jobs.size(), is(1));
+        assertThat(jobs.get(0).getJobData(), is(jobData(JOB_DATA_JSON)));
+        assertThat(jobs.get(0).getNextTask(), is("nextTask"));
+        assertThat(jobs.get(0).getNextTaskStartTime(), is(nextTaskStartTimeAfterUpdate));
+        assertThat(jobs.get(0).getRetryAttemptsRemaining(), is(1));
+    }
+
     @Test
     public void shouldLockJobsToWorker() throws SQLException {
         createJobs(10);
@@ -208,6 +381,329 @@ public class JobJdbcRepositoryTest {
         assertThat(jobs.size(), is(4));
     }
 
+    @Test
+    public void shouldClaimJobsForWorkerAndReturnThemInOneStatement() {
+        createJobs(10);
+        final UUID workerId = randomUUID();
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(workerId, List.of(HIGH), 4, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(4));
+        claimedJobs.forEach(job -> {
+            assertThat(job.getWorkerId(), is(of(workerId)));
+            assertTrue(job.getWorkerLockTime().isPresent());
+            assertThat(job.getJobData(), is(jobData(JOB_DATA_JSON)));
+            assertThat(job.getPriority(), is(HIGH));
+        });
+        assertThat(jdbcRepository.findJobsLockedTo(workerId).count(), is(4L));
+    }
+
+    @Test
+    public void shouldNotClaimJobsAlreadyLockedOrOfAnotherPriorityOrNotYetDue() {
+        final UUID otherWorkerId = randomUUID();
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(otherWorkerId), of(now()), 0, HIGH));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), empty(), empty(), 0, LOW));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusMinutes(5), empty(), empty(), 0, HIGH));
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 10, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(0));
+    }
+
+    @Test
+    public void shouldTopUpClaimedJobsFromFollowingPrioritiesInOrder() {
+        insertJobs(2, HIGH);
+        insertJobs(3, MEDIUM);
+        insertJobs(5, LOW);
+        final UUID workerId = randomUUID();
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(workerId, List.of(MEDIUM, HIGH, LOW), 6, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(6));
+        assertThat(claimedJobs.stream().filter(job -> job.getPriority() == MEDIUM).count(), is(3L));
+        assertThat(claimedJobs.stream().filter(job -> job.getPriority() == HIGH).count(), is(2L));
+        assertThat(claimedJobs.stream().filter(job -> job.getPriority() == LOW).count(), is(1L));
+        assertThat(jdbcRepository.findJobsLockedTo(workerId).count(), is(6L));
+    }
+
+    @Test
+    public void shouldClaimOnlyFromFirstPriorityWhenItFillsTheBatch() {
+        insertJobs(5, HIGH);
+        insertJobs(5, LOW);
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 4, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(4));
+        claimedJobs.forEach(job -> assertThat(job.getPriority(), is(HIGH)));
+    }
+
+    @Test
+    public void shouldNotClaimJobsForExcludedTasks() {
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "saturatedTask", now(), empty(), empty(), 0, HIGH));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "otherSaturatedTask", now(), empty(), empty(), 0, LOW));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), empty(), empty(), 0, HIGH));
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 10, List.of("saturatedTask", "otherSaturatedTask")).toList();
+
+        assertThat(claimedJobs.size(), is(1));
+        assertThat(claimedJobs.get(0).getNextTask(), is("nextTask"));
+    }
+
+    @Test
+    public void shouldClaimJobsWhoseLeaseHasExpired() {
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(now().minusSeconds(JOB_LEASE_SECONDS + 5)), 0, HIGH));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(now().minusSeconds(JOB_LEASE_SECONDS - 5)), 0, HIGH));
+        final UUID workerId = randomUUID();
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(workerId, List.of(HIGH), 10, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(1));
+        assertThat(claimedJobs.get(0).getWorkerId(), is(of(workerId)));
+    }
+
+    @Test
+    public void shouldClaimTheJobsWithTheEarliestStartTimeFirst() {
+        final Job oldestJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(300), empty(), empty(), 0, HIGH);
+        final Job olderJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(200), empty(), empty(), 0, HIGH);
+        insertJobs(5, HIGH);
+        jdbcRepository.insertJob(olderJob);
+        insertJobs(5, HIGH);
+        jdbcRepository.insertJob(oldestJob);
+
+        final List<UUID> claimedJobIds = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 2, List.of()).map(Job::getJobId).toList();
+
+        assertThat(claimedJobIds.size(), is(2));
+        assertTrue(claimedJobIds.containsAll(List.of(oldestJob.getJobId(), olderJob.getJobId())));
+    }
+
+    @Test
+    public void shouldClaimUnlockedJobsByAnOrderedScanOfThePartialIndexSkippingLockedRows() throws Exception {
+        final ZonedDateTime now = now();
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection()) {
+            connection.createStatement().execute("WITH inserted_job AS (INSERT INTO job(job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority) " +
+                    "SELECT gen_random_uuid(), CASE WHEN i % 10 = 0 THEN gen_random_uuid() END, CASE WHEN i % 10 = 0 THEN now() END, 'nextTask', " +
+                    "now() - make_interval(secs => i), 0, (ARRAY['HIGH', 'MEDIUM', 'LOW'])[i % 3 + 1] FROM generate_series(1, 20000) AS i RETURNING job_id) " +
+                    "INSERT INTO job_payload(job_id, job_data) SELECT job_id, '{}'::jsonb FROM inserted_job");
+            connection.createStatement().execute("ANALYZE job, job_payload");
+
+            try (final PreparedStatement ps = connection.prepareStatement("EXPLAIN " + JobJdbcRepository.claimJobsSql(1, true))) {
+                ps.setTimestamp(1, toSqlTimestamp(now.minusSeconds(JOB_LEASE_SECONDS)));
+                ps.setString(2, HIGH.name());
+                ps.setTimestamp(3, toSqlTimestamp(now));
+                ps.setObject(4, new String[0]);
+                ps.setLong(5, 10L);
+                ps.setString(6, HIGH.name());
+                ps.setTimestamp(7, toSqlTimestamp(now));
+                ps.setObject(8, new String[0]);
+                ps.setLong(9, 10L);
+                ps.setObject(10, randomUUID());
+                ps.setTimestamp(11, toSqlTimestamp(now));
+                ps.setTimestamp(12, toSqlTimestamp(now.minusSeconds(JOB_LEASE_SECONDS)));
+                ps.setObject(13, new String[]{HIGH.name()});
+
+                final String plan = queryPlanOf(ps);
+
+                assertThat(plan, plan.contains("Index Scan using job_unlocked_priority_start_time_idx"), is(true));
+                assertThat(plan, plan.contains("Index Scan using job_locked_worker_lock_time_idx"), is(true));
+                assertThat(plan, plan.contains("LockRows"), is(true));
+                assertThat(plan, plan.contains("Seq Scan"), is(false));
+            }
+        }
+    }
+
+    @Test
+    public void shouldClaimJobsDueToStartWithinTheLookahead() {
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(60L);
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusSeconds(30), empty(), empty(), 0, HIGH));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusSeconds(90), empty(), empty(), 0, HIGH));
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 10, List.of()).toList();
+
+        assertThat(claimedJobs.size(), is(1));
+        assertThat(claimedJobs.get(0).getNextTaskStartTime().isAfter(now()), is(true));
+    }
+
+    @Test
+    public void shouldStoreAndClaimJobsByTheirNumericPriority() {
+        when(jobStoreConfiguration.getPriorityAgingSecondsPerPoint()).thenReturn(1L);
+        final ZonedDateTime startTime = now().minusSeconds(10);
+        final Job highJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", startTime, empty(), empty(), 0, HIGH);
+        final Job moreUrgentHighJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", startTime, empty(), empty(), 0, HIGH, 320);
+        jdbcRepository.insertJob(highJob);
+        jdbcRepository.insertJob(moreUrgentHighJob);
+
+        final List<Job> firstClaim = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+        final List<Job> secondClaim = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+
+        assertThat(firstClaim.get(0).getJobId(), is(moreUrgentHighJob.getJobId()));
+        assertThat(firstClaim.get(0).getPriorityValue(), is(320));
+        assertThat(secondClaim.get(0).getJobId(), is(highJob.getJobId()));
+        assertThat(secondClaim.get(0).getPriorityValue(), is(HIGH.getValue()));
+    }
+
+    @Test
+    public void shouldClaimJobsByPriorityAgedByTheTimeTheyHaveWaited() {
+        when(jobStoreConfiguration.getPriorityAgingSecondsPerPoint()).thenReturn(1L);
+        final Job longWaitingLowJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(300), empty(), empty(), 0, LOW);
+        final Job newlyDueHighJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(10), empty(), empty(), 0, HIGH);
+        final Job newlyDueLowJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(10), empty(), empty(), 0, LOW);
+        jdbcRepository.insertJob(newlyDueLowJob);
+        jdbcRepository.insertJob(newlyDueHighJob);
+        jdbcRepository.insertJob(longWaitingLowJob);
+
+        final List<Job> firstClaim = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+        final List<Job> secondClaim = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+
+        assertThat(firstClaim.get(0).getJobId(), is(longWaitingLowJob.getJobId()));
+        assertThat(secondClaim.get(0).getJobId(), is(newlyDueHighJob.getJobId()));
+    }
+
+    @Test
+    public void shouldAgeJobsFromTheirNewStartTimeWhenRescheduled() {
+        when(jobStoreConfiguration.getPriorityAgingSecondsPerPoint()).thenReturn(1L);
+        final Job rescheduledLowJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(300), empty(), empty(), 1, LOW);
+        final Job newlyDueHighJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(10), empty(), empty(), 0, HIGH);
+        jdbcRepository.insertJob(rescheduledLowJob);
+        jdbcRepository.insertJob(newlyDueHighJob);
+
+        jdbcRepository.updateNextTaskRetryDetails(rescheduledLowJob.getJobId(), toSqlTimestamp(now().minusSeconds(10)), 0);
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+
+        assertThat(claimedJobs.get(0).getJobId(), is(newlyDueHighJob.getJobId()));
+    }
+
+    @Test
+    public void shouldShareEachClaimedBatchBetweenTasksByWeight() {
+        insertJobs(10, "floodingTask", HIGH);
+        insertJobs(10, "weightedTask", HIGH);
+        insertJobs(10, "otherTask", HIGH);
+
+        final Map<String, Long> claimedJobCountByTask = jdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH), 8, Map.of("floodingTask", 1, "weightedTask", 2, "otherTask", 1)).toList().stream()
+                .collect(groupingBy(Job::getNextTask, counting()));
+
+        assertThat(claimedJobCountByTask, is(Map.of("floodingTask", 2L, "weightedTask", 4L, "otherTask", 2L)));
+    }
+
+    @Test
+    public void shouldGiveTheShareOfTasksWithNoJobsWaitingToTheOtherTasksAndTopUpFromTheNextPriority() {
+        insertJobs(10, "floodingTask", HIGH);
+        insertJobs(1, "otherTask", HIGH);
+        insertJobs(1, "otherTask", LOW);
+        insertJobs(1, "unweightedTask", HIGH);
+
+        final List<Job> firstClaim = jdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH, LOW), 4, Map.of("floodingTask", 1, "otherTask", 1)).toList();
+        final List<Job> secondClaim = jdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH, LOW), 10, Map.of("floodingTask", 1, "otherTask", 1)).toList();
+
+        assertThat(firstClaim.stream().filter(job -> job.getNextTask().equals("otherTask")).count(), is(1L));
+        assertThat(firstClaim.stream().filter(job -> job.getNextTask().equals("floodingTask")).count(), is(3L));
+        assertThat(secondClaim.size(), is(8));
+        assertThat(secondClaim.stream().filter(job -> job.getPriority() == LOW).count(), is(1L));
+        assertThat(secondClaim.stream().noneMatch(job -> job.getNextTask().equals("unweightedTask")), is(true));
+    }
+
+    @Test
+    public void shouldFillTheBatchFromTheOnlyTaskWithJobsWaitingWhateverTheNumberOfTasksGiven() {
+        insertJobs(10, "floodingTask", HIGH);
+        final Map<String, Integer> weightByTaskName = new HashMap<>(Map.of("floodingTask", 1));
+        IntStream.rangeClosed(1, 20).forEach(taskNumber -> weightByTaskName.put("idleTask" + taskNumber, 1));
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH), 8, weightByTaskName).toList();
+
+        assertThat(claimedJobs.size(), is(8));
+    }
+
+    @Test
+    public void shouldFindBacklogOfDueUnclaimedJobsOfEachPriorityCountedUpToTheDepthLimit() {
+        final ZonedDateTime oldestStartTime = now().minusSeconds(60).truncatedTo(MILLIS);
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", oldestStartTime, empty(), empty(), 0, HIGH));
+        insertJobs(3, HIGH);
+        insertJobs(1, LOW);
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusSeconds(60), empty(), empty(), 0, MEDIUM));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(now()), 0, MEDIUM));
+
+        final Map<Priority, PriorityBacklog> priorityBacklogs = jdbcRepository.findPriorityBacklogs(2).stream()
+                .collect(toMap(PriorityBacklog::getPriority, priorityBacklog -> priorityBacklog));
+
+        assertThat(priorityBacklogs.get(HIGH).getDepth(), is(2));
+        assertThat(priorityBacklogs.get(HIGH).getOldestStartTime().get().toInstant(), is(oldestStartTime.toInstant()));
+        assertThat(priorityBacklogs.get(LOW).getDepth(), is(1));
+        assertThat(priorityBacklogs.get(MEDIUM), is(new PriorityBacklog(MEDIUM, 0, empty())));
+    }
+
+    @Test
+    public void shouldCountJobsDueWithinTheLookaheadInTheBacklog() {
+        when(jobStoreConfiguration.getLookaheadSeconds()).thenReturn(120L);
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusSeconds(60), empty(), empty(), 0, MEDIUM));
+        jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().plusSeconds(300), empty(), empty(), 0, MEDIUM));
+
+        final Map<Priority, PriorityBacklog> priorityBacklogs = jdbcRepository.findPriorityBacklogs(10).stream()
+                .collect(toMap(PriorityBacklog::getPriority, priorityBacklog -> priorityBacklog));
+
+        assertThat(priorityBacklogs.get(MEDIUM).getDepth(), is(1));
+        assertThat(priorityBacklogs.get(HIGH).getDepth(), is(0));
+    }
+
+    @Test
+    public void shouldRenewLeasesOfJobsStillLockedToTheirWorkerInOneStatement() throws Exception {
+        final UUID workerId = randomUUID();
+        final ZonedDateTime lockTime = now().minusSeconds(20);
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(workerId), of(lockTime), 0, HIGH);
+        final Job otherJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(workerId), of(lockTime), 0, HIGH);
+        final Job jobClaimedByAnotherWorker = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(lockTime), 0, HIGH);
+        jdbcRepository.insertJob(job);
+        jdbcRepository.insertJob(otherJob);
+        jdbcRepository.insertJob(jobClaimedByAnotherWorker);
+
+        final int renewedJobLeaseCount = jdbcRepository.renewJobLeases(Map.of(
+                job.getJobId(), workerId,
+                otherJob.getJobId(), workerId,
+                jobClaimedByAnotherWorker.getJobId(), workerId));
+
+        assertThat(renewedJobLeaseCount, is(2));
+        assertTrue(getJobById(job.getJobId()).getWorkerLockTime().get().isAfter(lockTime));
+        assertTrue(getJobById(otherJob.getJobId()).getWorkerLockTime().get().isAfter(lockTime));
+        assertTrue(getJobById(jobClaimedByAnotherWorker.getJobId()).getWorkerLockTime().get().truncatedTo(MILLIS).isEqual(lockTime.truncatedTo(MILLIS)));
+    }
+
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenRenewingJobLeases() throws SQLException {
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(any(), any())).thenThrow(SQLException.class);
+        jdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+        assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.renewJobLeases(Map.of(randomUUID(), randomUUID())));
+    }
+
+    @Test
+    public void shouldDeleteCompletedJobsStillLockedToTheirWorkerInOneStatement() throws Exception {
+        final UUID workerId = randomUUID();
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(workerId), of(now()), 0, HIGH);
+        final Job otherJob = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(workerId), of(now()), 0, HIGH);
+        final Job jobClaimedByAnotherWorker = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), of(randomUUID()), of(now()), 0, HIGH);
+        jdbcRepository.insertJob(job);
+        jdbcRepository.insertJob(otherJob);
+        jdbcRepository.insertJob(jobClaimedByAnotherWorker);
+
+        final int deletedJobCount = jdbcRepository.deleteJobs(Map.of(
+                job.getJobId(), workerId,
+                otherJob.getJobId(), workerId,
+                jobClaimedByAnotherWorker.getJobId(), workerId));
+
+        assertThat(deletedJobCount, is(2));
+        assertThat(jobsCount(), is(1));
+        assertThat(countOf(JOB_PAYLOADS_COUNT), is(1));
+        assertThat(getJobById(jobClaimedByAnotherWorker.getJobId()).getJobId(), is(jobClaimedByAnotherWorker.getJobId()));
+    }
+
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenDeletingJobs() throws SQLException {
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(any(), any())).thenThrow(SQLException.class);
+        jdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+        assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.deleteJobs(Map.of(randomUUID(), randomUUID())));
+    }
+
     @Test
     public void shouldFindLockedJobsToWorker() throws Exception {
         final UUID jobId = randomUUID();
@@ -280,6 +776,119 @@ public class JobJdbcRepositoryTest {
 
         final int jobsCount = jobsCount();
         assertThat(jobsCount, is(1));
+        assertThat(countOf(JOB_PAYLOADS_COUNT), is(1));
+    }
+
+    @Test
+    public void shouldClaimAndReleaseJobsWithoutRewritingTheirPayload() throws Exception {
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now().minusSeconds(1), empty(), empty(), 0, HIGH);
+        jdbcRepository.insertJob(job);
+        final String payloadVersion = payloadVersionOf(job.getJobId());
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        jdbcRepository.releaseJob(job.getJobId());
+
+        assertThat(claimedJobs.size(), is(1));
+        assertThat(claimedJobs.get(0).getJobData(), is(jobData(JOB_DATA_JSON)));
+        assertThat(payloadVersionOf(job.getJobId()), is(payloadVersion));
+    }
+
+    @Test
+    public void shouldClaimJobsInsertedAndUpdatedByNodesWritingOnlyTheJobDataColumn() throws Exception {
+        final UUID jobId = randomUUID();
+        executeUpdate("INSERT INTO job(job_id, next_task, next_task_start_time, job_data, retry_attempts_remaining, priority) " +
+                "VALUES (?, 'nextTask', now() - interval '1 second', '{\"some\": \"json\"}'::jsonb, 0, 'HIGH')", jobId);
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH), 1, List.of()).toList();
+        executeUpdate("UPDATE job SET job_data = '{\"some\": \"other json\"}'::jsonb WHERE job_id = ?", jobId);
+
+        assertThat(claimedJobs.size(), is(1));
+        assertThat(claimedJobs.get(0).getJobData(), is(jobData(JOB_DATA_JSON)));
+        assertThat(jdbcRepository.findJobData(jobId), is(jobData("{\"some\": \"other json\"}")));
+    }
+
+    @Test
+    public void shouldKeepTheJobDataColumnInStepForNodesReadingOnlyIt() throws Exception {
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), empty(), empty(), 0, HIGH);
+
+        jdbcRepository.insertJob(job);
+        final String insertedJobData = jobDataColumnOf(job.getJobId());
+        jdbcRepository.updateJobData(job.getJobId(), jobData("{\"some\": \"other json\"}"));
+
+        assertThat(jobData(insertedJobData), is(jobData(JOB_DATA_JSON)));
+        assertThat(jobData(jobDataColumnOf(job.getJobId())), is(jobData("{\"some\": \"other json\"}")));
+    }
+
+    @Test
+    public void shouldDeleteThePayloadOfAJobDeletedByANodeDeletingOnlyTheJob() throws Exception {
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), empty(), empty(), 0, HIGH);
+        jdbcRepository.insertJob(job);
+
+        executeUpdate("DELETE FROM job WHERE job_id = ?", job.getJobId());
+
+        assertThat(jobsCount(), is(0));
+        assertThat(countOf(JOB_PAYLOADS_COUNT), is(0));
+    }
+
+    @Test
+    public void shouldClaimJobHandlesWithoutTheirDataAndLoadItOnFirstAccessWhenLazyJobDataIsEnabled() throws SQLException {
+        when(jobStoreConfiguration.isLazyJobDataEnabled()).thenReturn(true);
+        createJobs(4);
+        final UUID workerId = randomUUID();
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = spy(new PreparedStatementWrapperFactory());
+        jdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(workerId, List.of(HIGH), 2, List.of()).toList();
+        final List<Job> lockedJobs = jdbcRepository.findJobsLockedTo(workerId).toList();
+
+        assertThat(claimedJobs.size(), is(2));
+        assertThat(lockedJobs.size(), is(2));
+        verify(preparedStatementWrapperFactory, never()).preparedStatementWrapperOf(any(), startsWith(JOB_DATA_QUERY));
+
+        claimedJobs.forEach(job -> {
+            assertThat(job.getWorkerId(), is(of(workerId)));
+            assertThat(job.getJobData(), is(jobData(JOB_DATA_JSON)));
+            assertThat(job.getJobData(), is(jobData(JOB_DATA_JSON)));
+        });
+        verify(preparedStatementWrapperFactory, times(2)).preparedStatementWrapperOf(any(), startsWith(JOB_DATA_QUERY));
+
+        lockedJobs.forEach(job -> assertThat(job.getJobData(), is(jobData(JOB_DATA_JSON))));
+        verify(preparedStatementWrapperFactory, times(4)).preparedStatementWrapperOf(any(), startsWith(JOB_DATA_QUERY));
+    }
+
+    @Test
+    public void shouldClaimJobHandlesFairlyAndByEffectivePriorityWhenLazyJobDataIsEnabled() throws SQLException {
+        when(jobStoreConfiguration.isLazyJobDataEnabled()).thenReturn(true);
+        insertJobs(2, "nextTask", HIGH);
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = spy(new PreparedStatementWrapperFactory());
+        jdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+
+        final List<Job> fairlyClaimedJobs = jdbcRepository.claimJobsFairlyFor(randomUUID(), List.of(HIGH), 1, Map.of("nextTask", 1)).toList();
+        final List<Job> claimedJobs = jdbcRepository.claimJobsByEffectivePriorityFor(randomUUID(), 1, List.of()).toList();
+
+        assertThat(fairlyClaimedJobs.size(), is(1));
+        assertThat(claimedJobs.size(), is(1));
+        verify(preparedStatementWrapperFactory, never()).preparedStatementWrapperOf(any(), startsWith(JOB_DATA_QUERY));
+        assertThat(fairlyClaimedJobs.get(0).getJobData(), is(claimedJobs.get(0).getJobData()));
+        verify(preparedStatementWrapperFactory, times(2)).preparedStatementWrapperOf(any(), startsWith(JOB_DATA_QUERY));
+    }
+
+    @Test
+    public void shouldFindEncodedJobData() {
+        useDeflateJobDataCodecFrom(0);
+        final Job job = new Job(randomUUID(), jobData(JOB_DATA_JSON), "nextTask", now(), empty(), empty(), 0, HIGH);
+        jdbcRepository.insertJob(job);
+
+        assertThat(jdbcRepository.findJobData(job.getJobId()), is(jobData(JOB_DATA_JSON)));
+    }
+
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenFindingTheDataOfAJobThatDoesNotExist() {
+        final UUID jobId = randomUUID();
+
+        final JdbcRepositoryException e = assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.findJobData(jobId));
+
+        assertThat(e.getMessage(), is("No job data found for job id " + jobId));
     }
 
     @Test
@@ -331,6 +940,14 @@ public class JobJdbcRepositoryTest {
         assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.lockJobsFor(randomUUID(), HIGH, 2));
     }
 
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenClaimingJobs() throws SQLException {
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(any(), any())).thenThrow(SQLException.class);
+        jdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+        assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.claimJobsFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 2, List.of()));
+    }
+
     @Test
     public void shouldThrowJdbcRepositoryExceptionWheoFindingJobsLockedTo() throws SQLException {
         final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
@@ -348,7 +965,7 @@ public class JobJdbcRepositoryTest {
     }
 
     private Job getJobById(UUID jobId) throws SQLException {
-        final PreparedStatementWrapper ps = new PreparedStatementWrapperFactory().preparedStatementWrapperOf(jobStoreDataSourceProvider.getJobStoreDataSource(), "select * from job where job_id = ?");
+        final PreparedStatementWrapper ps = new PreparedStatementWrapperFactory().preparedStatementWrapperOf(jobStoreDataSourceProvider.getJobStoreDataSource(), "select job.job_id, worker_id, worker_lock_time, next_task, next_task_start_time, retry_attempts_remaining, priority, priority_value, job_payload.job_data, job_data_encoded, job_data_codec from job JOIN job_payload ON job_payload.job_id = job.job_id where job.job_id = ?");
         ps.setObject(1, jobId);
         return new JdbcResultSetStreamer().streamOf(ps, jdbcRepository.mapAssignedJobFromResultSet()).findFirst().get();
     }
@@ -364,10 +981,66 @@ public class JobJdbcRepositoryTest {
         }
     }
 
+    private void insertJobs(final int count, final String nextTask, final Priority priority) {
+        for (int i = 0; i < count; i++) {
+            jdbcRepository.insertJob(new Job(randomUUID(), jobData(JOB_DATA_JSON), nextTask, now(), empty(), empty(), 0, priority));
+        }
+    }
+
+    private void insertJobs(final int count, final Priority priority) {
+        insertJobs(count, "nextTask", priority);
+    }
+
+    private String queryPlanOf(final PreparedStatement explainStatement) throws SQLException {
+        final StringBuilder plan = new StringBuilder();
+
+        try (final ResultSet resultSet = explainStatement.executeQuery()) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append(System.lineSeparator());
+            }
+        }
+
+        return plan.toString();
+    }
+
+    private String payloadVersionOf(final UUID jobId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("SELECT ctid::text FROM job_payload WHERE job_id = ?")) {
+            ps.setObject(1, jobId);
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private String jobDataColumnOf(final UUID jobId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("SELECT job_data::text FROM job WHERE job_id = ?")) {
+            ps.setObject(1, jobId);
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private void executeUpdate(final String sql, final UUID jobId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, jobId);
+            ps.executeUpdate();
+        }
+    }
+
     private int jobsCount() {
+        return countOf(JOBS_COUNT);
+    }
+
+    private int countOf(final String countSql) {
         int jobsCount = 0;
         try {
-            final PreparedStatementWrapper ps = jdbcRepository.preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSourceProvider.getJobStoreDataSource(), JOBS_COUNT);
+            final PreparedStatementWrapper ps = jdbcRepository.preparedStatementWrapperFactory.preparedStatementWrapperOf(jobStoreDataSourceProvider.getJobStoreDataSource(), countSql);
             final ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 jobsCount = rs.getInt(1);
@@ -378,6 +1051,20 @@ public class JobJdbcRepositoryTest {
         return jobsCount;
     }
 
+    @SuppressWarnings("unchecked")
+    private void useDeflateJobDataCodecFrom(final int minLength) {
+        useJobDataCodecFrom(minLength, new DeflateJobDataCodec());
+    }
+
+    private void useJobDataCodecFrom(final int minLength, final JobDataCodec jobDataCodec) {
+        final Instance<JobDataCodec> jobDataCodecBeans = mock(Instance.class);
+        when(jobDataCodecBeans.iterator()).then(invocation -> List.of(jobDataCodec).iterator());
+        jdbcRepository.jobDataCodecs = new JobDataCodecs();
+        jdbcRepository.jobDataCodecs.jobDataCodecBeans = jobDataCodecBeans;
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(jobDataCodec.getName());
+        when(jobStoreConfiguration.getJobDataCodecMinLength()).thenReturn(minLength);
+    }
+
     private JsonObject jobData(final String json) {
         return jsonReaderFactory.createReader(new StringReader(json)).readObject();
     }
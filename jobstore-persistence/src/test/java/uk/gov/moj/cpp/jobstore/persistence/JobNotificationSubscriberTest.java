@@ -0,0 +1,83 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.time.ZonedDateTime.now;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs.JSONB;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+
+import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
+import uk.gov.justice.framework.libraries.datasource.providers.jobstore.TestJobStoreDataSourceProvider;
+import uk.gov.justice.services.test.utils.core.jdbc.LiquibaseDatabaseBootstrapper;
+
+import java.sql.Connection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+public class JobNotificationSubscriberTest {
+
+    private static final String LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML = "liquibase/jobstore-db-changelog.xml";
+    private static final int TIMEOUT_MILLISECONDS = 2000;
+
+    private final JobStoreDataSourceProvider jobStoreDataSourceProvider = new TestJobStoreDataSourceProvider();
+    private final JobJdbcRepository jdbcRepository = new JobJdbcRepository();
+    private final JobNotificationSubscriber jobNotificationSubscriber = new JobNotificationSubscriber();
+
+    @BeforeEach
+    public void setup() throws Exception {
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection()) {
+            new LiquibaseDatabaseBootstrapper().bootstrap(LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML, connection);
+        }
+
+        jdbcRepository.jobStoreDataSourceProvider = jobStoreDataSourceProvider;
+        jdbcRepository.logger = mock(Logger.class);
+        jdbcRepository.preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+        jdbcRepository.jdbcResultSetStreamer = new JdbcResultSetStreamer();
+        final JobStoreConfiguration jobStoreConfiguration = mock(JobStoreConfiguration.class);
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(JSONB);
+        jdbcRepository.jobStoreConfiguration = jobStoreConfiguration;
+
+        jobNotificationSubscriber.jobStoreDataSourceProvider = jobStoreDataSourceProvider;
+        jobNotificationSubscriber.logger = mock(Logger.class);
+    }
+
+    @Test
+    public void shouldBeNotifiedOfThePrioritiesOfInsertedJobs() {
+
+        try (final JobNotificationSubscription subscription = jobNotificationSubscriber.subscribe()) {
+
+            jdbcRepository.insertJob(new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "nextTask", now(), empty(), empty(), 0, HIGH));
+            jdbcRepository.insertJob(new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "nextTask", now(), empty(), empty(), 0, LOW));
+
+            final Set<Priority> priorities = EnumSet.noneOf(Priority.class);
+            for (int attempt = 0; attempt < 5 && priorities.size() < 2; attempt++) {
+                priorities.addAll(subscription.awaitNotifications(TIMEOUT_MILLISECONDS));
+            }
+
+            assertThat(priorities, is(EnumSet.of(HIGH, LOW)));
+        }
+    }
+
+    @Test
+    public void shouldNotBeNotifiedOfJobsInsertedAlreadyLocked() {
+
+        try (final JobNotificationSubscription subscription = jobNotificationSubscriber.subscribe()) {
+
+            jdbcRepository.insertJob(new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "nextTask", now(), of(randomUUID()), of(now()), 0, HIGH));
+
+            assertThat(subscription.awaitNotifications(200).isEmpty(), is(true));
+        }
+    }
+}
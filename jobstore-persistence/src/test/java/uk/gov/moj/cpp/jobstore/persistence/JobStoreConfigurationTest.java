@@ -38,6 +38,194 @@ public class JobStoreConfigurationTest {
         assertThat(jobStoreConfiguration.getJobPriorityPercentageLow(), is(10));
     }
 
+    @Test
+    public void shouldGetTheMaximumNumberOfJobsInFlightOnAWorker() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "workerMaxInFlightJobCount", "25");
+        assertThat(jobStoreConfiguration.getWorkerMaxInFlightJobCount(), is(25));
+    }
+
+    @Test
+    public void shouldGetWhetherJobNotificationsAreEnabled() throws Exception {
+
+        setField(jobStoreConfiguration, "notificationEnabled", "true");
+        assertThat(jobStoreConfiguration.isNotificationEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetTheJobNotificationPollMilliseconds() throws Exception {
+
+        setField(jobStoreConfiguration, "notificationPollMilliseconds", "250");
+        assertThat(jobStoreConfiguration.getNotificationPollMilliseconds(), is(250));
+    }
+
+    @Test
+    public void shouldGetWhetherTheJobDispatcherIsEnabled() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "dispatcherEnabled", "true");
+        assertThat(jobStoreConfiguration.isDispatcherEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetTheJobDispatcherBackOffMilliseconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "dispatcherMinBackOffMilliseconds", "50");
+        setField(jobStoreConfiguration, "dispatcherMaxBackOffMilliseconds", "2000");
+        assertThat(jobStoreConfiguration.getDispatcherMinBackOffMilliseconds(), is(50L));
+        assertThat(jobStoreConfiguration.getDispatcherMaxBackOffMilliseconds(), is(2000L));
+    }
+
+    @Test
+    public void shouldGetWhetherJobsRunOnVirtualThreads() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "virtualThreadsEnabled", "true");
+        assertThat(jobStoreConfiguration.isVirtualThreadsEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetTheMaximumNumberOfJobsRunningOnVirtualThreads() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "virtualThreadMaxConcurrency", "500");
+        assertThat(jobStoreConfiguration.getVirtualThreadMaxConcurrency(), is(500));
+    }
+
+    @Test
+    public void shouldGetTheJobLeaseSeconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "jobLeaseSeconds", "30");
+        assertThat(jobStoreConfiguration.getJobLeaseSeconds(), is(30L));
+    }
+
+    @Test
+    public void shouldGetTheJobLeaseRenewalMilliseconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "jobLeaseRenewalMilliseconds", "10000");
+        assertThat(jobStoreConfiguration.getJobLeaseRenewalMilliseconds(), is(10000L));
+    }
+
+    @Test
+    public void shouldGetTheWorkerNodeExpirySeconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "workerNodeExpirySeconds", "15");
+        assertThat(jobStoreConfiguration.getWorkerNodeExpirySeconds(), is(15L));
+    }
+
+    @Test
+    public void shouldGetWhetherTheReadyQueueIsEnabled() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "readyQueueEnabled", "true");
+        assertThat(jobStoreConfiguration.isReadyQueueEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetTheReadyQueueLowWaterMark() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "readyQueueLowWaterMark", "3");
+        assertThat(jobStoreConfiguration.getReadyQueueLowWaterMark(), is(3));
+    }
+
+    @Test
+    public void shouldGetTheReadyQueueHighWaterMark() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "readyQueueHighWaterMark", "12");
+        assertThat(jobStoreConfiguration.getReadyQueueHighWaterMark(), is(12));
+    }
+
+    @Test
+    public void shouldGetTheLookaheadSeconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "lookaheadSeconds", "30");
+        assertThat(jobStoreConfiguration.getLookaheadSeconds(), is(30L));
+    }
+
+    @Test
+    public void shouldGetTheTimingWheelTickMilliseconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "timingWheelTickMilliseconds", "50");
+        assertThat(jobStoreConfiguration.getTimingWheelTickMilliseconds(), is(50L));
+    }
+
+    @Test
+    public void shouldGetWhetherPriorityAgingIsEnabled() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "priorityAgingEnabled", "true");
+        assertThat(jobStoreConfiguration.isPriorityAgingEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetThePriorityAgingSecondsPerPoint() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "priorityAgingSecondsPerPoint", "6");
+        assertThat(jobStoreConfiguration.getPriorityAgingSecondsPerPoint(), is(6L));
+    }
+
+    @Test
+    public void shouldGetThePriorityBacklogRefreshMilliseconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "priorityBacklogRefreshMilliseconds", "2500");
+        assertThat(jobStoreConfiguration.getPriorityBacklogRefreshMilliseconds(), is(2500L));
+    }
+
+    @Test
+    public void shouldGetThePriorityBacklogDepthLimit() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "priorityBacklogDepthLimit", "500");
+        assertThat(jobStoreConfiguration.getPriorityBacklogDepthLimit(), is(500));
+    }
+
+    @Test
+    public void shouldGetThePriorityBacklogMaxWaitSeconds() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "priorityBacklogMaxWaitSeconds", "60");
+        assertThat(jobStoreConfiguration.getPriorityBacklogMaxWaitSeconds(), is(60L));
+    }
+
+    @Test
+    public void shouldGetWhetherFairTaskClaimingIsEnabled() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "fairTaskClaimingEnabled", "true");
+        assertThat(jobStoreConfiguration.isFairTaskClaimingEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldGetTheAsyncEnqueueSettings() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "asyncEnqueueEnabled", "true");
+        setField(jobStoreConfiguration, "asyncEnqueueBufferCapacity", "2000");
+        setField(jobStoreConfiguration, "asyncEnqueueBatchSize", "250");
+        setField(jobStoreConfiguration, "asyncEnqueueFlushMilliseconds", "10");
+        assertThat(jobStoreConfiguration.isAsyncEnqueueEnabled(), is(true));
+        assertThat(jobStoreConfiguration.getAsyncEnqueueBufferCapacity(), is(2000));
+        assertThat(jobStoreConfiguration.getAsyncEnqueueBatchSize(), is(250));
+        assertThat(jobStoreConfiguration.getAsyncEnqueueFlushMilliseconds(), is(10L));
+    }
+
+    @Test
+    public void shouldGetTheBatchedCompletionSettings() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "batchedCompletionEnabled", "true");
+        setField(jobStoreConfiguration, "batchedCompletionBatchSize", "250");
+        setField(jobStoreConfiguration, "batchedCompletionFlushMilliseconds", "2000");
+        assertThat(jobStoreConfiguration.isBatchedCompletionEnabled(), is(true));
+        assertThat(jobStoreConfiguration.getBatchedCompletionBatchSize(), is(250));
+        assertThat(jobStoreConfiguration.getBatchedCompletionFlushMilliseconds(), is(2000L));
+    }
+
+    @Test
+    public void shouldGetTheJobDataCodecSettings() throws Exception {
+        final JobStoreConfiguration jobStoreConfiguration = new JobStoreConfiguration();
+        setField(jobStoreConfiguration, "jobDataCodec", "deflate");
+        setField(jobStoreConfiguration, "jobDataCodecMinLength", "4096");
+        assertThat(jobStoreConfiguration.getJobDataCodec(), is("deflate"));
+        assertThat(jobStoreConfiguration.getJobDataCodecMinLength(), is(4096));
+    }
+
+    @Test
+    public void shouldGetWhetherJobDataIsLoadedLazily() throws Exception {
+        setField(jobStoreConfiguration, "lazyJobDataEnabled", "true");
+        assertThat(jobStoreConfiguration.isLazyJobDataEnabled(), is(true));
+    }
+
     @Test
     public void shouldGetTheModuleName() throws Exception {
 
@@ -10,6 +10,7 @@ import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
 import uk.gov.justice.services.common.util.UtcClock;
 
 import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.json.JsonObject;
 
@@ -52,4 +53,32 @@ public class JobTest {
         assertThat(copiedExecutionInfo.getPriority(), is(high));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldLoadTheJobDataOnceOnFirstAccess() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final Job job = new Job(randomUUID(), () -> {
+            loadCount.incrementAndGet();
+            return jobData;
+        }, NEXT_TASK, nextTaskStartTime, empty(), empty(), 0, HIGH, HIGH.getValue());
+
+        assertThat(loadCount.get(), is(0));
+        assertThat(job.getJobData(), is(jobData));
+        assertThat(job.getJobData(), is(jobData));
+        assertThat(loadCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldKeepTheJobDataLoaderWhenBuildingFromAJobYetToLoadItsData() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final Job originalJob = new Job(randomUUID(), () -> {
+            loadCount.incrementAndGet();
+            return jobData;
+        }, NEXT_TASK, nextTaskStartTime, empty(), empty(), 0, HIGH, HIGH.getValue());
+
+        final Job copiedJob = Job.job().from(originalJob).withNextTask("anotherTask").build();
+
+        assertThat(loadCount.get(), is(0));
+        assertThat(copiedJob.getJobData(), is(jobData));
+        assertThat(copiedJob.getNextTask(), is("anotherTask"));
+    }
+}
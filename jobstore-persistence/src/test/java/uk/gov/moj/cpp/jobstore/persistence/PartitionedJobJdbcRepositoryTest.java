@@ -0,0 +1,201 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.time.ZonedDateTime.now;
+import static java.util.Optional.empty;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonReaderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs.JSONB;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
+
+import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
+import uk.gov.justice.framework.libraries.datasource.providers.jobstore.TestJobStoreDataSourceProvider;
+import uk.gov.justice.services.test.utils.core.jdbc.LiquibaseDatabaseBootstrapper;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.json.JsonObject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+public class PartitionedJobJdbcRepositoryTest {
+
+    private static final String LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML = "liquibase/jobstore-db-changelog.xml";
+    private static final Map<String, String> PARTITIONED_LAYOUT = Map.of("jobstore.job.table.partitioned", "true");
+    private static final String JOB_DATA_JSON = "{\"some\": \"json\"}";
+    private static final long JOB_LEASE_SECONDS = 30L;
+
+    private final JobStoreDataSourceProvider jobStoreDataSourceProvider = new TestJobStoreDataSourceProvider();
+    private final JobJdbcRepository jdbcRepository = new JobJdbcRepository();
+    private final JobStoreConfiguration jobStoreConfiguration = mock(JobStoreConfiguration.class);
+
+    @BeforeEach
+    public void createJdbcRepository() throws Exception {
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection()) {
+            new LiquibaseDatabaseBootstrapper().bootstrap(LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML, connection, PARTITIONED_LAYOUT);
+        }
+        jdbcRepository.jobStoreDataSourceProvider = jobStoreDataSourceProvider;
+        jdbcRepository.logger = mock(Logger.class);
+        jdbcRepository.preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+        jdbcRepository.jdbcResultSetStreamer = new JdbcResultSetStreamer();
+        jdbcRepository.jobStoreConfiguration = jobStoreConfiguration;
+        when(jobStoreConfiguration.getJobLeaseSeconds()).thenReturn(JOB_LEASE_SECONDS);
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(JSONB);
+    }
+
+    @Test
+    public void shouldStoreEachJobInThePartitionOfItsPriority() throws Exception {
+        final Job highJob = jobOf(HIGH);
+        final Job lowJob = jobOf(LOW);
+
+        jdbcRepository.insertJob(highJob);
+        jdbcRepository.insertJob(lowJob);
+
+        assertThat(partitionOf(highJob.getJobId()), is("job_high"));
+        assertThat(partitionOf(lowJob.getJobId()), is("job_low"));
+    }
+
+    @Test
+    public void shouldClaimUpdateAndDeleteJobsAcrossPartitions() {
+        final Job highJob = jobOf(HIGH);
+        final Job mediumJob = jobOf(MEDIUM);
+        jdbcRepository.insertJob(highJob);
+        jdbcRepository.insertJob(mediumJob);
+        jdbcRepository.insertJob(jobOf(LOW));
+
+        final UUID workerId = randomUUID();
+        final List<Job> claimedJobs = jdbcRepository.claimJobsFor(workerId, List.of(HIGH, MEDIUM), 10, List.of()).toList();
+        jdbcRepository.updateNextTaskDetails(mediumJob.getJobId(), "anotherTask", toSqlTimestamp(now()), 0);
+        jdbcRepository.deleteJob(highJob.getJobId());
+
+        assertThat(claimedJobs.size(), is(2));
+        assertThat(claimedJobs.get(0).getJobData(), is(jobData()));
+
+        final List<Job> lockedJobs = jdbcRepository.findJobsLockedTo(workerId).toList();
+        assertThat(lockedJobs.size(), is(1));
+        assertThat(lockedJobs.get(0).getJobId(), is(mediumJob.getJobId()));
+        assertThat(lockedJobs.get(0).getNextTask(), is("anotherTask"));
+
+        final Map<Priority, Integer> depths = jdbcRepository.findPriorityBacklogs(10).stream()
+                .collect(toMap(PriorityBacklog::getPriority, PriorityBacklog::getDepth));
+        assertThat(depths, is(Map.of(HIGH, 0, MEDIUM, 0, LOW, 1)));
+    }
+
+    @Test
+    public void shouldNotInsertASecondJobWithTheSameIdInAnotherPartition() throws Exception {
+        final Job highJob = jobOf(HIGH);
+        jdbcRepository.insertJob(highJob);
+
+        final Job lowJobWithTheSameId = new Job(highJob.getJobId(), jobData(), "nextTask", now(), empty(), empty(), 0, LOW);
+        assertThrows(JdbcRepositoryException.class, () -> jdbcRepository.insertJob(lowJobWithTheSameId));
+
+        assertThat(partitionOf(highJob.getJobId()), is("job_high"));
+    }
+
+    @Test
+    public void shouldNotDeleteThePayloadOfAJobThatStillExists() throws Exception {
+        final Job job = jobOf(MEDIUM);
+        jdbcRepository.insertJob(job);
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("DELETE FROM job_payload WHERE job_id = ?")) {
+            ps.setObject(1, job.getJobId());
+
+            final SQLException sqlException = assertThrows(SQLException.class, ps::executeUpdate);
+            assertThat(sqlException.getMessage(), sqlException.getMessage().contains("job_job_payload_fk"), is(true));
+        }
+
+        jdbcRepository.deleteJob(job.getJobId());
+
+        assertThat(payloadCountOf(job.getJobId()), is(0));
+    }
+
+    @Test
+    public void shouldReadOnlyThePartitionsOfTheClaimedPriorities() throws Exception {
+        final ZonedDateTime now = now();
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("EXPLAIN " + JobJdbcRepository.claimJobsSql(1, true))) {
+            ps.setTimestamp(1, toSqlTimestamp(now.minusSeconds(JOB_LEASE_SECONDS)));
+            ps.setString(2, HIGH.name());
+            ps.setTimestamp(3, toSqlTimestamp(now));
+            ps.setObject(4, new String[0]);
+            ps.setLong(5, 10L);
+            ps.setString(6, HIGH.name());
+            ps.setTimestamp(7, toSqlTimestamp(now));
+            ps.setObject(8, new String[0]);
+            ps.setLong(9, 10L);
+            ps.setObject(10, randomUUID());
+            ps.setTimestamp(11, toSqlTimestamp(now));
+            ps.setTimestamp(12, toSqlTimestamp(now.minusSeconds(JOB_LEASE_SECONDS)));
+            ps.setObject(13, new String[]{HIGH.name()});
+
+            final String plan = queryPlanOf(ps);
+
+            assertThat(plan, plan.contains("job_high"), is(true));
+            assertThat(plan, plan.contains("job_medium"), is(false));
+            assertThat(plan, plan.contains("job_low"), is(false));
+        }
+    }
+
+    private Job jobOf(final Priority priority) {
+        return new Job(randomUUID(), jobData(), "nextTask", now().minusSeconds(1), empty(), empty(), 0, priority);
+    }
+
+    private String partitionOf(final UUID jobId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("SELECT tableoid::regclass::text FROM job WHERE job_id = ?")) {
+            ps.setObject(1, jobId);
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private int payloadCountOf(final UUID jobId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("SELECT count(*) FROM job_payload WHERE job_id = ?")) {
+            ps.setObject(1, jobId);
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private String queryPlanOf(final PreparedStatement explainStatement) throws SQLException {
+        final StringBuilder plan = new StringBuilder();
+
+        try (final ResultSet resultSet = explainStatement.executeQuery()) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append(System.lineSeparator());
+            }
+        }
+
+        return plan.toString();
+    }
+
+    private JsonObject jobData() {
+        return jsonReaderFactory.createReader(new StringReader(JOB_DATA_JSON)).readObject();
+    }
+}
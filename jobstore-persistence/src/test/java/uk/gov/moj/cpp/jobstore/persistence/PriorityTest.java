@@ -0,0 +1,27 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
+
+import org.junit.jupiter.api.Test;
+
+public class PriorityTest {
+
+    @Test
+    public void shouldFindTheNamedPriorityClosestToANumericPriority() {
+        assertThat(Priority.closestTo(1000), is(HIGH));
+        assertThat(Priority.closestTo(260), is(HIGH));
+        assertThat(Priority.closestTo(200), is(MEDIUM));
+        assertThat(Priority.closestTo(140), is(LOW));
+        assertThat(Priority.closestTo(-50), is(LOW));
+    }
+
+    @Test
+    public void shouldTakeTheMoreUrgentPriorityHalfwayBetweenTwo() {
+        assertThat(Priority.closestTo(250), is(HIGH));
+        assertThat(Priority.closestTo(150), is(MEDIUM));
+    }
+}
@@ -0,0 +1,140 @@
+package uk.gov.moj.cpp.jobstore.persistence;
+
+import static java.time.ZonedDateTime.now;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.fromSqlTimestamp;
+import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
+import static uk.gov.justice.services.messaging.JsonObjects.jsonBuilderFactory;
+import static uk.gov.moj.cpp.jobstore.persistence.JobDataCodecs.JSONB;
+import static uk.gov.moj.cpp.jobstore.persistence.Priority.HIGH;
+
+import uk.gov.justice.datasource.jobstore.JobStoreDataSourceProvider;
+import uk.gov.justice.framework.libraries.datasource.providers.jobstore.TestJobStoreDataSourceProvider;
+import uk.gov.justice.services.test.utils.core.jdbc.LiquibaseDatabaseBootstrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+public class WorkerNodeJdbcRepositoryTest {
+
+    private static final String LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML = "liquibase/jobstore-db-changelog.xml";
+
+    private final JobStoreDataSourceProvider jobStoreDataSourceProvider = new TestJobStoreDataSourceProvider();
+    private final JobJdbcRepository jobJdbcRepository = new JobJdbcRepository();
+    private final WorkerNodeJdbcRepository workerNodeJdbcRepository = new WorkerNodeJdbcRepository();
+
+    @BeforeEach
+    public void setup() throws Exception {
+
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection()) {
+            new LiquibaseDatabaseBootstrapper().bootstrap(LIQUIBASE_JOB_STORE_DB_CHANGELOG_XML, connection);
+        }
+
+        jobJdbcRepository.jobStoreDataSourceProvider = jobStoreDataSourceProvider;
+        jobJdbcRepository.logger = mock(Logger.class);
+        jobJdbcRepository.preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+        jobJdbcRepository.jdbcResultSetStreamer = new JdbcResultSetStreamer();
+        final JobStoreConfiguration jobStoreConfiguration = mock(JobStoreConfiguration.class);
+        when(jobStoreConfiguration.getJobDataCodec()).thenReturn(JSONB);
+        jobJdbcRepository.jobStoreConfiguration = jobStoreConfiguration;
+
+        workerNodeJdbcRepository.jobStoreDataSourceProvider = jobStoreDataSourceProvider;
+        workerNodeJdbcRepository.logger = mock(Logger.class);
+        workerNodeJdbcRepository.preparedStatementWrapperFactory = new PreparedStatementWrapperFactory();
+    }
+
+    @Test
+    public void shouldRegisterWorkerNodeOnFirstHeartbeatAndUpdateHeartbeatTimeAfterwards() throws Exception {
+        final UUID nodeId = randomUUID();
+
+        workerNodeJdbcRepository.heartbeat(nodeId, "node-1");
+        final ZonedDateTime firstHeartbeatTime = heartbeatTimeOf(nodeId).get();
+
+        Thread.sleep(10);
+        workerNodeJdbcRepository.heartbeat(nodeId, "node-1");
+
+        assertTrue(heartbeatTimeOf(nodeId).get().isAfter(firstHeartbeatTime));
+    }
+
+    @Test
+    public void shouldReleaseJobsOfDeadWorkerNodesAndRemoveThoseNodes() throws Exception {
+        final UUID deadNodeId = randomUUID();
+        final UUID liveNodeId = randomUUID();
+
+        workerNodeJdbcRepository.heartbeat(deadNodeId, "dead-node");
+        workerNodeJdbcRepository.heartbeat(liveNodeId, "live-node");
+        setHeartbeatTime(deadNodeId, now().minusMinutes(5));
+
+        jobLockedTo(deadNodeId);
+        jobLockedTo(deadNodeId);
+        final Job liveNodeJob = jobLockedTo(liveNodeId);
+
+        final int releasedJobCount = workerNodeJdbcRepository.releaseJobsOfDeadNodes(toSqlTimestamp(now().minusMinutes(1)));
+
+        assertThat(releasedJobCount, is(2));
+        assertThat(heartbeatTimeOf(deadNodeId).isPresent(), is(false));
+        assertThat(heartbeatTimeOf(liveNodeId).isPresent(), is(true));
+        assertThat(jobJdbcRepository.findJobsLockedTo(deadNodeId).count(), is(0L));
+        assertThat(jobJdbcRepository.findJobsLockedTo(liveNodeId).map(Job::getJobId).toList(), is(List.of(liveNodeJob.getJobId())));
+    }
+
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenRecordingHeartbeat() throws SQLException {
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(any(), any())).thenThrow(SQLException.class);
+        workerNodeJdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+        assertThrows(JdbcRepositoryException.class, () -> workerNodeJdbcRepository.heartbeat(randomUUID(), "node-1"));
+    }
+
+    @Test
+    public void shouldThrowJdbcRepositoryExceptionWhenReleasingJobsOfDeadNodes() throws SQLException {
+        final PreparedStatementWrapperFactory preparedStatementWrapperFactory = mock(PreparedStatementWrapperFactory.class);
+        when(preparedStatementWrapperFactory.preparedStatementWrapperOf(any(), any())).thenThrow(SQLException.class);
+        workerNodeJdbcRepository.preparedStatementWrapperFactory = preparedStatementWrapperFactory;
+        assertThrows(JdbcRepositoryException.class, () -> workerNodeJdbcRepository.releaseJobsOfDeadNodes(toSqlTimestamp(now())));
+    }
+
+    private Job jobLockedTo(final UUID nodeId) {
+        final Job job = new Job(randomUUID(), jsonBuilderFactory.createObjectBuilder().build(), "nextTask", now(), of(nodeId), of(now()), 0, HIGH);
+        jobJdbcRepository.insertJob(job);
+        return job;
+    }
+
+    private Optional<ZonedDateTime> heartbeatTimeOf(final UUID nodeId) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("SELECT heartbeat_time FROM worker_node WHERE node_id = ?")) {
+            ps.setObject(1, nodeId);
+            try (final ResultSet resultSet = ps.executeQuery()) {
+                return resultSet.next() ? of(fromSqlTimestamp(resultSet.getTimestamp(1))) : empty();
+            }
+        }
+    }
+
+    private void setHeartbeatTime(final UUID nodeId, final ZonedDateTime heartbeatTime) throws SQLException {
+        try (final Connection connection = jobStoreDataSourceProvider.getJobStoreDataSource().getConnection();
+             final PreparedStatement ps = connection.prepareStatement("UPDATE worker_node SET heartbeat_time = ? WHERE node_id = ?")) {
+            ps.setTimestamp(1, toSqlTimestamp(heartbeatTime));
+            ps.setObject(2, nodeId);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.justice.services.common.converter.ZonedDateTimes.toSqlTimestamp;
@@ -17,14 +18,20 @@ import static uk.gov.moj.cpp.jobstore.persistence.Priority.LOW;
 import static uk.gov.moj.cpp.jobstore.persistence.Priority.MEDIUM;
 
 import uk.gov.moj.cpp.jobstore.persistence.Job;
+import uk.gov.moj.cpp.jobstore.persistence.JobDataPatch;
 import uk.gov.moj.cpp.jobstore.persistence.JobRepository;
 import uk.gov.moj.cpp.jobstore.persistence.JobStoreConfiguration;
 import uk.gov.moj.cpp.jobstore.persistence.Priority;
+import uk.gov.moj.cpp.jobstore.persistence.PriorityBacklog;
+import uk.gov.moj.cpp.jobstore.persistence.WorkerNodeRepository;
 
 import java.io.StringReader;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import javax.json.JsonObject;
 
@@ -47,6 +54,9 @@ public class JobServiceTest {
     @Mock
     private JobStoreConfiguration jobStoreConfiguration;
 
+    @Mock
+    private WorkerNodeRepository workerNodeRepository;
+
     @InjectMocks
     private JobService jobService;
 
@@ -54,7 +64,7 @@ public class JobServiceTest {
     private ArgumentCaptor<Job> jobArgumentCaptor;
 
     @Test
-    public void shouldReturnNextUnassignedJobsForFirstPriority() {
+    public void shouldClaimUnassignedJobsAcrossAllPrioritiesInOneCall() {
 
         final UUID workerId = randomUUID();
         final int workerJobCount = 10;
@@ -64,68 +74,206 @@ public class JobServiceTest {
 
         final List<Job> jobs = List.of(mock(Job.class), mock(Job.class), mock(Job.class));
 
-        when(jobRepository.lockJobsFor(workerId, priorities.get(0), workerJobCount)).thenReturn(jobs.size());
-        when(jobRepository.findJobsLockedTo(workerId)).thenReturn(jobs.stream());
+        when(jobRepository.claimJobsFor(workerId, priorities, workerJobCount, List.of())).thenReturn(jobs.stream());
 
         assertThat(jobService.getUnassignedJobsFor(workerId, priorities).count(), is(3L));
-        verify(jobRepository).lockJobsFor(workerId, priorities.get(0), workerJobCount);
+        verify(jobRepository).claimJobsFor(workerId, priorities, workerJobCount, List.of());
+        verifyNoMoreInteractions(jobRepository);
     }
 
     @Test
-    public void shouldReturnNextUnassignedJobsForSecondPriorityIfNoJobsWithFirstPriorityFound() {
+    public void shouldReturnNoUnassignedJobsIfNoJobsFoundForAnyPriority() {
 
         final UUID workerId = randomUUID();
         final int workerJobCount = 10;
         final List<Priority> priorities = List.of(MEDIUM, HIGH, LOW);
 
         when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(workerJobCount);
+        when(jobRepository.claimJobsFor(workerId, priorities, workerJobCount, List.of())).thenReturn(Stream.empty());
 
-        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class), mock(Job.class));
+        assertThat(jobService.getUnassignedJobsFor(workerId, priorities).count(), is(0L));
+        verify(jobRepository).claimJobsFor(workerId, priorities, workerJobCount, List.of());
+        verifyNoMoreInteractions(jobRepository);
+    }
 
-        when(jobRepository.lockJobsFor(workerId, priorities.get(0), workerJobCount)).thenReturn(0);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(1), workerJobCount)).thenReturn(jobs.size());
-        when(jobRepository.findJobsLockedTo(workerId)).thenReturn(jobs.stream());
+    @Test
+    public void shouldNotClaimJobsIfNoPrioritiesGiven() {
 
-        assertThat(jobService.getUnassignedJobsFor(workerId, priorities).count(), is(3L));
-        verify(jobRepository).lockJobsFor(workerId, priorities.get(1), workerJobCount);
+        assertThat(jobService.getUnassignedJobsFor(randomUUID(), List.of()).count(), is(0L));
+        verifyNoMoreInteractions(jobRepository);
     }
 
     @Test
-    public void shouldReturnNextUnassignedJobsForThirdPriorityIfNoJobsWithFirstNorSecondPriorityFound() {
+    public void shouldClaimNoMoreThanTheRequestedNumberOfJobsExcludingTheGivenTasks() {
 
         final UUID workerId = randomUUID();
-        final int workerJobCount = 10;
-        final List<Priority> priorities = List.of(MEDIUM, HIGH, LOW);
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class));
 
-        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(workerJobCount);
+        when(jobRepository.claimJobsFor(workerId, priorities, 2, List.of("saturated-task"))).thenReturn(jobs.stream());
 
-        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class), mock(Job.class));
+        assertThat(jobService.getUnassignedJobsFor(workerId, priorities, 2, List.of("saturated-task")).count(), is(2L));
+        verify(jobRepository).claimJobsFor(workerId, priorities, 2, List.of("saturated-task"));
+        verifyNoMoreInteractions(jobRepository);
+    }
 
-        when(jobRepository.lockJobsFor(workerId, priorities.get(0), workerJobCount)).thenReturn(0);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(1), workerJobCount)).thenReturn(0);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(2), workerJobCount)).thenReturn(jobs.size());
-        when(jobRepository.findJobsLockedTo(workerId)).thenReturn(jobs.stream());
+    @Test
+    public void shouldClaimJobsByEffectivePriorityWhenPriorityAgingEnabled() {
 
-        assertThat(jobService.getUnassignedJobsFor(workerId, priorities).count(), is(3L));
-        verify(jobRepository).lockJobsFor(workerId, priorities.get(2), workerJobCount);
+        final UUID workerId = randomUUID();
+        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class));
+
+        when(jobStoreConfiguration.isPriorityAgingEnabled()).thenReturn(true);
+        when(jobRepository.claimJobsByEffectivePriorityFor(workerId, 2, List.of("saturated-task"))).thenReturn(jobs.stream());
+
+        assertThat(jobService.getUnassignedJobsFor(workerId, List.of(HIGH, MEDIUM, LOW), 2, List.of("saturated-task")).count(), is(2L));
+        verify(jobRepository).claimJobsByEffectivePriorityFor(workerId, 2, List.of("saturated-task"));
+        verifyNoMoreInteractions(jobRepository);
+    }
+
+    @Test
+    public void shouldNotClaimJobsIfNoJobsRequested() {
+
+        assertThat(jobService.getUnassignedJobsFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 0, List.of()).count(), is(0L));
+        verifyNoMoreInteractions(jobRepository);
     }
 
     @Test
-    public void shouldReturnNOUnassignedJobsfNoJobsWithFirstSecondNorThirdePriorityFound() {
+    public void shouldClaimJobsFairlyAcrossTheGivenTasks() {
 
         final UUID workerId = randomUUID();
-        final int workerJobCount = 10;
-        final List<Priority> priorities = List.of(MEDIUM, HIGH, LOW);
+        final List<Priority> priorities = List.of(HIGH, MEDIUM, LOW);
+        final Map<String, Integer> weightByTaskName = Map.of("task-a", 2, "task-b", 1);
+        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class));
 
-        when(jobStoreConfiguration.getWorkerJobCount()).thenReturn(workerJobCount);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(0), workerJobCount)).thenReturn(0);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(1), workerJobCount)).thenReturn(0);
-        when(jobRepository.lockJobsFor(workerId, priorities.get(2), workerJobCount)).thenReturn(0);
+        when(jobRepository.claimJobsFairlyFor(workerId, priorities, 2, weightByTaskName)).thenReturn(jobs.stream());
 
-        assertThat(jobService.getUnassignedJobsFor(workerId, priorities).count(), is(0L));
+        assertThat(jobService.getUnassignedJobsFairlyFor(workerId, priorities, 2, weightByTaskName).count(), is(2L));
+        verify(jobRepository).claimJobsFairlyFor(workerId, priorities, 2, weightByTaskName);
+        verifyNoMoreInteractions(jobRepository);
+    }
+
+    @Test
+    public void shouldNotClaimJobsFairlyIfNoTasksGiven() {
+
+        assertThat(jobService.getUnassignedJobsFairlyFor(randomUUID(), List.of(HIGH, MEDIUM, LOW), 2, Map.of()).count(), is(0L));
+        verifyNoMoreInteractions(jobRepository);
+    }
+
+    @Test
+    public void shouldRenewJobLeases() {
+
+        final Map<UUID, UUID> workerIdsByJobId = Map.of(randomUUID(), randomUUID());
+
+        when(jobRepository.renewJobLeases(workerIdsByJobId)).thenReturn(1);
+
+        assertThat(jobService.renewJobLeases(workerIdsByJobId), is(1));
+    }
+
+    @Test
+    public void shouldNotRenewJobLeasesIfNoJobsInFlight() {
+
+        assertThat(jobService.renewJobLeases(Map.of()), is(0));
         verifyNoMoreInteractions(jobRepository);
     }
 
+    @Test
+    public void shouldDeleteCompletedJobs() {
+
+        final Map<UUID, UUID> workerIdsByJobId = Map.of(randomUUID(), randomUUID());
+
+        when(jobRepository.deleteJobs(workerIdsByJobId)).thenReturn(1);
+
+        assertThat(jobService.deleteJobs(workerIdsByJobId), is(1));
+    }
+
+    @Test
+    public void shouldNotDeleteJobsIfNoneCompleted() {
+
+        assertThat(jobService.deleteJobs(Map.of()), is(0));
+        verifyNoMoreInteractions(jobRepository);
+    }
+
+    @Test
+    public void shouldGetPriorityBacklogsCountedUpToTheConfiguredDepthLimit() {
+
+        final List<PriorityBacklog> priorityBacklogs = List.of(new PriorityBacklog(HIGH, 3, Optional.empty()));
+
+        when(jobStoreConfiguration.getPriorityBacklogDepthLimit()).thenReturn(500);
+        when(jobRepository.findPriorityBacklogs(500)).thenReturn(priorityBacklogs);
+
+        assertThat(jobService.getPriorityBacklogs(), is(priorityBacklogs));
+    }
+
+    @Test
+    public void shouldHeartbeatWorkerNode() {
+
+        final UUID nodeId = randomUUID();
+
+        jobService.heartbeatWorkerNode(nodeId, "node-1");
+
+        verify(workerNodeRepository).heartbeat(nodeId, "node-1");
+    }
+
+    @Test
+    public void shouldReleaseJobsOfDeadWorkerNodes() {
+
+        final ZonedDateTime heartbeatExpiredBefore = now().minusMinutes(3);
+
+        when(workerNodeRepository.releaseJobsOfDeadNodes(toSqlTimestamp(heartbeatExpiredBefore))).thenReturn(4);
+
+        assertThat(jobService.releaseJobsOfDeadWorkerNodes(heartbeatExpiredBefore), is(4));
+    }
+
+    @Test
+    public void shouldUpdateNextTaskAndReleaseJob() {
+        final UUID jobId = randomUUID();
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final ZonedDateTime startTime = now();
+
+        jobService.updateNextTaskAndReleaseJob(jobId, jobData, "nextTask", startTime, 2);
+
+        verify(jobRepository).updateNextTaskAndReleaseJob(jobId, jobData, "nextTask", toSqlTimestamp(startTime), 2);
+    }
+
+    @Test
+    public void shouldUpdateNextTaskPatchingJobDataAndReleaseJob() {
+        final UUID jobId = randomUUID();
+        final JsonObject jobData = jsonBuilderFactory.createObjectBuilder().add("testName", "testValue").build();
+        final JobDataPatch jobDataPatch = new JobDataPatch(jobData, jobData, List.of());
+        final ZonedDateTime startTime = now();
+
+        jobService.updateNextTaskPatchingJobDataAndReleaseJob(jobId, jobDataPatch, "nextTask", startTime, 2);
+
+        verify(jobRepository).updateNextTaskPatchingJobDataAndReleaseJob(jobId, jobDataPatch, "nextTask", toSqlTimestamp(startTime), 2);
+    }
+
+    @Test
+    public void shouldUpdateNextTaskRetryDetailsAndReleaseJob() {
+        final UUID jobId = randomUUID();
+        final ZonedDateTime startTime = now();
+
+        jobService.updateNextTaskRetryDetailsAndReleaseJob(jobId, startTime, 1);
+
+        verify(jobRepository).updateNextTaskRetryDetailsAndReleaseJob(jobId, toSqlTimestamp(startTime), 1);
+    }
+
+    @Test
+    public void shouldCreateNewJobs() {
+        final List<Job> jobs = List.of(mock(Job.class), mock(Job.class));
+
+        jobService.insertJobs(jobs);
+
+        verify(jobRepository).insertJobs(jobs);
+    }
+
+    @Test
+    public void shouldNotInsertAnEmptyListOfJobs() {
+        jobService.insertJobs(List.of());
+
+        verifyNoInteractions(jobRepository);
+    }
+
     @Test
     public void shouldCreateNewJob() {
 